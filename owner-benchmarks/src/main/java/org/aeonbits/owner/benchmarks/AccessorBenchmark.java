@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner.benchmarks;
+
+import org.aeonbits.owner.Config;
+import org.aeonbits.owner.ConfigFactory;
+import org.aeonbits.owner.Preprocessor;
+import org.aeonbits.owner.crypto.AbstractDecryptor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the invocation of the accessors of a config object, with the different features involved in the resolution
+ * of a property value.
+ *
+ * @author Luigi R. Viggiano
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+public class AccessorBenchmark {
+
+    public interface AccessorConfig extends Config {
+        @DefaultValue("localhost")
+        String plain();
+
+        @DefaultValue("http://${plain}:${port}/${path}")
+        String expanded();
+
+        @DefaultValue("8080")
+        String port();
+
+        @DefaultValue("index.html")
+        String path();
+
+        @DefaultValue("Hello, %s! You have %d new messages.")
+        String formatted(String name, int count);
+
+        @EncryptedValue(Reverse.class)
+        @DefaultValue("terces")
+        String encrypted();
+
+        @PreprocessorClasses(Trim.class)
+        @DefaultValue("   padded   ")
+        String preprocessed();
+
+        @DefaultValue("8080")
+        int converted();
+
+        @CachedValue
+        @DefaultValue("http://${plain}:${port}/${path}")
+        String cached();
+    }
+
+    public static class Reverse extends AbstractDecryptor {
+        public String decrypt(String value) {
+            return new StringBuilder(value).reverse().toString();
+        }
+    }
+
+    public static class Trim implements Preprocessor {
+        public String process(String input) {
+            return input.trim();
+        }
+    }
+
+    private AccessorConfig cfg;
+
+    @Setup
+    public void setup() {
+        cfg = ConfigFactory.create(AccessorConfig.class);
+    }
+
+    @Benchmark
+    public String plain() {
+        return cfg.plain();
+    }
+
+    @Benchmark
+    public String expanded() {
+        return cfg.expanded();
+    }
+
+    @Benchmark
+    public String formatted() {
+        return cfg.formatted("world", 42);
+    }
+
+    @Benchmark
+    public String encrypted() {
+        return cfg.encrypted();
+    }
+
+    @Benchmark
+    public String preprocessed() {
+        return cfg.preprocessed();
+    }
+
+    @Benchmark
+    public int converted() {
+        return cfg.converted();
+    }
+
+    @Benchmark
+    public String cached() {
+        return cfg.cached();
+    }
+
+}
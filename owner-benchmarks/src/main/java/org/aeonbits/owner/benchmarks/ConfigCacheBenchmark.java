@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner.benchmarks;
+
+import org.aeonbits.owner.Config;
+import org.aeonbits.owner.ConfigCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link ConfigCache#getOrCreate(Class, java.util.Map[])} with many threads asking for the same instance.
+ *
+ * @author Luigi R. Viggiano
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+public class ConfigCacheBenchmark {
+
+    public interface CachedConfig extends Config {
+        @DefaultValue("localhost")
+        String host();
+    }
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        ConfigCache.clear();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        ConfigCache.clear();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public CachedConfig uncontended() {
+        return ConfigCache.getOrCreate(CachedConfig.class);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public CachedConfig contended() {
+        return ConfigCache.getOrCreate(CachedConfig.class);
+    }
+
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner.benchmarks;
+
+import org.aeonbits.owner.Config;
+import org.aeonbits.owner.ConfigFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the conversion of property values to arrays and collections.
+ *
+ * @author Luigi R. Viggiano
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+public class ConversionBenchmark {
+
+    public interface CollectionConfig extends Config {
+        @DefaultValue("1, 2, 3, 4, 5, 6, 7, 8, 9, 10")
+        int[] primitiveArray();
+
+        @DefaultValue("a, b, c, d, e, f, g, h, i, j")
+        String[] stringArray();
+
+        @DefaultValue("1, 2, 3, 4, 5, 6, 7, 8, 9, 10")
+        List<Integer> list();
+
+        @DefaultValue("a, b, c, d, e, f, g, h, i, j")
+        Set<String> set();
+
+        @Separator(";")
+        @DefaultValue("a; b; c; d; e; f; g; h; i; j")
+        List<String> customSeparator();
+    }
+
+    private CollectionConfig cfg;
+
+    @Setup
+    public void setup() {
+        cfg = ConfigFactory.create(CollectionConfig.class);
+    }
+
+    @Benchmark
+    public int[] primitiveArray() {
+        return cfg.primitiveArray();
+    }
+
+    @Benchmark
+    public String[] stringArray() {
+        return cfg.stringArray();
+    }
+
+    @Benchmark
+    public List<Integer> list() {
+        return cfg.list();
+    }
+
+    @Benchmark
+    public Set<String> set() {
+        return cfg.set();
+    }
+
+    @Benchmark
+    public List<String> customSeparator() {
+        return cfg.customSeparator();
+    }
+
+}
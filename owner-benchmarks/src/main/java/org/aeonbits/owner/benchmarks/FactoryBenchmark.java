@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner.benchmarks;
+
+import org.aeonbits.owner.Config;
+import org.aeonbits.owner.ConfigFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link ConfigFactory#create(Class, java.util.Map[])}: <code>cold</code> is the first creation in a fresh
+ * JVM, including class loading and the first scan of the annotations; <code>warm</code> is the steady state.
+ *
+ * @author Luigi R. Viggiano
+ */
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FactoryBenchmark {
+
+    public interface ServerConfig extends Config {
+        @DefaultValue("localhost")
+        String host();
+
+        @DefaultValue("8080")
+        int port();
+
+        @DefaultValue("http://${host}:${port}/")
+        String url();
+
+        @DefaultValue("10, 20, 30")
+        List<Integer> timeouts();
+
+        @DefaultValue("true")
+        boolean secure();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    @Fork(20)
+    public ServerConfig cold() {
+        return ConfigFactory.create(ServerConfig.class);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @Fork(1)
+    public ServerConfig warm() {
+        return ConfigFactory.create(ServerConfig.class);
+    }
+
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner.benchmarks;
+
+import org.aeonbits.owner.Config;
+import org.aeonbits.owner.ConfigFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import static org.aeonbits.owner.Config.HotReloadType.SYNC;
+
+/**
+ * Measures the accessors of config objects with {@link Config.HotReloadType#SYNC} hot reload, where every invocation
+ * checks if the interval is elapsed, with one and with many threads.
+ *
+ * @author Luigi R. Viggiano
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+public class HotReloadBenchmark {
+
+    private static final String SPEC = "file:${java.io.tmpdir}/HotReloadBenchmark.properties";
+
+    @Config.Sources(SPEC)
+    @Config.HotReload(type = SYNC)
+    public interface DefaultIntervalConfig extends Config {
+        @DefaultValue("localhost")
+        String host();
+    }
+
+    @Config.Sources(SPEC)
+    @Config.HotReload(value = 1, unit = TimeUnit.MILLISECONDS, type = SYNC)
+    public interface ShortIntervalConfig extends Config {
+        @DefaultValue("localhost")
+        String host();
+    }
+
+    private File file;
+    private DefaultIntervalConfig defaultInterval;
+    private ShortIntervalConfig shortInterval;
+
+    @Setup
+    public void setup() throws IOException {
+        file = new File(System.getProperty("java.io.tmpdir"), "HotReloadBenchmark.properties");
+        OutputStream out = new FileOutputStream(file);
+        try {
+            out.write("host=example.com\n".getBytes("ISO-8859-1"));
+        } finally {
+            out.close();
+        }
+        defaultInterval = ConfigFactory.create(DefaultIntervalConfig.class);
+        shortInterval = ConfigFactory.create(ShortIntervalConfig.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String uncontended() {
+        return defaultInterval.host();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String contended() {
+        return defaultInterval.host();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String contendedShortInterval() {
+        return shortInterval.host();
+    }
+
+}
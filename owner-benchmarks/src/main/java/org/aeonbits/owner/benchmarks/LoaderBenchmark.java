@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner.benchmarks;
+
+import org.aeonbits.owner.loaders.Loader;
+import org.aeonbits.owner.loaders.PropertiesLoader;
+import org.aeonbits.owner.loaders.XMLLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.URI;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the parsing of large files by {@link PropertiesLoader}, compared to {@link Properties#load(java.io.Reader)},
+ * and by {@link XMLLoader}, both in the Java properties XML format and in the nested elements format.
+ *
+ * @author Luigi R. Viggiano
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+public class LoaderBenchmark {
+
+    @Param({"1000", "100000"})
+    public int entries;
+
+    private final Loader propertiesLoader = new PropertiesLoader();
+    private final Loader xmlLoader = new XMLLoader();
+    private File propertiesFile;
+    private File javaXmlFile;
+    private File nestedXmlFile;
+
+    @Setup
+    public void setup() throws IOException {
+        Properties properties = new Properties();
+        for (int i = 0; i < entries; i++)
+            properties.setProperty(key(i), value(i));
+
+        propertiesFile = File.createTempFile("owner-benchmark", ".properties");
+        OutputStream out = new FileOutputStream(propertiesFile);
+        try {
+            properties.store(out, null);
+        } finally {
+            out.close();
+        }
+
+        javaXmlFile = File.createTempFile("owner-benchmark", ".xml");
+        out = new FileOutputStream(javaXmlFile);
+        try {
+            properties.storeToXML(out, null);
+        } finally {
+            out.close();
+        }
+
+        nestedXmlFile = File.createTempFile("owner-benchmark-nested", ".xml");
+        Writer writer = new OutputStreamWriter(new FileOutputStream(nestedXmlFile), "UTF-8");
+        try {
+            writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<config>\n");
+            for (int section = 0; section * 100 < entries; section++) {
+                writer.write("  <section" + section + ">\n");
+                for (int i = section * 100; i < Math.min(entries, (section + 1) * 100); i++)
+                    writer.write("    <key" + i + " attribute=\"" + i + "\">" + value(i) + "</key" + i + ">\n");
+                writer.write("  </section" + section + ">\n");
+            }
+            writer.write("</config>\n");
+        } finally {
+            writer.close();
+        }
+    }
+
+    private static String key(int i) {
+        return "section" + (i / 100) + ".key" + i;
+    }
+
+    private static String value(int i) {
+        return "value number " + i + " with ${section" + (i / 100) + ".key0} some text";
+    }
+
+    @TearDown
+    public void tearDown() {
+        propertiesFile.delete();
+        javaXmlFile.delete();
+        nestedXmlFile.delete();
+    }
+
+    @Benchmark
+    public Properties properties() throws IOException {
+        return load(propertiesLoader, propertiesFile.toURI());
+    }
+
+    /**
+     * The baseline for {@link #properties()}: the same file loaded by {@link Properties#load(java.io.Reader)}.
+     */
+    @Benchmark
+    public Properties jdkProperties() throws IOException {
+        Properties result = new Properties();
+        Reader reader = new InputStreamReader(new FileInputStream(propertiesFile), "UTF-8");
+        try {
+            result.load(reader);
+        } finally {
+            reader.close();
+        }
+        return result;
+    }
+
+    @Benchmark
+    public Properties javaXml() throws IOException {
+        return load(xmlLoader, javaXmlFile.toURI());
+    }
+
+    @Benchmark
+    public Properties nestedXml() throws IOException {
+        return load(xmlLoader, nestedXmlFile.toURI());
+    }
+
+    private static Properties load(Loader loader, URI uri) throws IOException {
+        Properties result = new Properties();
+        loader.load(result, uri);
+        return result;
+    }
+
+}
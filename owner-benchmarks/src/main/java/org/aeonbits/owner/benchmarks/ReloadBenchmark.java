@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner.benchmarks;
+
+import org.aeonbits.owner.Config;
+import org.aeonbits.owner.ConfigFactory;
+import org.aeonbits.owner.Mutable;
+import org.aeonbits.owner.Reloadable;
+import org.aeonbits.owner.event.ReloadEvent;
+import org.aeonbits.owner.event.ReloadListener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Reloadable#reload()} with a varying number of registered listeners.
+ *
+ * @author Luigi R. Viggiano
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+public class ReloadBenchmark {
+
+    @Config.Sources("classpath:org/aeonbits/owner/benchmarks/ReloadBenchmark.properties")
+    public interface ReloadableConfig extends Reloadable, Mutable {
+        @DefaultValue("localhost")
+        String host();
+
+        @DefaultValue("8080")
+        int port();
+    }
+
+    @Param({"0", "1", "10"})
+    public int listeners;
+
+    private ReloadableConfig cfg;
+    private volatile int notified;
+
+    @Setup
+    public void setup() {
+        cfg = ConfigFactory.create(ReloadableConfig.class);
+        for (int i = 0; i < listeners; i++)
+            cfg.addReloadListener(new ReloadListener() {
+                public void reloadPerformed(ReloadEvent event) {
+                    notified++;
+                }
+            });
+    }
+
+    @Benchmark
+    public void reload() {
+        cfg.reload();
+    }
+
+}
@@ -8,79 +8,295 @@
 
 package org.aeonbits.owner.loaders;
 
-import org.apache.curator.RetryPolicy;
-import org.apache.curator.RetrySleeper;
 import org.apache.curator.framework.CuratorFramework;
 import org.apache.curator.framework.CuratorFrameworkFactory;
-import org.apache.curator.utils.ZKPaths;
+import org.apache.curator.framework.recipes.cache.ChildData;
+import org.apache.curator.framework.recipes.cache.TreeCache;
+import org.apache.curator.framework.recipes.cache.TreeCacheEvent;
+import org.apache.curator.framework.recipes.cache.TreeCacheListener;
+import org.apache.curator.retry.ExponentialBackoffRetry;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InterruptedIOException;
+import java.io.ObjectInputStream;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static java.lang.Integer.parseInt;
 import static java.lang.System.getProperty;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
 /**
+ * Loads the properties from the children of a ZooKeeper node.
+ * <p>
+ * A single client is kept connected for each ZooKeeper ensemble, and the children of each node loaded are kept in a
+ * cache updated by the ZooKeeper watches: after the first load, the properties are loaded from memory, and the hot
+ * reloadable config objects are notified of the changes as soon as they happen.
+ * </p>
+ * <p>
+ * The connections and the watches are kept until {@link #close()} is called. They are not serialized: a deserialized
+ * loader connects again when it is used.
+ * </p>
+ * <p>
+ * The subscribers are notified on a thread of the loader, so that their reloads don't delay the ZooKeeper events. When
+ * a node stops being watched, as when the loader is closed, its subscribers are told so, and check it periodically
+ * from then on.
+ * </p>
+ * <p>
+ * The connections are retried a few times, waiting longer each time, before a load fails.
+ * </p>
+ *
  * @author Koray Sariteke
  * @author Luigi R. Viggiano
  *
  */
-public class ZooKeeperLoader implements Loader {
+public class ZooKeeperLoader implements Loader, Watchable, Subscribable, Closeable {
 
     private static final String SCHEME = "zookeeper";
     private static final String ZOOKEEPER_CONNECTION_TIMEOUT_SECONDS = "owner.zookeeper.connection.timeout.seconds";
+    private static final int BASE_SLEEP_MILLIS = 1000;
+    private static final int MAX_RETRIES = 3;
+
+    private static final ThreadPoolExecutor notifier = newNotifier();
+
+    private transient ConcurrentMap<String, CuratorFramework> clients =
+            new ConcurrentHashMap<String, CuratorFramework>();
+    private transient ConcurrentMap<URI, Node> nodes = new ConcurrentHashMap<URI, Node>();
+
+    private static ThreadPoolExecutor newNotifier() {
+        ThreadPoolExecutor result = new ThreadPoolExecutor(1, 1, 30, SECONDS, new LinkedBlockingQueue<Runnable>(),
+                new ThreadFactory() {
+                    public Thread newThread(Runnable r) {
+                        Thread result = new Thread(r, "owner-zookeeper");
+                        result.setDaemon(true);
+                        return result;
+                    }
+                });
+        result.allowCoreThreadTimeOut(true);
+        return result;
+    }
+
+    /**
+     * The children of a node, kept up to date by a {@link TreeCache}.
+     */
+    private static class Node implements TreeCacheListener, Runnable {
+        private final String path;
+        private final TreeCache cache;
+        private final CountDownLatch initialized = new CountDownLatch(1);
+        private final AtomicLong version = new AtomicLong();
+        private final CopyOnWriteArrayList<Subscriber> subscribers = new CopyOnWriteArrayList<Subscriber>();
+        private final AtomicBoolean notifying = new AtomicBoolean();
 
+        Node(CuratorFramework client, String path) {
+            this.path = path;
+            this.cache = TreeCache.newBuilder(client, path).setMaxDepth(1).build();
+            cache.getListenable().addListener(this);
+        }
+
+        void start() throws IOException {
+            try {
+                cache.start();
+            } catch (Exception e) {
+                throw new IOException(e);
+            }
+        }
+
+        void awaitInitialized() throws IOException {
+            int timeout = parseInt(getProperty(ZOOKEEPER_CONNECTION_TIMEOUT_SECONDS, "30"));
+            try {
+                if (!initialized.await(timeout, SECONDS))
+                    throw new IOException("Timeout reading " + path + " from ZooKeeper");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw (IOException) new InterruptedIOException().initCause(e);
+            }
+        }
+
+        Map<String, ChildData> children() {
+            return cache.getCurrentChildren(path);
+        }
+
+        public void childEvent(CuratorFramework client, TreeCacheEvent event) {
+            switch (event.getType()) {
+                case INITIALIZED:
+                    initialized.countDown();
+                    break;
+                case NODE_ADDED:
+                case NODE_UPDATED:
+                case NODE_REMOVED:
+                    version.incrementAndGet();
+                    if (initialized.getCount() == 0)
+                        notifyLater();
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        /**
+         * Notifies the listeners on the notifier thread, unless a notification is already waiting to start: a change
+         * happening while notifying is notified once more afterwards.
+         */
+        private void notifyLater() {
+            if (notifying.compareAndSet(false, true))
+                notifier.execute(this);
+        }
+
+        public void run() {
+            notifying.set(false);
+            for (Subscriber subscriber : subscribers) {
+                try {
+                    subscriber.changed();
+                } catch (RuntimeException e) {
+                    // a failing reload must not stop notifying the other subscribers.
+                }
+            }
+        }
+
+        /**
+         * Stops watching the node, and tells the subscribers so on the notifier thread.
+         */
+        void close() {
+            cache.close();
+            final List<Subscriber> unsubscribed = new ArrayList<Subscriber>(subscribers);
+            subscribers.removeAll(unsubscribed);
+            if (unsubscribed.isEmpty())
+                return;
+            notifier.execute(new Runnable() {
+                public void run() {
+                    for (Subscriber subscriber : unsubscribed) {
+                        try {
+                            subscriber.unsubscribed();
+                        } catch (RuntimeException e) {
+                            // the other subscribers must be told anyway.
+                        }
+                    }
+                }
+            });
+        }
+    }
 
     public boolean accept(URI uri) {
         return uri.getScheme().equals(SCHEME);
     }
 
     public void load(Properties result, URI uri) throws IOException {
-        CuratorFramework client = getClient(uri);
-        try {
-            connect(client);
-
-            String basePath = uri.getPath();
+        Map<String, ChildData> children = node(uri).children();
+        if (children == null)
+            throw new IOException("ZooKeeper node not found: " + uri.getPath());
+        for (Map.Entry<String, ChildData> child : children.entrySet()) {
+            byte[] data = child.getValue().getData();
+            if (data != null)
+                result.put(child.getKey(), new String(data));
+        }
+    }
 
-            for (String key : client.getChildren().forPath(basePath))
-                result.put(key, getValue(client, basePath, key));
+    /**
+     * Returns the version of the cached children of the node, which changes whenever a property is added, removed or
+     * modified.
+     */
+    public String stamp(URI uri) throws IOException {
+        Node node = node(uri);
+        if (node.children() == null)
+            return null;
+        return System.identityHashCode(node) + ":" + node.version.get();
+    }
 
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw (IOException) new InterruptedIOException().initCause(e);
-        } catch (Exception e) {
-            throw new IOException(e);
-        } finally {
-            client.close();
+    public Subscription subscribe(URI uri, final Subscriber subscriber) throws IOException {
+        final Node node = node(uri);
+        node.subscribers.add(subscriber);
+        if (nodes.get(uri) != node) {
+            // closed meanwhile: its subscribers may have been told already.
+            node.subscribers.remove(subscriber);
+            throw new IOException("ZooKeeper node closed: " + uri.getPath());
         }
+        return new Subscription() {
+            public void cancel() {
+                node.subscribers.remove(subscriber);
+            }
+        };
     }
 
-    private String getValue(CuratorFramework client, String basePath, String key) throws Exception {
-        return new String(client.getData().forPath(ZKPaths.makePath(basePath, key)));
+    private Node node(URI uri) throws IOException {
+        Node node = nodes.get(uri);
+        if (node == null) {
+            Node created = new Node(client(uri), uri.getPath());
+            node = nodes.putIfAbsent(uri, created);
+            if (node == null) {
+                node = created;
+                try {
+                    node.start();
+                } catch (IOException e) {
+                    discard(uri, node);
+                    throw e;
+                }
+            }
+        }
+        try {
+            node.awaitInitialized();
+        } catch (IOException e) {
+            // the next load tries again, with a new cache.
+            discard(uri, node);
+            throw e;
+        }
+        return node;
     }
 
-    private void connect(CuratorFramework client) throws InterruptedException {
-        client.start();
-        int timeout = parseInt(getProperty(ZOOKEEPER_CONNECTION_TIMEOUT_SECONDS, "30"));
-        client.blockUntilConnected(timeout, SECONDS);
+    private void discard(URI uri, Node node) {
+        if (nodes.remove(uri, node))
+            node.close();
     }
 
-    private CuratorFramework getClient(URI uri) {
+    private CuratorFramework client(URI uri) {
         String host = uri.getHost();
         int port = uri.getPort();
-
         String connectString = (port == -1) ? host : host + ":" + port;
-        return CuratorFrameworkFactory.newClient(connectString, new RetryPolicy() {
-            public boolean allowRetry(int retryCount, long elapsedTimeMs, RetrySleeper sleeper) {
-                return false;
+
+        CuratorFramework client = clients.get(connectString);
+        if (client == null) {
+            CuratorFramework created = CuratorFrameworkFactory.newClient(connectString,
+                    new ExponentialBackoffRetry(BASE_SLEEP_MILLIS, MAX_RETRIES));
+            client = clients.putIfAbsent(connectString, created);
+            if (client == null) {
+                client = created;
+                client.start();
             }
-        });
+        }
+        return client;
+    }
+
+    /**
+     * Stops watching the nodes, and disconnects from ZooKeeper. The subscribers are told that their nodes are not
+     * watched anymore.
+     */
+    public void close() {
+        for (Map.Entry<URI, Node> entry : nodes.entrySet())
+            discard(entry.getKey(), entry.getValue());
+        for (CuratorFramework client : clients.values())
+            client.close();
+        clients.clear();
     }
 
     public String defaultSpecFor(String urlPrefix) {
         return null;
     }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        clients = new ConcurrentHashMap<String, CuratorFramework>();
+        nodes = new ConcurrentHashMap<URI, Node>();
+    }
 }
@@ -11,6 +11,9 @@ package org.aeonbits.owner.loaders;
 import org.aeonbits.owner.Config;
 import org.aeonbits.owner.ConfigFactory;
 import org.aeonbits.owner.Factory;
+import org.aeonbits.owner.Reloadable;
+import org.aeonbits.owner.event.ReloadEvent;
+import org.aeonbits.owner.event.ReloadListener;
 import org.apache.curator.RetryPolicy;
 import org.apache.curator.RetrySleeper;
 import org.apache.curator.framework.CuratorFramework;
@@ -21,11 +24,19 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.URI;
 import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
 
 import static java.util.Arrays.asList;
 import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.aeonbits.owner.Config.HotReload;
 import static org.aeonbits.owner.Config.Sources;
 import static org.junit.Assert.*;
 
@@ -36,6 +47,7 @@ import static org.junit.Assert.*;
 public class ZooKeeperLoaderTest {
     private TestingServer server;
     private Factory configFactory;
+    private ZooKeeperLoader loader;
 
     @Sources("zookeeper://127.0.0.1:65403/test")
     public static interface ZooKeeperConfig extends Config {
@@ -51,6 +63,12 @@ public class ZooKeeperLoaderTest {
         String notAvailable();
     }
 
+    @Sources("zookeeper://127.0.0.1:65403/test")
+    @HotReload(1)
+    public static interface ZooKeeperReloadableConfig extends Reloadable {
+        String thanks();
+    }
+
     @Test
     public void shouldLoadPropertiesFromZookeeperSource() throws Exception {
         ZooKeeperConfig sample = configFactory.create(ZooKeeperConfig.class);
@@ -67,18 +85,116 @@ public class ZooKeeperLoaderTest {
         assertNull(config.thanks());
     }
 
+    @Test
+    public void theStampShouldChangeWhenThePropertiesChange() throws Exception {
+        URI uri = new URI("zookeeper://127.0.0.1:65403/test");
+        String stamp = loader.stamp(uri);
+        assertNotNull(stamp);
+        assertEquals(stamp, loader.stamp(uri));
+
+        CuratorFramework client = newClient();
+        try {
+            client.start();
+            client.blockUntilConnected(30, SECONDS);
+            client.setData().forPath("/test/thanks", "grazie".getBytes());
+            String modified = awaitStampChange(uri, stamp);
+
+            setDataInZookeperServer(client, "/test", "farewell", "bye");
+            awaitStampChange(uri, modified);
+        } finally {
+            client.close();
+        }
+    }
+
+    private String awaitStampChange(URI uri, String stamp) throws Exception {
+        long deadline = System.currentTimeMillis() + SECONDS.toMillis(10);
+        String current;
+        while ((current = loader.stamp(uri)).equals(stamp) && System.currentTimeMillis() < deadline)
+            Thread.sleep(10);
+        assertNotEquals(stamp, current);
+        return current;
+    }
+
+    @Test
+    public void theStampOfAWrongPathIsNull() throws Exception {
+        assertNull(loader.stamp(new URI("zookeeper://127.0.0.1:65403/wrong")));
+    }
+
+    @Test
+    public void shouldReloadWhenTheChangesArePushed() throws Exception {
+        ZooKeeperReloadableConfig config = configFactory.create(ZooKeeperReloadableConfig.class);
+        assertEquals("welcome", config.thanks());
+        final CountDownLatch reloaded = new CountDownLatch(1);
+        final String[] thread = new String[1];
+        config.addReloadListener(new ReloadListener() {
+            public void reloadPerformed(ReloadEvent event) {
+                thread[0] = Thread.currentThread().getName();
+                reloaded.countDown();
+            }
+        });
+
+        CuratorFramework client = newClient();
+        try {
+            client.start();
+            client.blockUntilConnected(30, SECONDS);
+            client.setData().forPath("/test/thanks", "grazie".getBytes());
+        } finally {
+            client.close();
+        }
+
+        assertTrue(reloaded.await(10, SECONDS));
+        assertEquals("grazie", config.thanks());
+        assertEquals("owner-zookeeper", thread[0]);
+    }
+
+    @Test
+    public void shouldCheckTheNodePeriodicallyOnceTheLoaderIsClosed() throws Exception {
+        ZooKeeperReloadableConfig config = configFactory.create(ZooKeeperReloadableConfig.class);
+        assertEquals("welcome", config.thanks());
+        loader.close();
+
+        CuratorFramework client = newClient();
+        try {
+            client.start();
+            client.blockUntilConnected(30, SECONDS);
+            client.setData().forPath("/test/thanks", "grazie".getBytes());
+        } finally {
+            client.close();
+        }
+
+        long deadline = System.currentTimeMillis() + SECONDS.toMillis(10);
+        while (!"grazie".equals(config.thanks()) && System.currentTimeMillis() < deadline)
+            Thread.sleep(50);
+        assertEquals("grazie", config.thanks());
+    }
+
+    @Test
+    public void shouldLoadAfterDeserialization() throws Exception {
+        URI uri = new URI("zookeeper://127.0.0.1:65403/test");
+        loader.load(new Properties(), uri);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(loader);
+        out.close();
+        ZooKeeperLoader deserialized = (ZooKeeperLoader) new ObjectInputStream(
+                new ByteArrayInputStream(bytes.toByteArray())).readObject();
+
+        try {
+            Properties result = new Properties();
+            deserialized.load(result, uri);
+            assertEquals("welcome", result.getProperty("thanks"));
+        } finally {
+            deserialized.close();
+        }
+    }
+
     @Before
     public void before() throws Exception {
         server = new TestingServer(65403);
         server.start();
 
-        String connectString = server.getConnectString();
-
-        CuratorFramework client = CuratorFrameworkFactory.newClient(connectString, 50, 50, new RetryPolicy() {
-            public boolean allowRetry(int retryCount, long elapsedTimeMs, RetrySleeper sleeper) {
-                return false;
-            }
-        });
+        CuratorFramework client = newClient();
         try {
             client.start();
             client.blockUntilConnected(30, SECONDS);
@@ -90,7 +206,16 @@ public class ZooKeeperLoaderTest {
         }
 
         configFactory = ConfigFactory.newInstance();
-        configFactory.registerLoader(new ZooKeeperLoader());
+        loader = new ZooKeeperLoader();
+        configFactory.registerLoader(loader);
+    }
+
+    private CuratorFramework newClient() {
+        return CuratorFrameworkFactory.newClient(server.getConnectString(), 50, 50, new RetryPolicy() {
+            public boolean allowRetry(int retryCount, long elapsedTimeMs, RetrySleeper sleeper) {
+                return false;
+            }
+        });
     }
 
     private void setDataInZookeperServer(CuratorFramework client,
@@ -101,6 +226,7 @@ public class ZooKeeperLoaderTest {
 
     @After
     public void after() throws IOException {
+        loader.close();
         server.stop();
     }
 }
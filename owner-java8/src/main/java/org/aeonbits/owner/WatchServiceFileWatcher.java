@@ -0,0 +1,264 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * {@link FileWatcher} using a single {@link WatchService}, and a single daemon thread, for all the config objects.
+ * <p>
+ * The directories containing the files are registered once, whatever the number of files and config objects
+ * referring to them, and are released when no more files are watched in them. The changes notified are coalesced
+ * until the files have been quiet for the time requested by each watch.
+ * </p>
+ * <p>
+ * A directory that doesn't exist, or that has been deleted, is registered again as soon as it exists, trying once per
+ * quiet time: its files are then reloaded if some of them exist.
+ * </p>
+ *
+ * @author Luigi R. Viggiano
+ */
+class WatchServiceFileWatcher implements FileWatcher, Runnable {
+
+    private final WatchService service;
+    private final Thread thread;
+    private final Map<Path, Directory> directories = new HashMap<>();
+    private final Map<WatchKey, Directory> keys = new HashMap<>();
+    private final Map<WatchRegistration, Long> pending = new LinkedHashMap<>();
+
+    WatchServiceFileWatcher() throws IOException {
+        service = FileSystems.getDefault().newWatchService();
+        thread = new Thread(this, "owner-file-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static class Directory {
+        final Path path;
+        final Map<WatchRegistration, Set<Path>> registrations = new LinkedHashMap<>();
+        // null while the directory can't be watched; then it is registered again at retryTime.
+        WatchKey key;
+        long retryTime;
+
+        Directory(Path path) {
+            this.path = path;
+        }
+
+        long quietTime() {
+            long result = Long.MAX_VALUE;
+            for (WatchRegistration registration : registrations.keySet())
+                result = Math.min(result, registration.quietTime);
+            return result;
+        }
+
+        boolean containsAny(Set<Path> names) {
+            for (Path name : names)
+                if (Files.exists(path.resolve(name)))
+                    return true;
+            return false;
+        }
+    }
+
+    private class WatchRegistration implements Watch {
+        final long quietTime;
+        final Runnable listener;
+        final List<Path> directories = new ArrayList<>();
+
+        WatchRegistration(long quietTime, Runnable listener) {
+            this.quietTime = MILLISECONDS.toNanos(quietTime);
+            this.listener = listener;
+        }
+
+        @Override
+        public void cancel() {
+            unwatch(this);
+        }
+    }
+
+    @Override
+    public synchronized Watch watch(Collection<File> files, long quietTime, Runnable listener) {
+        WatchRegistration registration = new WatchRegistration(quietTime, listener);
+        boolean missing = false;
+        for (File file : files) {
+            Path path = file.getAbsoluteFile().toPath().normalize();
+            Path parent = path.getParent();
+            if (parent == null)
+                continue;
+            Directory directory = directories.computeIfAbsent(parent, Directory::new);
+            Set<Path> names = directory.registrations.get(registration);
+            if (names == null) {
+                names = new LinkedHashSet<>();
+                directory.registrations.put(registration, names);
+                registration.directories.add(parent);
+            }
+            names.add(path.getFileName());
+            if (directory.key == null && !register(directory)) {
+                directory.retryTime = System.nanoTime() + directory.quietTime();
+                missing = true;
+            }
+        }
+        if (missing)
+            thread.interrupt(); // to wait no more than until the next retry.
+        return registration;
+    }
+
+    private boolean register(Directory directory) {
+        try {
+            directory.key = directory.path.register(service, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+        } catch (IOException | ClosedWatchServiceException e) {
+            return false; // the directory doesn't exist yet.
+        }
+        keys.put(directory.key, directory);
+        return true;
+    }
+
+    private synchronized void unwatch(WatchRegistration registration) {
+        pending.remove(registration);
+        for (Path path : registration.directories) {
+            Directory directory = directories.get(path);
+            if (directory == null)
+                continue;
+            directory.registrations.remove(registration);
+            if (directory.registrations.isEmpty()) {
+                if (directory.key != null) {
+                    directory.key.cancel();
+                    keys.remove(directory.key);
+                }
+                directories.remove(path);
+            }
+        }
+        registration.directories.clear();
+    }
+
+    @Override
+    public void run() {
+        while (true) {
+            try {
+                long timeout = timeout();
+                WatchKey key = timeout < 0 ? service.take() : service.poll(timeout, NANOSECONDS);
+                if (key != null)
+                    changed(key);
+                retry();
+                for (WatchRegistration registration : expired())
+                    fire(registration);
+            } catch (InterruptedException e) {
+                // woken up by a new watch, to compute the timeout again.
+            } catch (ClosedWatchServiceException e) {
+                return; // the watcher has been shut down.
+            }
+        }
+    }
+
+    /**
+     * Returns the nanoseconds until the first pending notification or the first directory to register again, or -1 if
+     * there are neither.
+     */
+    private synchronized long timeout() {
+        long now = System.nanoTime();
+        long timeout = Long.MAX_VALUE;
+        for (long deadline : pending.values())
+            timeout = Math.min(timeout, Math.max(deadline - now, 0));
+        for (Directory directory : directories.values())
+            if (directory.key == null)
+                timeout = Math.min(timeout, Math.max(directory.retryTime - now, 0));
+        return timeout == Long.MAX_VALUE ? -1 : timeout;
+    }
+
+    private synchronized void changed(WatchKey key) {
+        List<WatchEvent<?>> events = key.pollEvents();
+        Directory directory = keys.get(key);
+        if (directory == null)
+            return;
+        long now = System.nanoTime();
+        if (!key.reset()) {
+            // the directory has been deleted, and its files with it.
+            keys.remove(key);
+            directory.key = null;
+            directory.retryTime = now + directory.quietTime();
+            for (WatchRegistration registration : directory.registrations.keySet())
+                pending.put(registration, now + registration.quietTime);
+            return;
+        }
+        for (Map.Entry<WatchRegistration, Set<Path>> entry : directory.registrations.entrySet())
+            if (concerns(events, entry.getValue()))
+                pending.put(entry.getKey(), now + entry.getKey().quietTime);
+    }
+
+    private static boolean concerns(List<WatchEvent<?>> events, Set<Path> names) {
+        for (WatchEvent<?> event : events)
+            if (event.kind() == OVERFLOW || names.contains(event.context()))
+                return true;
+        return false;
+    }
+
+    /**
+     * Registers again the directories that couldn't be watched, once their retry time has come: the files created in
+     * them meanwhile are notified.
+     */
+    private synchronized void retry() {
+        long now = System.nanoTime();
+        for (Directory directory : directories.values()) {
+            if (directory.key != null || directory.retryTime - now > 0)
+                continue;
+            if (!register(directory)) {
+                directory.retryTime = now + directory.quietTime();
+                continue;
+            }
+            for (Map.Entry<WatchRegistration, Set<Path>> entry : directory.registrations.entrySet())
+                if (directory.containsAny(entry.getValue()))
+                    pending.put(entry.getKey(), now + entry.getKey().quietTime);
+        }
+    }
+
+    private synchronized List<WatchRegistration> expired() {
+        List<WatchRegistration> result = new ArrayList<>();
+        long now = System.nanoTime();
+        for (Iterator<Map.Entry<WatchRegistration, Long>> i = pending.entrySet().iterator(); i.hasNext(); ) {
+            Map.Entry<WatchRegistration, Long> entry = i.next();
+            if (entry.getValue() - now <= 0) {
+                result.add(entry.getKey());
+                i.remove();
+            }
+        }
+        return result;
+    }
+
+    private static void fire(WatchRegistration registration) {
+        try {
+            registration.listener.run();
+        } catch (RuntimeException e) {
+            // a failing reload must not stop watching the other files.
+        }
+    }
+
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner.java8;
+
+import org.aeonbits.owner.Config;
+import org.aeonbits.owner.Config.HotReload;
+import org.aeonbits.owner.Config.Sources;
+import org.aeonbits.owner.ConfigFactory;
+import org.aeonbits.owner.Factory;
+import org.aeonbits.owner.Reloadable;
+import org.aeonbits.owner.event.ReloadEvent;
+import org.aeonbits.owner.loaders.Loader;
+import org.aeonbits.owner.loaders.Watchable;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.aeonbits.owner.Config.HotReloadType.WATCH;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * @author Luigi R. Viggiano
+ */
+public class WatchReloadTest {
+
+    private static final Path TARGET = Paths.get("target/test-generated-resources/WatchReloadConfig.properties");
+
+    @Sources("file:target/test-generated-resources/WatchReloadConfig.properties")
+    @HotReload(value = 200, unit = MILLISECONDS, type = WATCH)
+    interface WatchReloadConfig extends Config, Reloadable {
+        @DefaultValue("5")
+        Integer someValue();
+    }
+
+    private static final Path MISSING =
+            Paths.get("target/test-generated-resources/missing/WatchReloadConfig.properties");
+
+    @Sources("file:target/test-generated-resources/missing/WatchReloadConfig.properties")
+    @HotReload(value = 50, unit = MILLISECONDS, type = WATCH)
+    interface MissingDirectoryConfig extends Config, Reloadable {
+        @DefaultValue("5")
+        Integer someValue();
+    }
+
+    private static volatile String stamp = "1";
+
+    public static class StampedLoader implements Loader, Watchable {
+        @Override
+        public boolean accept(URI uri) {
+            return uri.getScheme().equals("stamped");
+        }
+
+        @Override
+        public void load(Properties result, URI uri) {
+            result.setProperty("someValue", stamp);
+        }
+
+        @Override
+        public String defaultSpecFor(String uriPrefix) {
+            return null;
+        }
+
+        @Override
+        public String stamp(URI uri) {
+            return stamp;
+        }
+    }
+
+    @Sources("stamped:config")
+    @HotReload(value = 50, unit = MILLISECONDS, type = WATCH)
+    interface StampedConfig extends Config, Reloadable {
+        Integer someValue();
+    }
+
+    private final BlockingQueue<ReloadEvent> reloads = new LinkedBlockingQueue<>();
+    private WatchReloadConfig cfg;
+
+    @Before
+    public void before() throws IOException {
+        Files.createDirectories(TARGET.getParent());
+        save("someValue=10");
+        cfg = ConfigFactory.create(WatchReloadConfig.class);
+        cfg.addReloadListener(reloads::add);
+    }
+
+    @After
+    public void after() throws IOException {
+        Files.deleteIfExists(TARGET);
+        Files.deleteIfExists(MISSING);
+        Files.deleteIfExists(MISSING.getParent());
+    }
+
+    @Test
+    public void shouldReloadWhenTheFileChanges() throws Exception {
+        assertEquals(Integer.valueOf(10), cfg.someValue());
+
+        save("someValue=20");
+        assertNotNull(reloads.poll(10, SECONDS));
+        assertEquals(Integer.valueOf(20), cfg.someValue());
+
+        Files.delete(TARGET);
+        assertNotNull(reloads.poll(10, SECONDS));
+        assertEquals(Integer.valueOf(5), cfg.someValue());
+    }
+
+    @Test
+    public void shouldCoalesceTheChangesInOneReload() throws Exception {
+        for (int i = 1; i <= 5; i++)
+            save("someValue=" + i);
+
+        assertNotNull(reloads.poll(10, SECONDS));
+        assertNull(reloads.poll(1, SECONDS));
+        assertEquals(Integer.valueOf(5), cfg.someValue());
+    }
+
+    @Test
+    public void shouldReloadOnAnotherThreadThanTheWatcher() throws Exception {
+        BlockingQueue<String> threads = new LinkedBlockingQueue<>();
+        cfg.addReloadListener(event -> threads.add(Thread.currentThread().getName()));
+
+        save("someValue=20");
+        assertEquals("owner-reload", threads.poll(10, SECONDS));
+    }
+
+    @Test
+    public void shouldWatchADirectoryCreatedLater() throws Exception {
+        Files.deleteIfExists(MISSING);
+        Files.deleteIfExists(MISSING.getParent());
+        MissingDirectoryConfig missing = ConfigFactory.create(MissingDirectoryConfig.class);
+        assertEquals(Integer.valueOf(5), missing.someValue());
+
+        Files.createDirectories(MISSING.getParent());
+        Files.write(MISSING, "someValue=10".getBytes(StandardCharsets.ISO_8859_1));
+        awaitValue(missing, 10);
+
+        // deleting the file and its directory may be notified by more than one reload.
+        Files.delete(MISSING);
+        Files.delete(MISSING.getParent());
+        awaitValue(missing, 5);
+
+        Files.createDirectories(MISSING.getParent());
+        Files.write(MISSING, "someValue=20".getBytes(StandardCharsets.ISO_8859_1));
+        awaitValue(missing, 20);
+    }
+
+    private static void awaitValue(MissingDirectoryConfig cfg, int expected) throws InterruptedException {
+        for (int i = 0; i < 1000 && cfg.someValue() != expected; i++)
+            Thread.sleep(10);
+        assertEquals(Integer.valueOf(expected), cfg.someValue());
+    }
+
+    @Test
+    public void shouldCheckTheSourcesOtherThanFiles() throws Exception {
+        stamp = "1";
+        Factory factory = ConfigFactory.newInstance();
+        factory.registerLoader(new StampedLoader());
+        StampedConfig stamped = factory.create(StampedConfig.class);
+        stamped.addReloadListener(reloads::add);
+        assertEquals(Integer.valueOf(1), stamped.someValue());
+
+        stamp = "2";
+        assertNotNull(reloads.poll(10, SECONDS));
+        assertEquals(Integer.valueOf(2), stamped.someValue());
+    }
+
+    @Test
+    public void shouldShareOneWatcherThread() {
+        ConfigFactory.create(WatchReloadConfig.class);
+        long watchers = Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().equals("owner-file-watcher"))
+                .count();
+        assertEquals(1, watchers);
+    }
+
+    private static void save(String content) throws IOException {
+        Files.write(TARGET, content.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+}
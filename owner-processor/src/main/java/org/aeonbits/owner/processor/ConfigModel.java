@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner.processor;
+
+import org.aeonbits.owner.GeneratedConfig;
+import org.aeonbits.owner.GeneratedMBeanConfig;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.management.DynamicMBean;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static javax.lang.model.util.ElementFilter.methodsIn;
+import static org.aeonbits.owner.processor.ConfigProcessor.defaultValue;
+import static org.aeonbits.owner.processor.ConfigProcessor.isAccessibleFromPackage;
+import static org.aeonbits.owner.processor.ConfigProcessor.key;
+
+/**
+ * What is needed to generate the implementation of a {@link org.aeonbits.owner.Config} interface: the methods to
+ * implement and the default values of the properties.
+ *
+ * @author Luigi R. Viggiano
+ */
+final class ConfigModel {
+
+    private static final String METADATA = GeneratedConfig.class.getName() + ".Metadata";
+
+    private final TypeElement type;
+    private final String packageName;
+    private final String simpleName;
+    private final Types types;
+    private final Map<String, String> defaults = new LinkedHashMap<String, String>();
+    private final Map<String, ExecutableElement> methods = new LinkedHashMap<String, ExecutableElement>();
+
+    private ConfigModel(TypeElement type, ProcessingEnvironment env) {
+        Elements elements = env.getElementUtils();
+        this.type = type;
+        this.types = env.getTypeUtils();
+        this.packageName = elements.getPackageOf(type).getQualifiedName().toString();
+        String binaryName = elements.getBinaryName(type).toString();
+        this.simpleName = binaryName.substring(packageName.isEmpty() ? 0 : packageName.length() + 1)
+                + GeneratedConfig.SUFFIX;
+    }
+
+    /**
+     * Returns the model of the given interface, or <code>null</code> if it can't be implemented by a generated class.
+     */
+    static ConfigModel of(TypeElement type, ProcessingEnvironment env) {
+        if (!isAccessibleFromPackage(type) || !type.getTypeParameters().isEmpty())
+            return null;
+        ConfigModel model = new ConfigModel(type, env);
+        for (ExecutableElement method : methodsIn(env.getElementUtils().getAllMembers(type))) {
+            if (method.getEnclosingElement().getKind() != ElementKind.INTERFACE
+                    || method.getModifiers().contains(Modifier.STATIC) || isDynamicMBeanMethod(method))
+                continue;
+            String value = defaultValue(method);
+            if (value != null && !model.defaults.containsKey(key(method)))
+                model.defaults.put(key(method), value);
+            if (!method.getModifiers().contains(Modifier.ABSTRACT))
+                continue;
+            if (!method.getTypeParameters().isEmpty())
+                return null;
+            model.addMethod(method);
+        }
+        return model;
+    }
+
+    // implemented by the base class of the generated classes.
+    private static boolean isDynamicMBeanMethod(ExecutableElement method) {
+        TypeElement declaringType = (TypeElement) method.getEnclosingElement();
+        return declaringType.getQualifiedName().contentEquals(DynamicMBean.class.getName());
+    }
+
+    private void addMethod(ExecutableElement method) {
+        String signature = method.getSimpleName() + signatureTypes(method);
+        ExecutableElement existing = methods.get(signature);
+        if (existing == null || types.isSubtype(types.erasure(returnType(method)), types.erasure(returnType(existing))))
+            methods.put(signature, method);
+    }
+
+    private String signatureTypes(ExecutableElement method) {
+        StringBuilder result = new StringBuilder();
+        for (VariableElement parameter : method.getParameters())
+            result.append(", ").append(types.erasure(parameter.asType())).append(".class");
+        return result.toString();
+    }
+
+    String generatedName() {
+        return packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+    }
+
+    void write(PrintWriter out) {
+        out.println("// Generated by " + ConfigProcessor.class.getName() + ". Do not edit.");
+        if (!packageName.isEmpty()) {
+            out.println("package " + packageName + ";");
+            out.println();
+        }
+        out.println("@SuppressWarnings(\"unchecked\")");
+        out.println("public final class " + simpleName + " extends " + GeneratedMBeanConfig.class.getName()
+                + " implements " + type.getQualifiedName() + " {");
+        out.println();
+        out.println("    private static final long serialVersionUID = 1L;");
+        out.println();
+        writeMetadata(out);
+        out.println();
+        out.println("    @Override");
+        out.println("    protected " + METADATA + " metadata() {");
+        out.println("        return METADATA;");
+        out.println("    }");
+
+        int index = 0;
+        for (ExecutableElement method : methods.values()) {
+            out.println();
+            writeMethod(out, method, index++);
+        }
+        out.println();
+        out.println("}");
+    }
+
+    private void writeMetadata(PrintWriter out) {
+        out.println("    private static final " + METADATA + " METADATA = new " + METADATA + "(");
+        out.println("            " + type.getQualifiedName() + ".class,");
+        out.println("            new String[][] {");
+        for (Map.Entry<String, String> entry : defaults.entrySet())
+            out.println("                {" + literal(entry.getKey()) + ", " + literal(entry.getValue()) + "},");
+        out.println("            },");
+        out.println("            new Object[][] {");
+        for (Map.Entry<String, ExecutableElement> entry : methods.entrySet())
+            out.println("                {" + literal(entry.getValue().getSimpleName().toString())
+                    + signatureTypes(entry.getValue()) + "},");
+        out.println("            });");
+    }
+
+    private void writeMethod(PrintWriter out, ExecutableElement method, int index) {
+        ExecutableType executable = (ExecutableType) types.asMemberOf((DeclaredType) type.asType(), method);
+        List<? extends TypeMirror> parameterTypes = executable.getParameterTypes();
+        List<String> names = new ArrayList<String>();
+        StringBuilder parameters = new StringBuilder();
+        for (int i = 0; i < parameterTypes.size(); i++) {
+            String typeName = parameterTypes.get(i).toString();
+            if (method.isVarArgs() && i == parameterTypes.size() - 1 && typeName.endsWith("[]"))
+                typeName = typeName.substring(0, typeName.length() - 2) + "...";
+            names.add("a" + i);
+            parameters.append(i == 0 ? "" : ", ").append(typeName).append(" a").append(i);
+        }
+        List<? extends TypeMirror> thrownTypes = executable.getThrownTypes();
+        StringBuilder throwsClause = new StringBuilder();
+        for (TypeMirror thrown : thrownTypes)
+            throwsClause.append(throwsClause.length() == 0 ? " throws " : ", ").append(thrown);
+
+        TypeMirror returnType = executable.getReturnType();
+        String arguments = names.isEmpty() ? "null" : "new Object[] {" + join(names) + "}";
+        String call = (thrownTypes.isEmpty() ? "invoke(" : "invokeChecked(") + index + ", " + arguments + ")";
+        String statement = returnType.getKind() == TypeKind.VOID
+                ? call + ";"
+                : "return (" + boxed(returnType) + ") " + call + ";";
+
+        out.println("    public " + returnType + " " + method.getSimpleName() + "(" + parameters + ")"
+                + throwsClause + " {");
+        if (thrownTypes.isEmpty()) {
+            out.println("        " + statement);
+        } else {
+            out.println("        try {");
+            out.println("            " + statement);
+            out.println("        } catch (Throwable e) {");
+            out.println("            if (e instanceof RuntimeException) throw (RuntimeException) e;");
+            out.println("            if (e instanceof Error) throw (Error) e;");
+            for (TypeMirror thrown : thrownTypes)
+                out.println("            if (e instanceof " + types.erasure(thrown) + ") throw (" + thrown + ") e;");
+            out.println("            throw new java.lang.reflect.UndeclaredThrowableException(e);");
+            out.println("        }");
+        }
+        out.println("    }");
+    }
+
+    private TypeMirror returnType(ExecutableElement method) {
+        return ((ExecutableType) types.asMemberOf((DeclaredType) type.asType(), method)).getReturnType();
+    }
+
+    private String boxed(TypeMirror type) {
+        if (type.getKind().isPrimitive())
+            return types.boxedClass((PrimitiveType) type).getQualifiedName().toString();
+        return type.toString();
+    }
+
+    private static String join(List<String> items) {
+        StringBuilder result = new StringBuilder();
+        for (String item : items)
+            result.append(result.length() == 0 ? "" : ", ").append(item);
+        return result.toString();
+    }
+
+    static String literal(String value) {
+        StringBuilder result = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"': result.append("\\\""); break;
+                case '\\': result.append("\\\\"); break;
+                case '\n': result.append("\\n"); break;
+                case '\r': result.append("\\r"); break;
+                case '\t': result.append("\\t"); break;
+                default:
+                    if (c < 0x20 || c > 0x7e)
+                        result.append(String.format("\\u%04x", (int) c));
+                    else
+                        result.append(c);
+            }
+        }
+        return result.append('"').toString();
+    }
+
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner.processor;
+
+import org.aeonbits.owner.Config;
+import org.aeonbits.owner.Config.DefaultValue;
+import org.aeonbits.owner.Config.Key;
+import org.aeonbits.owner.Config.Separator;
+import org.aeonbits.owner.Config.TokenizerClass;
+import org.aeonbits.owner.GeneratedConfig;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.HashSet;
+import java.util.Set;
+
+import static javax.lang.model.util.ElementFilter.typesIn;
+
+/**
+ * Annotation processor generating, for every {@link Config} sub-interface being compiled, an implementation class that
+ * {@link org.aeonbits.owner.ConfigFactory} uses in place of a {@link java.lang.reflect.Proxy}.
+ * <p>
+ * The generated class is named after the binary name of the interface followed by {@link GeneratedConfig#SUFFIX}, and
+ * contains the table of the default values, so that they don't need to be collected through reflection when the
+ * config object is created.
+ * </p>
+ * <p>
+ * Interfaces that can't be implemented by a generated class (private, generic, or declaring generic methods) are
+ * skipped, and are still served by a {@link java.lang.reflect.Proxy}. The generated classes are
+ * {@link javax.management.DynamicMBean}s as the proxies are, so they need JMX: where it is not available, the proxy is
+ * used instead.
+ * </p>
+ *
+ * @author Luigi R. Viggiano
+ * @since 1.0.13
+ */
+@SupportedAnnotationTypes("*")
+public class ConfigProcessor extends AbstractProcessor {
+
+    private final Set<String> generated = new HashSet<String>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement config = processingEnv.getElementUtils().getTypeElement(Config.class.getName());
+        if (config == null)
+            return false;
+        for (TypeElement type : typesIn(roundEnv.getRootElements()))
+            process(type, config);
+        return false;
+    }
+
+    private void process(TypeElement type, TypeElement config) {
+        for (TypeElement nested : typesIn(type.getEnclosedElements()))
+            process(nested, config);
+
+        if (!isConfigInterface(type, config))
+            return;
+
+        validate(type);
+        ConfigModel model = ConfigModel.of(type, processingEnv);
+        if (model == null || !generated.add(model.generatedName()))
+            return;
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(model.generatedName(), type);
+            PrintWriter writer = new PrintWriter(file.openWriter());
+            try {
+                model.write(writer);
+            } finally {
+                writer.close();
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Kind.ERROR,
+                    "Can't generate the implementation of " + type.getQualifiedName() + ": " + e.getMessage(), type);
+        }
+    }
+
+    private boolean isConfigInterface(TypeElement type, TypeElement config) {
+        if (type.getKind() != ElementKind.INTERFACE || type.equals(config))
+            return false;
+        if (type.getNestingKind() != NestingKind.TOP_LEVEL && type.getNestingKind() != NestingKind.MEMBER)
+            return false;
+        return processingEnv.getTypeUtils().isAssignable(
+                processingEnv.getTypeUtils().erasure(type.asType()),
+                processingEnv.getTypeUtils().erasure(config.asType()));
+    }
+
+    static boolean isAccessibleFromPackage(TypeElement type) {
+        for (Element e = type; !(e instanceof PackageElement); e = e.getEnclosingElement())
+            if (e.getModifiers().contains(Modifier.PRIVATE))
+                return false;
+        return true;
+    }
+
+    private void validate(TypeElement type) {
+        checkTokenizerConflict(type);
+        for (Element e : type.getEnclosedElements())
+            if (e instanceof ExecutableElement)
+                checkTokenizerConflict(e);
+    }
+
+    private void checkTokenizerConflict(Element e) {
+        if (e.getAnnotation(Separator.class) != null && e.getAnnotation(TokenizerClass.class) != null)
+            processingEnv.getMessager().printMessage(Kind.ERROR,
+                    "You cannot specify @Separator and @TokenizerClass both together on the same element", e);
+    }
+
+    static String key(ExecutableElement method) {
+        Key key = method.getAnnotation(Key.class);
+        return (key == null) ? method.getSimpleName().toString() : key.value();
+    }
+
+    static String defaultValue(ExecutableElement method) {
+        DefaultValue defaultValue = method.getAnnotation(DefaultValue.class);
+        return defaultValue != null ? defaultValue.value() : null;
+    }
+
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner.processor;
+
+import org.aeonbits.owner.Accessible;
+import org.aeonbits.owner.Config;
+import org.aeonbits.owner.ConfigFactory;
+import org.aeonbits.owner.GeneratedConfig;
+import org.aeonbits.owner.Mutable;
+import org.aeonbits.owner.Reloadable;
+import org.junit.Test;
+
+import javax.management.Attribute;
+import javax.management.DynamicMBean;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import static java.util.Collections.singletonMap;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The interfaces declared here are processed by {@link ConfigProcessor} when the test sources are compiled.
+ *
+ * @author Luigi R. Viggiano
+ */
+public class GeneratedConfigTest {
+
+    public interface ServerConfig extends Mutable, Accessible, Reloadable {
+        @DefaultValue("localhost")
+        String host();
+
+        @Key("server.port")
+        @DefaultValue("80")
+        int port();
+
+        @DefaultValue("http://${host}:${server.port}/")
+        String url();
+
+        @DefaultValue("a, b, c")
+        String[] names();
+
+        @DefaultValue("1, 2, 3")
+        List<Integer> numbers();
+
+        @DefaultValue("Hello, %s!")
+        String greeting(String name);
+
+        @DefaultValue("tab\there \"quoted\" è")
+        String escaped();
+
+        String missing();
+
+        @DefaultValue("%s")
+        String first(String... values);
+    }
+
+    public interface MBeanConfig extends Mutable, DynamicMBean {
+        @DefaultValue("mbean")
+        String value();
+    }
+
+    private interface PrivateConfig extends Config {
+        @DefaultValue("private")
+        String value();
+    }
+
+    @Test
+    public void shouldUseTheGeneratedImplementation() {
+        ServerConfig cfg = ConfigFactory.create(ServerConfig.class);
+        assertTrue(cfg instanceof GeneratedConfig);
+        assertFalse(Proxy.isProxyClass(cfg.getClass()));
+        assertEquals(ServerConfig.class.getName() + GeneratedConfig.SUFFIX, cfg.getClass().getName());
+    }
+
+    @Test
+    public void shouldResolveTheProperties() {
+        ServerConfig cfg = ConfigFactory.create(ServerConfig.class);
+        assertEquals("localhost", cfg.host());
+        assertEquals(80, cfg.port());
+        assertEquals("http://localhost:80/", cfg.url());
+        assertArrayEquals(new String[] {"a", "b", "c"}, cfg.names());
+        assertEquals(Arrays.asList(1, 2, 3), cfg.numbers());
+        assertEquals("Hello, world!", cfg.greeting("world"));
+        assertEquals("tab\there \"quoted\" è", cfg.escaped());
+        assertEquals(null, cfg.missing());
+        assertEquals("80", cfg.getProperty("server.port"));
+    }
+
+    @Test
+    public void shouldApplyImportsAndChanges() {
+        ServerConfig cfg = ConfigFactory.create(ServerConfig.class, singletonMap("host", "example.com"));
+        assertEquals("http://example.com:80/", cfg.url());
+        cfg.setProperty("server.port", "8080");
+        assertEquals(8080, cfg.port());
+        assertEquals("http://example.com:8080/", cfg.url());
+    }
+
+    @Test
+    public void shouldDelegateEqualsHashCodeAndToString() {
+        ServerConfig first = ConfigFactory.create(ServerConfig.class);
+        ServerConfig second = ConfigFactory.create(ServerConfig.class);
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+        assertTrue(first.toString().contains("host=localhost"));
+        second.setProperty("host", "example.com");
+        assertFalse(first.equals(second));
+    }
+
+    @Test
+    public void shouldPropagateDeclaredExceptions() throws IOException {
+        ServerConfig cfg = ConfigFactory.create(ServerConfig.class);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        cfg.store(out, null);
+        Properties stored = new Properties();
+        stored.load(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals("localhost", stored.getProperty("host"));
+    }
+
+    @Test
+    public void shouldBeSerializable() throws Exception {
+        ServerConfig cfg = ConfigFactory.create(ServerConfig.class);
+        cfg.setProperty("host", "example.com");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(cfg);
+        out.close();
+        ServerConfig copy = (ServerConfig) new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))
+                .readObject();
+
+        assertNotSame(cfg, copy);
+        assertEquals("example.com", copy.host());
+        assertEquals("http://example.com:80/", copy.url());
+    }
+
+    @Test
+    public void shouldBeManagedThroughJMX() throws Exception {
+        ServerConfig cfg = ConfigFactory.create(ServerConfig.class);
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("org.aeonbits.owner.processor:type=GeneratedConfigTest,id=ServerConfig");
+        server.registerMBean(cfg, name);
+        try {
+            server.setAttribute(name, new Attribute("host", "example.com"));
+            assertEquals("example.com", cfg.host());
+            assertEquals("80", server.getAttribute(name, "server.port"));
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+
+    @Test
+    public void shouldBeAnMBeanLikeTheProxies() {
+        ServerConfig cfg = ConfigFactory.create(ServerConfig.class);
+        assertTrue(cfg instanceof DynamicMBean);
+    }
+
+    @Test
+    public void shouldImplementTheInterfacesExtendingDynamicMBean() throws Exception {
+        MBeanConfig cfg = ConfigFactory.create(MBeanConfig.class);
+        assertTrue(cfg instanceof GeneratedConfig);
+        assertEquals("mbean", cfg.value());
+        assertEquals("mbean", cfg.getAttribute("value"));
+    }
+
+    @Test
+    public void shouldFallBackToProxyForPrivateInterfaces() {
+        PrivateConfig cfg = ConfigFactory.create(PrivateConfig.class);
+        assertTrue(Proxy.isProxyClass(cfg.getClass()));
+        assertEquals("private", cfg.value());
+    }
+
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner;
+
+/**
+ * <p>Allows a <code>Config</code> object to be closed when it is not going to be used anymore, stopping its
+ * {@link Config.HotReload hot reload}.</p>
+ *
+ * <p>Example:</p>
+ *
+ * <pre>
+ *     &#64;HotReload(type = HotReloadType.ASYNC)
+ *     public interface MyConfig extends Config, Closeable {
+ *         int someProperty();
+ *     }
+ *
+ *     public void doSomething() {
+ *         MyConfig cfg = ConfigFactory.create(MyConfig.class);
+ *         try {
+ *             int value = cfg.someProperty();
+ *             ...
+ *         } finally {
+ *             // the sources are not checked, nor watched, anymore.
+ *             cfg.close();
+ *         }
+ *     }
+ * </pre>
+ *
+ * <p>Closing cancels the periodic checks of the sources, the watches of the files and the subscriptions to the
+ * changes of the sources. The properties are still available after that, and can be reloaded on demand with
+ * {@link Reloadable#reload()}.</p>
+ *
+ * <p>A config object that is not closed stops its hot reload anyway some time after it has been garbage collected,
+ * but closing it releases those resources right away.</p>
+ *
+ * @author Luigi R. Viggiano
+ * @since 1.0.13
+ */
+public interface Closeable extends Config, java.io.Closeable {
+
+    /**
+     * Stops the hot reload of this object. Closing an object already closed has no effect.
+     *
+     * @since 1.0.13
+     */
+    void close();
+
+}
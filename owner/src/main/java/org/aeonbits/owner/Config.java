@@ -12,14 +12,15 @@ package org.aeonbits.owner;
 import org.aeonbits.owner.crypto.Decryptor;
 import org.aeonbits.owner.crypto.IdentityDecryptor;
 
-import java.io.IOException;
 import java.io.Serializable;
 import java.lang.annotation.Documented;
 import java.lang.annotation.Retention;
 import java.lang.annotation.Target;
 import java.net.URI;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 
 import static java.lang.annotation.ElementType.METHOD;
@@ -28,8 +29,6 @@ import static java.lang.annotation.RetentionPolicy.RUNTIME;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.aeonbits.owner.Config.HotReloadType.SYNC;
 import static org.aeonbits.owner.Config.LoadType.FIRST;
-import static org.aeonbits.owner.util.Util.ignore;
-import static org.aeonbits.owner.util.Util.reverse;
 /**
  * Marker interface that must be implemented by all Config sub-interfaces.
  * <p>
@@ -124,43 +123,36 @@ public interface Config extends Serializable {
 
         /**
          * The first available of the specified sources will be loaded.
+         * <p>
+         * When more sources are specified, the ones that aren't files are fetched concurrently, so that the sources not
+         * available don't delay the ones following; the first available in the specified order is used anyway. The
+         * sources found not available, other than files, are not tried again for some seconds.
          */
         FIRST {
             @Override
-            Properties load(List<URI> uris, LoadersManager loaders) {
-                Properties result = new Properties();
-                for (URI uri : uris)
-                    try {
-                        loaders.load(result, uri);
-                        break;
-                    } catch (IOException ex) {
-                        // happens when a file specified in the sources is not found or cannot be read.
-                        ignore();
-                    }
-                return result;
+            List<Properties> load(List<URI> uris, LoadersManager loaders, Map<URI, Properties> sources) {
+                return loaders.loadFirst(uris, sources);
             }
         },
 
         /**
          * All the specified sources will be loaded and merged. If the same property key is
          * specified from more than one source, the one specified first will prevail.
+         * <p>
+         * The sources are fetched concurrently, and merged in the specified order. The sources found not available,
+         * other than files, are not tried again for some seconds.
          */
         MERGE {
             @Override
-            Properties load(List<URI> uris, LoadersManager loaders) {
-                Properties result = new Properties();
-                for (URI uri :  reverse(uris))
-                    try {
-                        loaders.load(result, uri);
-                    } catch (IOException ex) {
-                        // happens when a file specified in the sources is not found or cannot be read.
-                        ignore();
-                    }
-                return result;
+            List<Properties> load(List<URI> uris, LoadersManager loaders, Map<URI, Properties> sources) {
+                return loaders.loadMerged(uris, sources);
             }
         };
 
-        abstract Properties load(List<URI> uris, LoadersManager loaders);
+        /**
+         * Loads the given sources, and returns the properties loaded from each one, in order of precedence.
+         */
+        abstract List<Properties> load(List<URI> uris, LoadersManager loaders, Map<URI, Properties> sources);
     }
 
     /**
@@ -239,6 +231,9 @@ public interface Config extends Serializable {
          * <p>
          * {@link HotReloadType#ASYNC}: the configuration file is checked by a background thread despite the fact that
          * the config object is used or not.
+         * <p>
+         * {@link HotReloadType#WATCH}: the configuration file is not checked at all, the reload is triggered by the
+         * notifications of the file system.
          *
          * @return the hot reload type; default is SYNC.
          */
@@ -257,7 +252,20 @@ public interface Config extends Serializable {
         /**
          * The hot reload will happen in background at the specified interval.
          */
-        ASYNC
+        ASYNC,
+
+        /**
+         * The hot reload will happen in background when the file system notifies a change on the files specified by
+         * {@link Sources}. The directories containing those files are watched by a single thread, shared by all the
+         * config objects; the specified interval is used to coalesce the notifications: the properties are reloaded
+         * once the files haven't been changed for that long.
+         * <p>
+         * This requires the <code>owner-java8</code> module in the classpath; otherwise the files are checked in
+         * background at the specified interval, as for {@link #ASYNC}.
+         *
+         * @since 1.0.13
+         */
+        WATCH
     }
 
     /**
@@ -367,4 +375,52 @@ public interface Config extends Serializable {
         Class<? extends Preprocessor>[] value();
     }
 
+    /**
+     * Specifies that the value returned by a method without parameters is converted only once, and then returned from
+     * a cache until the property, or any of the variables used in its <code>${...}</code> expansion, gets changed by a
+     * reload or by one of the methods of {@link Mutable} and {@link Accessible}.
+     * <p>
+     * When specified on the class, it applies to all the methods. Methods taking parameters are never cached.
+     * </p>
+     * <p>
+     * Notice that arrays and collections are cached as well, so the same instance is returned to every caller: they
+     * must not be modified. Also {@link Converter}, {@link Preprocessor} and {@link Decryptor} classes used on cached
+     * methods are expected to always return the same result for the same input.
+     * </p>
+     *
+     * @since 1.0.13
+     */
+    @Retention(RUNTIME)
+    @Target({METHOD, TYPE})
+    @Documented
+    @interface CachedValue {
+    }
+
+    /**
+     * Notifies the {@link org.aeonbits.owner.event.ReloadListener}s and the {@link java.beans.PropertyChangeListener}s
+     * asynchronously, once the changes have been applied, so that a slow listener doesn't keep the config object
+     * locked.
+     * <p>
+     * The methods of the transactional listeners that can roll back the changes,
+     * {@link org.aeonbits.owner.event.TransactionalReloadListener#beforeReload beforeReload} and
+     * {@link org.aeonbits.owner.event.TransactionalPropertyChangeListener#beforePropertyChange beforePropertyChange},
+     * are still invoked synchronously, before the changes are applied. Each listener receives the events in the order
+     * the changes have been applied, one at a time; different listeners may be notified concurrently.
+     * </p>
+     * <p>
+     * The listeners are run by the given {@link Executor}, which must have a public constructor without parameters: a
+     * single instance of it is shared by all the config classes using it. By default a new virtual thread runs the
+     * events of each listener on Java 21 or later, and a shared pool of daemon threads on the previous versions. The
+     * exceptions thrown by the listeners are passed to the uncaught exception handler of the thread running them.
+     * </p>
+     *
+     * @since 1.0.13
+     */
+    @Retention(RUNTIME)
+    @Target(TYPE)
+    @Documented
+    @interface AsyncListeners {
+        Class<? extends Executor> value() default Executor.class;
+    }
+
 }
@@ -8,22 +8,85 @@
 
 package org.aeonbits.owner;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Utility class caching Config instances that can be used as Singletons.
  *
  * This class is designed to be thread safe.
+ * <p>
+ * By default the cache keeps all the instances added. When a {@link #setMaximumSize(int) maximum size} is set, the
+ * least recently used instances are evicted to stay within it; instances can also be evicted when they haven't been
+ * used {@link #setExpireAfterAccess(long, TimeUnit) for some time}. The hot reload of an evicted instance is stopped,
+ * since nobody is expected to use it anymore, while the instances removed explicitly are left untouched.
+ * </p>
+ * <p>
+ * The instances are kept in a few segments, each one ordered by the time of the last access and locked on its own, so
+ * that the threads getting different keys seldom wait for each other.
+ * </p>
+ * <p>
+ * When many threads miss the same key at the same time, only one of them creates the instance, while the others wait
+ * for it: so the sources are loaded only once, and no instance is created just to be thrown away.
+ * </p>
  *
  * @author Luigi R. Viggiano
  * @since 1.0.6
  */
 public final class ConfigCache {
-    private static final ConcurrentMap<Object, Config> CACHE = new ConcurrentHashMap<Object, Config>();
+    private static final int SEGMENTS = 16;
+    private static final Segment[] CACHE = new Segment[SEGMENTS];
+    private static final AtomicInteger size = new AtomicInteger();
+    private static volatile int maximumSize = Integer.MAX_VALUE;
+    private static volatile long expireAfterAccessNanos = 0L;
+    // the instances being created by getOrCreate(), that the other threads asking for the same key wait for.
+    private static final ConcurrentMap<Object, FutureTask<Config>> CREATING =
+            new ConcurrentHashMap<Object, FutureTask<Config>>();
+
+    static {
+        for (int i = 0; i < SEGMENTS; i++)
+            CACHE[i] = new Segment();
+    }
+
+    private static final class Entry {
+        final Object key;
+        final Config instance;
+        long accessTime;
+
+        Entry(Object key, Config instance, long accessTime) {
+            this.key = key;
+            this.instance = instance;
+            this.accessTime = accessTime;
+        }
+    }
+
+    /**
+     * A part of the cache, whose entries are ordered from the least recently used. Guarded by its own lock.
+     */
+    private static final class Segment {
+        final LinkedHashMap<Object, Entry> entries = new LinkedHashMap<Object, Entry>(16, 0.75f, true);
+        long hitCount;
+        long missCount;
+        long evictionCount;
+
+        Entry eldest() {
+            Iterator<Entry> iterator = entries.values().iterator();
+            return iterator.hasNext() ? iterator.next() : null;
+        }
+    }
 
     /** Don't let anyone instantiate this class */
     private ConfigCache() {}
@@ -82,13 +145,64 @@ public final class ConfigCache {
      * @return          an object implementing the given interface, that can be taken from the cache,
      *                  which maps methods to property values.
      */
-    public static <T extends Config> T getOrCreate(Factory factory, Object key,
-                                                   Class<? extends T> clazz, Map<?, ?>... imports) {
+    public static <T extends Config> T getOrCreate(final Factory factory, final Object key,
+                                                   final Class<? extends T> clazz, final Map<?, ?>... imports) {
         T existing = get(key);
         if (existing != null) return existing;
-        T created = factory.create(clazz, imports);
-        T raced = add(key, created);
-        return raced != null ? raced : created;
+
+        // the task always completes, and its result is the instance in the cache: the threads waiting for it all get
+        // the same instance as the one running it.
+        FutureTask<Config> task = new FutureTask<Config>(new Callable<Config>() {
+            public Config call() {
+                // another thread may have created it between the lookup above and putIfAbsent.
+                Config existing = lookup(key, false);
+                if (existing != null)
+                    return existing;
+                Config created = factory.create(clazz, imports);
+                Config raced = add(key, created);
+                if (raced == null)
+                    return created;
+                // added meanwhile by add(): the instance created is not going to be used.
+                stopHotReload(created);
+                return raced;
+            }
+        });
+        FutureTask<Config> creating = CREATING.putIfAbsent(key, task);
+        if (creating != null)
+            return ConfigCache.<T>await(creating);
+
+        try {
+            task.run();
+            return ConfigCache.<T>await(task);
+        } finally {
+            CREATING.remove(key, task);
+        }
+    }
+
+    /**
+     * Waits for the instance created by another thread, even if interrupted, rethrowing what it has thrown.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T extends Config> T await(FutureTask<Config> task) {
+        boolean interrupted = false;
+        try {
+            while (true)
+                try {
+                    return (T) task.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof RuntimeException)
+                        throw (RuntimeException) cause;
+                    if (cause instanceof Error)
+                        throw (Error) cause;
+                    throw new IllegalStateException(cause);
+                }
+        } finally {
+            if (interrupted)
+                Thread.currentThread().interrupt();
+        }
     }
 
     /**
@@ -98,9 +212,32 @@ public final class ConfigCache {
      * @param <T>       type of the interface.
      * @return          the {@link Config} object from the cache if exists, or <code>null</code> if it doesn't.
      */
-    @SuppressWarnings("unchecked")
     public static <T extends Config> T get(Object key) {
-        return (T) CACHE.get(key);
+        return lookup(key, true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Config> T lookup(Object key, boolean recordStats) {
+        Segment segment = segmentFor(key);
+        long now = System.nanoTime();
+        Entry expired = null;
+        synchronized (segment) {
+            Entry entry = segment.entries.get(key);
+            if (entry != null && isExpired(entry, now)) {
+                expired = evict(segment, entry);
+                entry = null;
+            }
+            if (entry != null) {
+                if (recordStats)
+                    segment.hitCount++;
+                entry.accessTime = now;
+                return (T) entry.instance;
+            }
+            if (recordStats)
+                segment.missCount++;
+        }
+        evicted(expired);
+        return null;
     }
 
     /**
@@ -114,7 +251,25 @@ public final class ConfigCache {
      */
     @SuppressWarnings("unchecked")
     public static <T extends Config> T add(Object key, T instance) {
-        return (T) CACHE.putIfAbsent(key, instance);
+        if (instance == null)
+            throw new NullPointerException();
+        Segment segment = segmentFor(key);
+        long now = System.nanoTime();
+        Entry expired = null;
+        synchronized (segment) {
+            Entry existing = segment.entries.get(key);
+            if (existing != null && !isExpired(existing, now)) {
+                existing.accessTime = now;
+                return (T) existing.instance;
+            }
+            if (existing != null)
+                expired = evict(segment, existing);
+            segment.entries.put(key, new Entry(key, instance, now));
+            size.incrementAndGet();
+        }
+        evicted(expired);
+        cleanUp();
+        return null;
     }
 
     /**
@@ -127,7 +282,12 @@ public final class ConfigCache {
         // private map via the result of this call. The key objects themselves are the same as
         // those contained in the private map, which means that if they are mutable, the caller
         // will be able to affect the contents of the map (albeit only the keys).
-        return Collections.unmodifiableSet(CACHE.keySet());
+        Set<Object> keys = new LinkedHashSet<Object>();
+        for (Segment segment : CACHE)
+            synchronized (segment) {
+                keys.addAll(segment.entries.keySet());
+            }
+        return Collections.unmodifiableSet(keys);
     }
 
     /**
@@ -135,7 +295,11 @@ public final class ConfigCache {
      * The cache will be empty after this call returns.
      */
     public static void clear() {
-        CACHE.clear();
+        for (Segment segment : CACHE)
+            synchronized (segment) {
+                size.addAndGet(-segment.entries.size());
+                segment.entries.clear();
+            }
     }
 
     /**
@@ -154,7 +318,195 @@ public final class ConfigCache {
      */
     @SuppressWarnings("unchecked")
     public static <T extends Config> T remove(Object key) {
-        return (T) CACHE.remove(key);
+        Segment segment = segmentFor(key);
+        synchronized (segment) {
+            Entry entry = segment.entries.remove(key);
+            if (entry == null)
+                return null;
+            size.decrementAndGet();
+            return (T) entry.instance;
+        }
+    }
+
+    /**
+     * Sets the maximum number of instances kept in the cache: when it is exceeded, the least recently used instances
+     * are evicted, and their hot reload is stopped. By default the number of instances is not limited.
+     *
+     * @param maximumSize   the maximum number of instances, or {@link Integer#MAX_VALUE} for no limit.
+     * @throws IllegalArgumentException if the maximum size is not positive.
+     * @since 1.0.13
+     */
+    public static void setMaximumSize(int maximumSize) {
+        if (maximumSize <= 0)
+            throw new IllegalArgumentException("maximum size must be positive");
+        ConfigCache.maximumSize = maximumSize;
+        cleanUp();
+    }
+
+    /**
+     * Sets the time after which an instance that hasn't been used, either got or added, is evicted from the cache, and
+     * its hot reload is stopped. By default the instances don't expire.
+     *
+     * @param duration  the time after the last use, or zero so that the instances don't expire.
+     * @param unit      the unit of the duration.
+     * @throws IllegalArgumentException if the duration is negative.
+     * @since 1.0.13
+     */
+    public static void setExpireAfterAccess(long duration, TimeUnit unit) {
+        if (duration < 0)
+            throw new IllegalArgumentException("duration can't be negative");
+        expireAfterAccessNanos = unit.toNanos(duration);
+        cleanUp();
+    }
+
+    /**
+     * Returns the statistics of the cache, since the class has been loaded.
+     *
+     * @return the statistics of the cache.
+     * @since 1.0.13
+     */
+    public static Stats stats() {
+        long hitCount = 0, missCount = 0, evictionCount = 0;
+        for (Segment segment : CACHE)
+            synchronized (segment) {
+                hitCount += segment.hitCount;
+                missCount += segment.missCount;
+                evictionCount += segment.evictionCount;
+            }
+        return new Stats(hitCount, missCount, evictionCount);
+    }
+
+    /**
+     * The statistics of the cache.
+     *
+     * @since 1.0.13
+     */
+    public static final class Stats {
+        private final long hitCount;
+        private final long missCount;
+        private final long evictionCount;
+
+        Stats(long hitCount, long missCount, long evictionCount) {
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.evictionCount = evictionCount;
+        }
+
+        /**
+         * Returns the number of times an instance has been found in the cache.
+         *
+         * @return the number of times an instance has been found in the cache.
+         */
+        public long getHitCount() {
+            return hitCount;
+        }
+
+        /**
+         * Returns the number of times an instance has not been found in the cache, and has been created, or waited for
+         * while another thread was creating it, when using <code>getOrCreate</code>.
+         *
+         * @return the number of times an instance has not been found in the cache.
+         */
+        public long getMissCount() {
+            return missCount;
+        }
+
+        /**
+         * Returns the number of instances evicted because the maximum size was exceeded, or because they expired.
+         *
+         * @return the number of instances evicted.
+         */
+        public long getEvictionCount() {
+            return evictionCount;
+        }
+
+        /**
+         * Returns the ratio of the requests that have found the instance in the cache, or 1 when there have been no
+         * requests.
+         *
+         * @return the ratio of the requests that have found the instance in the cache.
+         */
+        public double getHitRate() {
+            long requestCount = hitCount + missCount;
+            return (requestCount == 0) ? 1.0 : (double) hitCount / requestCount;
+        }
+
+        @Override
+        public String toString() {
+            return "Stats{hitCount=" + hitCount + ", missCount=" + missCount + ", evictionCount=" + evictionCount + "}";
+        }
+    }
+
+    private static Segment segmentFor(Object key) {
+        int hash = key.hashCode();
+        hash ^= (hash >>> 20) ^ (hash >>> 12);
+        hash ^= (hash >>> 7) ^ (hash >>> 4);
+        return CACHE[hash & (SEGMENTS - 1)];
+    }
+
+    private static boolean isExpired(Entry entry, long now) {
+        long expireAfterAccess = expireAfterAccessNanos;
+        return expireAfterAccess > 0 && now - entry.accessTime >= expireAfterAccess;
+    }
+
+    /**
+     * Removes the given entry, which must be in the given segment, whose lock is held by the caller.
+     */
+    private static Entry evict(Segment segment, Entry entry) {
+        segment.entries.remove(entry.key);
+        segment.evictionCount++;
+        size.decrementAndGet();
+        return entry;
+    }
+
+    /**
+     * Evicts the expired instances, and the least recently used ones while the maximum size is exceeded.
+     * <p>
+     * Each segment is ordered from the least recently used entry, so the least recently used of the whole cache is
+     * the least recently used among the first entries of the segments.
+     * </p>
+     */
+    private static void cleanUp() {
+        long now = System.nanoTime();
+        List<Entry> evicted = new ArrayList<Entry>();
+        for (Segment segment : CACHE)
+            synchronized (segment) {
+                Entry eldest;
+                while ((eldest = segment.eldest()) != null && isExpired(eldest, now))
+                    evicted.add(evict(segment, eldest));
+            }
+        while (size.get() > maximumSize) {
+            Segment eldestSegment = null;
+            Entry eldest = null;
+            for (Segment segment : CACHE)
+                synchronized (segment) {
+                    Entry candidate = segment.eldest();
+                    if (candidate != null && (eldest == null || candidate.accessTime - eldest.accessTime < 0)) {
+                        eldest = candidate;
+                        eldestSegment = segment;
+                    }
+                }
+            if (eldest == null)
+                break;
+            synchronized (eldestSegment) {
+                // it may have been used, or removed, meanwhile: it will then be looked for again.
+                if (eldestSegment.eldest() == eldest)
+                    evicted.add(evict(eldestSegment, eldest));
+            }
+        }
+        for (Entry entry : evicted)
+            evicted(entry);
+    }
+
+    private static void evicted(Entry entry) {
+        if (entry != null)
+            stopHotReload(entry.instance);
+    }
+
+    private static void stopHotReload(Config instance) {
+        PropertiesManager manager = PropertiesManager.of(instance);
+        if (manager != null)
+            manager.stopHotReload();
     }
 
 }
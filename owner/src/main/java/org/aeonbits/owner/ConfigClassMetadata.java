@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner;
+
+import org.aeonbits.owner.Config.AsyncListeners;
+import org.aeonbits.owner.Config.DecryptorClass;
+import org.aeonbits.owner.Config.EncryptedValue;
+import org.aeonbits.owner.Config.HotReload;
+import org.aeonbits.owner.Config.LoadPolicy;
+import org.aeonbits.owner.Config.LoadType;
+import org.aeonbits.owner.crypto.Decryptor;
+import org.aeonbits.owner.crypto.IdentityDecryptor;
+import org.aeonbits.owner.util.Util;
+
+import java.lang.annotation.Annotation;
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+
+import static org.aeonbits.owner.Config.LoadType.FIRST;
+import static org.aeonbits.owner.PropertiesMapper.isEncryptedValue;
+
+/**
+ * What is known about a {@link Config} class from its annotations: the default values, the load policy, the hot reload,
+ * the executor of the listeners, the decryptors of the encrypted properties, and the {@link ResolutionPlan} of the
+ * methods.
+ * <p>
+ * Reflection is slow, so this is computed once for each class and shared by all the config objects of that class,
+ * which only keep their own properties. The metadata is kept as long as a config object of the class is alive, and
+ * doesn't prevent the class from being unloaded.
+ * </p>
+ *
+ * @author Luigi R. Viggiano
+ */
+final class ConfigClassMetadata {
+
+    private static final Map<Class<?>, Reference<ConfigClassMetadata>> cache =
+            new WeakHashMap<Class<?>, Reference<ConfigClassMetadata>>();
+
+    private final Map<String, String> defaults;
+    private final LoadType loadType;
+    private final HotReload hotReload;
+    private final Executor listenerExecutor;
+    private final Map<Method, Decryptor> decryptors;
+    private final ConcurrentMap<Method, ResolutionPlan> plans = new ConcurrentHashMap<Method, ResolutionPlan>();
+
+    private ConfigClassMetadata(Class<? extends Config> clazz) {
+        defaults = Collections.unmodifiableMap(PropertiesMapper.defaults(clazz));
+        LoadPolicy loadPolicy = annotation(clazz, LoadPolicy.class);
+        loadType = (loadPolicy != null) ? loadPolicy.value() : FIRST;
+        hotReload = annotation(clazz, HotReload.class);
+        listenerExecutor = listenerExecutor(annotation(clazz, AsyncListeners.class));
+        decryptors = decryptors(clazz);
+    }
+
+    /**
+     * Returns the metadata of the given class, computing it the first time.
+     */
+    static ConfigClassMetadata of(Class<? extends Config> clazz) {
+        ConfigClassMetadata metadata = cached(clazz);
+        if (metadata != null)
+            return metadata;
+        // computed outside of the lock, since the decryptors are user code: two threads may compute it at the same
+        // time, but only the first one stored is shared.
+        metadata = new ConfigClassMetadata(clazz);
+        synchronized (cache) {
+            ConfigClassMetadata raced = cached(clazz);
+            if (raced != null)
+                return raced;
+            cache.put(clazz, new WeakReference<ConfigClassMetadata>(metadata));
+            return metadata;
+        }
+    }
+
+    private static ConfigClassMetadata cached(Class<? extends Config> clazz) {
+        synchronized (cache) {
+            Reference<ConfigClassMetadata> reference = cache.get(clazz);
+            return (reference != null) ? reference.get() : null;
+        }
+    }
+
+    /**
+     * Returns the annotation of the class, or the one of the first interface it extends having it.
+     */
+    private static <A extends Annotation> A annotation(Class<?> clazz, Class<A> annotationClass) {
+        A result = clazz.getAnnotation(annotationClass);
+        if (result != null)
+            return result;
+        for (Class<?> inter : clazz.getInterfaces()) {
+            result = inter.getAnnotation(annotationClass);
+            if (result != null)
+                return result;
+        }
+        return null;
+    }
+
+    private static Executor listenerExecutor(AsyncListeners asyncListeners) {
+        return (asyncListeners != null) ? ListenerDispatcher.executor(asyncListeners.value()) : null;
+    }
+
+    private static Map<Method, Decryptor> decryptors(Class<? extends Config> clazz) {
+        Map<Method, Decryptor> result = new HashMap<Method, Decryptor>();
+        Decryptor classDecryptor = null;
+        for (Method method : clazz.getMethods()) {
+            if (!isEncryptedValue(method))
+                continue;
+            Class<? extends Decryptor> decryptorClass = method.getAnnotation(EncryptedValue.class).value();
+            if (decryptorClass != IdentityDecryptor.class) {
+                result.put(method, Util.newInstance(decryptorClass));
+            } else {
+                // the DecryptorClass annotation gives the decryptor of the keys not specifying their own one.
+                if (classDecryptor == null)
+                    classDecryptor = classDecryptor(clazz);
+                result.put(method, classDecryptor);
+            }
+        }
+        return result;
+    }
+
+    private static Decryptor classDecryptor(Class<? extends Config> clazz) {
+        DecryptorClass decryptorClass = clazz.getAnnotation(DecryptorClass.class);
+        return Util.newInstance(decryptorClass != null ? decryptorClass.value() : IdentityDecryptor.class);
+    }
+
+    /**
+     * Returns the default values of the properties, specified by the {@link Config.DefaultValue} annotations.
+     */
+    Map<String, String> defaults() {
+        return defaults;
+    }
+
+    LoadType loadType() {
+        return loadType;
+    }
+
+    /**
+     * Returns the {@link HotReload} annotation of the class, or <code>null</code> if the class is not hot reloadable.
+     */
+    HotReload hotReload() {
+        return hotReload;
+    }
+
+    /**
+     * Returns the executor notifying the listeners, or <code>null</code> if the listeners are notified synchronously.
+     */
+    Executor listenerExecutor() {
+        return listenerExecutor;
+    }
+
+    /**
+     * Returns the {@link Decryptor} associated to the given method.
+     *
+     * @param method with the key definition.
+     * @return the decryptor if the method contains the EncryptedValue annotation, <code>null</code> otherwise.
+     */
+    Decryptor decryptorFor(Method method) {
+        return decryptors.get(method);
+    }
+
+    /**
+     * Returns the plan to resolve the value of the given method, building it the first time.
+     */
+    ResolutionPlan plan(Method method) {
+        ResolutionPlan plan = plans.get(method);
+        if (plan != null)
+            return plan;
+        plan = new ResolutionPlan(method, decryptorFor(method));
+        ResolutionPlan raced = plans.putIfAbsent(method, plan);
+        return (raced != null) ? raced : plan;
+    }
+
+}
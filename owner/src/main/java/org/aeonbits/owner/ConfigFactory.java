@@ -12,10 +12,10 @@ import org.aeonbits.owner.loaders.Loader;
 
 import java.util.Map;
 import java.util.Properties;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadFactory;
 
-import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.MINUTES;
 
 /**
  * A static factory class to instantiate {@link Config} instances.
@@ -43,13 +43,17 @@ public final class ConfigFactory {
      * @return a new instance of a config Factory object.
      */
     public static Factory newInstance() {
-        ScheduledExecutorService scheduler = newSingleThreadScheduledExecutor(new ThreadFactory() {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
             public Thread newThread(Runnable r) {
                 Thread result = new Thread(r);
                 result.setDaemon(true);
                 return result;
             }
         });
+        // the thread terminates when there are no hot reloads scheduled, so that a factory no longer used doesn't
+        // keep it, and is started again when needed.
+        scheduler.setKeepAliveTime(1, MINUTES);
+        scheduler.allowCoreThreadTimeOut(true);
         Properties props = new Properties();
         return new DefaultFactory(scheduler, props);
     }
@@ -13,6 +13,8 @@ import org.aeonbits.owner.Config.ConverterClass;
 import java.beans.PropertyEditor;
 import java.beans.PropertyEditorManager;
 import java.io.File;
+import java.lang.ref.Reference;
+import java.lang.ref.SoftReference;
 import java.lang.reflect.Array;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
@@ -23,8 +25,10 @@ import java.util.concurrent.ConcurrentHashMap;
 import static java.beans.PropertyEditorManager.findEditor;
 import static java.lang.Boolean.getBoolean;
 import static java.lang.reflect.Modifier.isStatic;
+import static java.util.Collections.synchronizedMap;
 import static org.aeonbits.owner.Converters.SpecialValue.NULL;
 import static org.aeonbits.owner.Converters.SpecialValue.SKIP;
+import static org.aeonbits.owner.TokenizerResolver.resolveTokenizer;
 import static org.aeonbits.owner.util.Util.expandUserHome;
 import static org.aeonbits.owner.util.Util.unreachableButCompilerNeedsThis;
 import static org.aeonbits.owner.util.Util.unsupported;
@@ -38,8 +42,18 @@ import static org.aeonbits.owner.util.Reflection.isClassAvailable;
 enum Converters {
 
     ARRAY {
+        @Override
+        boolean canConvert(Method targetMethod, Class<?> targetType) {
+            return targetType.isArray();
+        }
+
         @Override
         Object tryConvert(Method targetMethod, Class<?> targetType, String text) {
+            return tryConvert(targetMethod, targetType, text, null);
+        }
+
+        @Override
+        Object tryConvert(Method targetMethod, Class<?> targetType, String text, Tokenizer tokenizer) {
             if (!targetType.isArray()) return SKIP;
 
             Class<?> type = targetType.getComponentType();
@@ -47,7 +61,8 @@ enum Converters {
             if (text.trim().isEmpty())
                 return Array.newInstance(type, 0);
 
-            Tokenizer tokenizer = TokenizerResolver.resolveTokenizer(targetMethod);
+            if (tokenizer == null)
+                tokenizer = resolveTokenizer(targetMethod);
             String[] chunks = tokenizer.tokens(text);
 
             Converters converter = doConvert(targetMethod, type, chunks[0]).getConverter();
@@ -64,21 +79,31 @@ enum Converters {
     },
 
     COLLECTION {
+        @Override
+        boolean canConvert(Method targetMethod, Class<?> targetType) {
+            return Collection.class.isAssignableFrom(targetType);
+        }
+
         @Override
         Object tryConvert(Method targetMethod, Class<?> targetType, String text) {
+            return tryConvert(targetMethod, targetType, text, null);
+        }
+
+        @Override
+        Object tryConvert(Method targetMethod, Class<?> targetType, String text, Tokenizer tokenizer) {
             if (!Collection.class.isAssignableFrom(targetType)) return SKIP;
 
-            Object[] array = convertToArray(targetMethod, text);
+            Object[] array = convertToArray(targetMethod, text, tokenizer);
             Collection<Object> collection = Arrays.asList(array);
             Collection<Object> result = instantiateCollection(targetType);
             result.addAll(collection);
             return result;
         }
 
-        private Object[] convertToArray(Method targetMethod, String text) {
+        private Object[] convertToArray(Method targetMethod, String text, Tokenizer tokenizer) {
             Class<?> type = getGenericType(targetMethod);
             Object stub = Array.newInstance(type, 0);
-            return (Object[]) ARRAY.tryConvert(targetMethod, stub.getClass(), text);
+            return (Object[]) ARRAY.tryConvert(targetMethod, stub.getClass(), text, tokenizer);
         }
 
         private Class<?> getGenericType(Method targetMethod) {
@@ -118,6 +143,11 @@ enum Converters {
     },
 
     METHOD_WITH_CONVERTER_CLASS_ANNOTATION {
+        @Override
+        boolean canConvert(Method targetMethod, Class<?> targetType) {
+            return targetMethod.getAnnotation(ConverterClass.class) != null;
+        }
+
         @Override
         Object tryConvert(Method targetMethod, Class<?> targetType, String text) {
             ConverterClass annotation = targetMethod.getAnnotation(ConverterClass.class);
@@ -147,26 +177,53 @@ enum Converters {
 
         private final boolean canUsePropertyEditors = isPropertyEditorAvailable && !isPropertyEditorDisabled;
 
+        // looking up the editor of a type is slow, so the one found is kept and reused by the following conversions
+        // to that type. An editor registered after a conversion to its type is not used. The editors are softly
+        // referenced, since an editor references its type: held strongly, it would never let its key, and the class
+        // loader of the type, be collected.
+        private final Map<Class<?>, Reference<Object>> editors =
+                synchronizedMap(new WeakHashMap<Class<?>, Reference<Object>>());
+        private final Object noEditor = new Object();
+
         @Override
         Object tryConvert(Method targetMethod, Class<?> targetType, String text) {
             if (!canUsePropertyEditors)
                 return SKIP;
 
-            PropertyEditor editor = findEditor(targetType);
+            PropertyEditor editor = editorFor(targetType);
             if (editor == null) return SKIP;
-            try {
-                editor.setAsText(text);
-                return editor.getValue();
-            } catch (Exception e) {
-                throw unsupportedConversion(e, targetType, text);
+            // editors keep the value being converted, so they can't be used by two threads at the same time.
+            synchronized (editor) {
+                try {
+                    editor.setAsText(text);
+                    return editor.getValue();
+                } catch (Exception e) {
+                    throw unsupportedConversion(e, targetType, text);
+                }
             }
         }
+
+        private PropertyEditor editorFor(Class<?> targetType) {
+            Reference<Object> reference = editors.get(targetType);
+            Object editor = (reference != null) ? reference.get() : null;
+            if (editor == null) {
+                PropertyEditor found = findEditor(targetType);
+                editor = (found != null) ? found : noEditor;
+                editors.put(targetType, new SoftReference<Object>(editor));
+            }
+            return (editor != noEditor) ? (PropertyEditor) editor : null;
+        }
     },
 
     /*
      * This is needed for cases like when the PropertyEditor classes are not available
      */
     PRIMITIVE {
+        @Override
+        boolean canConvert(Method targetMethod, Class<?> targetType) {
+            return targetType.isPrimitive();
+        }
+
         @Override
         Object tryConvert(Method targetMethod, Class<?> targetType, String text) {
             if (!targetType.isPrimitive()) return SKIP;
@@ -182,6 +239,11 @@ enum Converters {
     },
 
     FILE {
+        @Override
+        boolean canConvert(Method targetMethod, Class<?> targetType) {
+            return targetType == File.class;
+        }
+
         @Override
         Object tryConvert(Method targetMethod, Class<?> targetType, String text) {
             if (targetType != File.class) return SKIP;
@@ -190,6 +252,11 @@ enum Converters {
     },
 
     CLASS {
+        @Override
+        boolean canConvert(Method targetMethod, Class<?> targetType) {
+            return targetType == Class.class;
+        }
+
         @Override
         Object tryConvert(Method targetMethod, Class<?> targetType, String text) {
             if (targetType != Class.class) return SKIP;
@@ -268,6 +335,23 @@ enum Converters {
 
     abstract Object tryConvert(Method targetMethod, Class<?> targetType, String text);
 
+    /**
+     * Same as {@link #tryConvert(Method, Class, String)}, but uses the given tokenizer to split the text into elements
+     * when the target type is an array or a collection. When the tokenizer is <code>null</code>, it gets resolved from
+     * the annotations of the target method.
+     */
+    Object tryConvert(Method targetMethod, Class<?> targetType, String text, Tokenizer tokenizer) {
+        return tryConvert(targetMethod, targetType, text);
+    }
+
+    /**
+     * Tells whether this converter may be able to convert to the given type, looking only at things that don't change
+     * between invocations; converters answering <code>false</code> are guaranteed to skip the conversion.
+     */
+    boolean canConvert(Method targetMethod, Class<?> targetType) {
+        return true;
+    }
+
     static void setTypeConverter(Class<?> type, Class<? extends Converter<?>> converter) {
         converterRegistry.put(type, converter);
     }
@@ -280,6 +364,28 @@ enum Converters {
         return doConvert(targetMethod, targetType, text).getConvertedValue();
     }
 
+    /**
+     * Returns, in order of precedence, the converters that may be able to convert to the given type, so that the
+     * ones that would always skip are not even tried.
+     */
+    static Converters[] resolveConverters(Method targetMethod, Class<?> targetType) {
+        List<Converters> result = new ArrayList<Converters>();
+        for (Converters converter : values())
+            if (converter.canConvert(targetMethod, targetType))
+                result.add(converter);
+        return result.toArray(new Converters[result.size()]);
+    }
+
+    static Object convert(Converters[] converters, Method targetMethod, Class<?> targetType, String text,
+                          Tokenizer tokenizer) {
+        for (Converters converter : converters) {
+            Object convertedValue = converter.tryConvert(targetMethod, targetType, text, tokenizer);
+            if (convertedValue != SKIP)
+                return convertedValue;
+        }
+        return unreachableButCompilerNeedsThis();
+    }
+
     private static ConversionResult doConvert(Method targetMethod, Class<?> targetType, String text) {
         for (Converters converter : values()) {
             Object convertedValue = converter.tryConvert(targetMethod, targetType, text);
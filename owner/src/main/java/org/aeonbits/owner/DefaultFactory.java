@@ -17,6 +17,7 @@ import java.util.concurrent.ScheduledExecutorService;
 
 import static java.lang.reflect.Proxy.newProxyInstance;
 import static org.aeonbits.owner.util.Reflection.isClassAvailable;
+import static org.aeonbits.owner.util.Util.unsupported;
 
 /**
  * Default implementation for {@link Factory}.
@@ -26,24 +27,30 @@ import static org.aeonbits.owner.util.Reflection.isClassAvailable;
 class DefaultFactory implements Factory {
 
     private static final boolean isJMXAvailable = isClassAvailable("javax.management.DynamicMBean");
-    private final ScheduledExecutorService scheduler;
+    private final ReloadCoordinator coordinator;
     private Properties props;
     final LoadersManager loadersManager;
 
     DefaultFactory(ScheduledExecutorService scheduler, Properties props) {
-        this.scheduler = scheduler;
         this.props = props;
         this.loadersManager = new LoadersManager();
+        this.coordinator = new ReloadCoordinator(scheduler, loadersManager);
     }
 
     @SuppressWarnings("unchecked")
     public <T extends Config> T create(Class<? extends T> clazz, Map<?, ?>... imports) {
         Class<?>[] interfaces = interfaces(clazz);
         VariablesExpander expander = new VariablesExpander(props);
-        PropertiesManager manager = new PropertiesManager(clazz, new Properties(), scheduler, expander, loadersManager,
-                imports);
+        PropertiesManager manager = new PropertiesManager(clazz, coordinator, expander, loadersManager, imports);
+        GeneratedConfig generated = newGeneratedInstance(clazz);
         Object jmxSupport = getJMXSupport(clazz, manager);
         PropertiesInvocationHandler handler = new PropertiesInvocationHandler(manager, jmxSupport);
+        if (generated != null) {
+            manager.setPrecomputedDefaults(generated.metadata().defaults());
+            generated.init(handler);
+            handler.setProxy((T) generated);
+            return (T) generated;
+        }
         T proxy = (T) newProxyInstance(clazz.getClassLoader(), interfaces, handler);
         handler.setProxy(proxy);
         return proxy;
@@ -94,6 +101,26 @@ class DefaultFactory implements Factory {
         return (String) props.remove(key);
     }
 
+    private GeneratedConfig newGeneratedInstance(Class<?> clazz) {
+        Class<?> generatedClass;
+        try {
+            generatedClass = Class.forName(clazz.getName() + GeneratedConfig.SUFFIX, true, clazz.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            return null;
+        } catch (LinkageError e) {
+            // the generated classes are MBeans: without JMX they can't be loaded, and the proxy is used instead.
+            return null;
+        }
+        if (!GeneratedConfig.class.isAssignableFrom(generatedClass) || !clazz.isAssignableFrom(generatedClass))
+            return null;
+        try {
+            GeneratedConfig generated = (GeneratedConfig) generatedClass.newInstance();
+            return generated.metadata().type() == clazz ? generated : null;
+        } catch (Exception e) {
+            throw unsupported(e, "Can't instantiate the generated implementation '%s'", generatedClass.getName());
+        }
+    }
+
     private Object getJMXSupport(Class<?> clazz, PropertiesManager manager) {
         if (isJMXAvailable)
             return new JMXSupport(clazz, manager);
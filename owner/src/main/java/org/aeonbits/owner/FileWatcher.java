@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner;
+
+import java.io.File;
+import java.util.Collection;
+
+/**
+ * Notifies the changes of files through the file system, used by {@link Config.HotReloadType#WATCH}.
+ * <p>
+ * The implementation is in the <code>owner-java8</code> module, since it needs the <code>java.nio.file</code> API.
+ * </p>
+ *
+ * @author Luigi R. Viggiano
+ */
+interface FileWatcher {
+
+    /**
+     * Starts watching the given files.
+     *
+     * @param files     the files to watch; they don't need to exist.
+     * @param quietTime the milliseconds to wait, since the last change notified, before calling the listener.
+     * @param listener  called, on the thread of the watcher, when some of the files has been created, modified or
+     *                  deleted: it must not block, since the other watches wait meanwhile.
+     * @return the handle to stop watching the files.
+     */
+    Watch watch(Collection<File> files, long quietTime, Runnable listener);
+
+    interface Watch {
+        void cancel();
+    }
+
+}
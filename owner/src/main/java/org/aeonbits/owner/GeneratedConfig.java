@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner;
+
+import org.aeonbits.owner.PropertiesInvocationHandler.MethodInvoker;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.aeonbits.owner.util.Util.unsupported;
+
+/**
+ * Base class for the {@link Config} implementations generated at build time by the <code>owner-processor</code>
+ * annotation processor.
+ * <p>
+ * When the implementation generated for a {@link Config} interface is available in the classpath, {@link ConfigFactory}
+ * instantiates it in place of a {@link java.lang.reflect.Proxy}: the default values are taken from the table computed
+ * at build time, and every accessor calls directly the resolution logic of its method, that is prepared the first time
+ * the accessor is invoked.
+ * </p>
+ * <p>
+ * This class is not meant to be extended by hand, nor the generated classes to be instantiated directly.
+ * </p>
+ *
+ * @author Luigi R. Viggiano
+ * @since 1.0.13
+ */
+public abstract class GeneratedConfig implements Serializable {
+
+    private static final long serialVersionUID = -6171458620541736410L;
+
+    /**
+     * The suffix appended to the binary name of a {@link Config} interface to obtain the name of its generated
+     * implementation.
+     */
+    public static final String SUFFIX = "$$Owner";
+
+    private PropertiesInvocationHandler handler;
+    private transient MethodInvoker[] invokers;
+
+    /**
+     * The metadata computed at build time for a {@link Config} interface: the default values of its properties and the
+     * signatures of the methods implemented by the generated class, in the order they are referenced by
+     * {@link #invoke(int, Object[])}.
+     */
+    public static final class Metadata {
+        private final Class<? extends Config> type;
+        private final Map<String, String> defaults;
+        private final Object[][] signatures;
+        private final Method[] methods;
+
+        /**
+         * @param type          the {@link Config} interface.
+         * @param defaults      the pairs of property key and default value.
+         * @param signatures    for every method, its name followed by its parameter types.
+         */
+        public Metadata(Class<? extends Config> type, String[][] defaults, Object[][] signatures) {
+            this.type = type;
+            Map<String, String> map = new LinkedHashMap<String, String>();
+            for (String[] entry : defaults)
+                map.put(entry[0], entry[1]);
+            this.defaults = Collections.unmodifiableMap(map);
+            this.signatures = signatures;
+            this.methods = new Method[signatures.length];
+        }
+
+        Class<? extends Config> type() {
+            return type;
+        }
+
+        Map<String, String> defaults() {
+            return defaults;
+        }
+
+        int size() {
+            return signatures.length;
+        }
+
+        Method method(int index) {
+            Method method = methods[index];
+            if (method == null)
+                methods[index] = method = resolve(signatures[index]);
+            return method;
+        }
+
+        private Method resolve(Object[] signature) {
+            String name = (String) signature[0];
+            Class<?>[] parameterTypes = new Class<?>[signature.length - 1];
+            for (int i = 0; i < parameterTypes.length; i++)
+                parameterTypes[i] = (Class<?>) signature[i + 1];
+            try {
+                return type.getMethod(name, parameterTypes);
+            } catch (NoSuchMethodException e) {
+                throw unsupported(e, "Generated implementation of '%s' is out of date: method '%s' not found",
+                        type.getName(), name);
+            }
+        }
+    }
+
+    /**
+     * Returns the metadata of the generated class.
+     *
+     * @return the metadata of the generated class.
+     */
+    protected abstract Metadata metadata();
+
+    void init(PropertiesInvocationHandler handler) {
+        this.handler = handler;
+        this.invokers = new MethodInvoker[metadata().size()];
+    }
+
+    PropertiesManager propertiesManager() {
+        return handler.propertiesManager;
+    }
+
+    Object jmxSupport() {
+        return handler.jmxSupport;
+    }
+
+    /**
+     * Invokes the method at the given index, wrapping the checked exceptions in an
+     * {@link UndeclaredThrowableException} as a {@link java.lang.reflect.Proxy} would do.
+     *
+     * @param index the index of the method in the {@link Metadata}.
+     * @param args  the arguments of the invocation.
+     * @return the value returned by the method.
+     */
+    protected final Object invoke(int index, Object[] args) {
+        try {
+            return invokeChecked(index, args);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new UndeclaredThrowableException(e);
+        }
+    }
+
+    /**
+     * Invokes the method at the given index; used for the methods declaring checked exceptions.
+     *
+     * @param index the index of the method in the {@link Metadata}.
+     * @param args  the arguments of the invocation.
+     * @return the value returned by the method.
+     * @throws Throwable the exception thrown by the method.
+     */
+    protected final Object invokeChecked(int index, Object[] args) throws Throwable {
+        handler.propertiesManager.syncReloadCheck();
+        MethodInvoker invoker = invokers[index];
+        if (invoker == null)
+            invokers[index] = invoker = handler.invoker(metadata().method(index));
+        return invoker.invoke(this, args);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return handler.propertiesManager.equals(obj);
+    }
+
+    @Override
+    public int hashCode() {
+        return handler.propertiesManager.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return handler.propertiesManager.toString();
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        invokers = new MethodInvoker[metadata().size()];
+    }
+
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.InvalidAttributeValueException;
+import javax.management.MBeanException;
+import javax.management.MBeanInfo;
+import javax.management.ReflectionException;
+
+/**
+ * Base class for the generated {@link Config} implementations, making them {@link DynamicMBean}s as the
+ * {@link java.lang.reflect.Proxy} instances are, so that they can be registered to an MBean server.
+ * <p>
+ * Where JMX is not available the generated classes can't be loaded, and the config objects are implemented by a
+ * {@link java.lang.reflect.Proxy}.
+ * </p>
+ *
+ * @author Luigi R. Viggiano
+ * @since 1.0.13
+ */
+public abstract class GeneratedMBeanConfig extends GeneratedConfig implements DynamicMBean {
+
+    private static final long serialVersionUID = 4128730594620317283L;
+
+    public Object getAttribute(String attribute)
+            throws AttributeNotFoundException, MBeanException, ReflectionException {
+        return jmx().getAttribute(attribute);
+    }
+
+    public void setAttribute(Attribute attribute)
+            throws AttributeNotFoundException, InvalidAttributeValueException, MBeanException, ReflectionException {
+        jmx().setAttribute(attribute);
+    }
+
+    public AttributeList getAttributes(String[] attributes) {
+        return jmx().getAttributes(attributes);
+    }
+
+    public AttributeList setAttributes(AttributeList attributes) {
+        return jmx().setAttributes(attributes);
+    }
+
+    public Object invoke(String actionName, Object[] params, String[] signature)
+            throws MBeanException, ReflectionException {
+        return jmx().invoke(actionName, params, signature);
+    }
+
+    public MBeanInfo getMBeanInfo() {
+        return jmx().getMBeanInfo();
+    }
+
+    private JMXSupport jmx() {
+        propertiesManager().syncReloadCheck();
+        return (JMXSupport) jmxSupport();
+    }
+
+}
@@ -10,19 +10,38 @@ package org.aeonbits.owner;
 
 import org.aeonbits.owner.Config.HotReload;
 import org.aeonbits.owner.Config.HotReloadType;
+import org.aeonbits.owner.loaders.Loader;
+import org.aeonbits.owner.loaders.Subscribable;
+import org.aeonbits.owner.loaders.Subscribable.Subscriber;
+import org.aeonbits.owner.loaders.Subscribable.Subscription;
+import org.aeonbits.owner.loaders.Watchable;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
 import java.net.URI;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.aeonbits.owner.Config.HotReloadType.ASYNC;
 import static org.aeonbits.owner.Config.HotReloadType.SYNC;
+import static org.aeonbits.owner.Config.HotReloadType.WATCH;
+import static org.aeonbits.owner.util.Util.eq;
 import static org.aeonbits.owner.util.Util.fileFromURI;
 import static org.aeonbits.owner.util.Util.now;
-import static org.aeonbits.owner.util.Util.system;
 
 /**
+ * The hot reload of a config object.
+ * <p>
+ * The {@link ReloadCoordinator}, the file watches and the subscriptions only keep a weak reference to this object, so
+ * that they don't prevent an unreachable config object from being garbage collected: they cancel themselves the next
+ * time they run after that.
+ * </p>
+ *
  * @author Luigi R. Viggiano
  */
 class HotReloadLogic implements Serializable {
@@ -30,14 +49,93 @@ class HotReloadLogic implements Serializable {
     private final PropertiesManager manager;
     private final long interval;
     private final HotReloadType type;
-    private volatile long lastCheckTime = now();
-    private final List<WatchableResource> watchableResources = new ArrayList<WatchableResource>();
+    private final AtomicLong nextCheckTime;
+    private final LoadersManager loaders;
+    private final List<WatchableResource> watchableResources = new CopyOnWriteArrayList<WatchableResource>();
+    private final Set<File> files = new LinkedHashSet<File>();
+    private final List<URI> sources = new ArrayList<URI>();
+    private transient ReloadCoordinator coordinator;
+    private transient ReloadCoordinator.Registration registration;
+    private transient FileWatcher.Watch watch;
+    private transient List<Subscription> subscriptions = new ArrayList<Subscription>();
+    private volatile boolean stopped;
+
+    private static class SharedFileWatcher {
+        static final FileWatcher INSTANCE = newFileWatcher();
+
+        private static FileWatcher newFileWatcher() {
+            try {
+                return (FileWatcher) Class.forName("org.aeonbits.owner.WatchServiceFileWatcher").newInstance();
+            } catch (Exception e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Reloads the given hot reload logic while it is reachable, and cancels itself once it has been garbage collected.
+     */
+    private static class WeakReload implements Runnable {
+        final Reference<HotReloadLogic> logic;
+        volatile Object handle;
+
+        WeakReload(HotReloadLogic logic) {
+            this.logic = new WeakReference<HotReloadLogic>(logic);
+        }
+
+        /**
+         * Sets what cancels this task: a {@link FileWatcher.Watch} or a {@link Subscription}.
+         */
+        <T> T cancelledBy(T handle) {
+            this.handle = handle;
+            return handle;
+        }
+
+        public void run() {
+            HotReloadLogic reloadLogic = logic.get();
+            if (reloadLogic == null)
+                cancel();
+            else
+                reloadLogic.reload();
+        }
+
+        private void cancel() {
+            Object handle = this.handle;
+            if (handle instanceof FileWatcher.Watch)
+                ((FileWatcher.Watch) handle).cancel();
+            else if (handle instanceof Subscription)
+                ((Subscription) handle).cancel();
+        }
+    }
+
+    /**
+     * Reloads the given hot reload logic when a subscribed source is changed, and hands the source back to the periodic
+     * checks when its loader stops notifying the changes.
+     */
+    private static class WeakSubscriber extends WeakReload implements Subscriber {
+        private final URI uri;
+
+        WeakSubscriber(HotReloadLogic logic, URI uri) {
+            super(logic);
+            this.uri = uri;
+        }
 
-    private interface WatchableResource extends Serializable {
+        public void changed() {
+            run();
+        }
+
+        public void unsubscribed() {
+            HotReloadLogic reloadLogic = logic.get();
+            if (reloadLogic != null)
+                reloadLogic.unsubscribed(uri, (Subscription) handle);
+        }
+    }
+
+    interface WatchableResource extends Serializable {
         boolean isChanged();
     }
 
-    private static class WatchableFile implements WatchableResource {
+    static class WatchableFile implements WatchableResource {
         private final File file;
         private long lastModifiedTime;
 
@@ -55,67 +153,194 @@ class HotReloadLogic implements Serializable {
         }
     }
 
-    private static class WatchableSystemProperties implements WatchableResource {
-        private final Properties props;
-        private int lastHashCode;
-
+    /**
+     * A source other than a file: its changes are detected through the stamp provided by its {@link Watchable} loader,
+     * or comparing what is loaded from it with what was loaded the previous time when there isn't a stamp.
+     */
+    static class WatchableSource implements WatchableResource {
+        private final URI uri;
+        private final LoadersManager loaders;
+        private Object lastStamp;
 
-        WatchableSystemProperties() {
-            props = system().getProperties();
-            lastHashCode = props.hashCode();
+        WatchableSource(URI uri, LoadersManager loaders) {
+            this.uri = uri;
+            this.loaders = loaders;
+            this.lastStamp = stamp();
         }
 
         public boolean isChanged() {
-            int newHashCode = props.hashCode();
-            boolean changed = lastHashCode != newHashCode;
+            Object stamp = stamp();
+            boolean changed = !eq(lastStamp, stamp);
             if (changed)
-                lastHashCode = newHashCode;
+                lastStamp = stamp;
             return changed;
         }
+
+        private Object stamp() {
+            try {
+                Loader loader = loaders.findLoader(uri);
+                String stamp = (loader instanceof Watchable) ? ((Watchable) loader).stamp(uri) : null;
+                // without a stamp, the properties loaded are kept and compared entirely: a hash of them could be the
+                // same after a change.
+                return (stamp != null) ? stamp : loaders.load(uri);
+            } catch (IOException e) {
+                return null;
+            }
+        }
     }
 
-    HotReloadLogic(HotReload hotReload, List<URI> uris, PropertiesManager manager) {
+    HotReloadLogic(HotReload hotReload, List<URI> uris, LoadersManager loaders, PropertiesManager manager) {
         this.manager = manager;
-        type = hotReload.type();
+        this.loaders = loaders;
+        type = hotReload.type() == WATCH && SharedFileWatcher.INSTANCE == null ? ASYNC : hotReload.type();
         interval = hotReload.unit().toMillis(hotReload.value());
-        setupWatchableResources(uris);
+        nextCheckTime = new AtomicLong(now() + interval);
+        setupWatchableResources(uris, loaders);
     }
 
-    private void setupWatchableResources(List<URI> uris) {
-        Set<File> files = new LinkedHashSet<File>();
+    private void setupWatchableResources(List<URI> uris, LoadersManager loaders) {
         for (URI uri : uris) {
-            if (uri.toString().equals("system:properties")) {
-                watchableResources.add(new WatchableSystemProperties());
-            } else {
-                File file = fileFromURI(uri);
-                if (file != null)
-                    files.add(file);
-            }
+            File file = fileFromURI(uri);
+            if (file != null)
+                files.add(file);
+            else if (!subscribe(uri, loaders))
+                sources.add(uri);
         }
+        // the asynchronous and the watched hot reloads check the resources through the ReloadCoordinator.
+        if (type != SYNC)
+            return;
+        for (URI uri : sources)
+            watchableResources.add(new WatchableSource(uri, loaders));
         for (File file : files)
             watchableResources.add(new WatchableFile(file));
     }
 
-    synchronized void checkAndReload() {
-        if (needsReload())
+    /**
+     * Subscribes to the changes of the source, if its loader is {@link Subscribable}: such sources are reloaded when
+     * the changes are notified, and are not checked.
+     */
+    private boolean subscribe(URI uri, LoadersManager loaders) {
+        Loader loader = loaders.findLoader(uri);
+        if (!(loader instanceof Subscribable))
+            return false;
+        try {
+            WeakSubscriber subscriber = new WeakSubscriber(this, uri);
+            subscriptions.add(subscriber.cancelledBy(((Subscribable) loader).subscribe(uri, subscriber)));
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Reloads the properties if the interval is elapsed, and some of the resources has been changed.
+     * <p>
+     * This is called by every method invocation for {@link HotReloadType#SYNC}, so it doesn't lock: while the interval
+     * is not elapsed it just reads the time of the next check. When it is elapsed, the only thread succeeding in
+     * moving forward the time of the next check checks the resources and reloads; the others keep using the current
+     * properties meanwhile.
+     * </p>
+     */
+    void checkAndReload() {
+        if (stopped)
+            return;
+        long nextCheck = nextCheckTime.get();
+        if (now() < nextCheck || !nextCheckTime.compareAndSet(nextCheck, Long.MAX_VALUE))
+            return;
+        try {
+            if (needsReload())
+                manager.reload();
+        } finally {
+            nextCheckTime.set(now() + interval);
+        }
+    }
+
+    /**
+     * Starts watching the files, for {@link HotReloadType#WATCH}: the properties are reloaded, on the workers of the
+     * given coordinator, when the files have been changed, without checking them. The other sources are checked
+     * periodically by the coordinator.
+     */
+    synchronized void startWatching(ReloadCoordinator coordinator) {
+        this.coordinator = coordinator;
+        if (watch == null && !stopped) {
+            WeakReload reload = new WeakReload(this);
+            watch = reload.cancelledBy(SharedFileWatcher.INSTANCE.watch(files, interval,
+                    ReloadCoordinator.onWorkers(reload)));
+        }
+        if (registration == null && !stopped && !sources.isEmpty())
+            registration = coordinator.register(this, interval, Collections.<File>emptyList(), sources);
+    }
+
+    /**
+     * Registers the resources to be checked periodically by the given coordinator, for {@link HotReloadType#ASYNC}.
+     */
+    synchronized void schedule(ReloadCoordinator coordinator) {
+        this.coordinator = coordinator;
+        if (registration == null && !stopped)
+            registration = coordinator.register(this, interval, files, sources);
+    }
+
+    /**
+     * Checks periodically the given source, whose loader has stopped notifying its changes.
+     */
+    synchronized void unsubscribed(URI uri, Subscription subscription) {
+        subscriptions.remove(subscription);
+        if (stopped || sources.contains(uri))
+            return;
+        sources.add(uri);
+        if (type == SYNC) {
+            watchableResources.add(new WatchableSource(uri, loaders));
+            return;
+        }
+        // before being started, the source is registered along with the others.
+        if (coordinator == null)
+            return;
+        if (registration != null)
+            registration.cancel();
+        Collection<File> checkedFiles = (type == ASYNC) ? files : Collections.<File>emptyList();
+        registration = coordinator.register(this, interval, checkedFiles, sources);
+    }
+
+    /**
+     * Reloads the properties, unless the hot reload has been stopped, or they are being loaded.
+     */
+    synchronized void reload() {
+        if (!stopped && !manager.isLoading())
             manager.reload();
     }
 
+    /**
+     * Stops the hot reload: the scheduled checks, the watches and the subscriptions are cancelled, and the resources
+     * are not checked anymore.
+     */
+    synchronized void stop() {
+        stopped = true;
+        if (registration != null) {
+            registration.cancel();
+            registration = null;
+        }
+        if (watch != null) {
+            watch.cancel();
+            watch = null;
+        }
+        for (Subscription subscription : subscriptions)
+            subscription.cancel();
+        subscriptions.clear();
+    }
+
     private boolean needsReload() {
         if (manager.isLoading()) return false;
 
-        long now = now();
-        if (now < lastCheckTime + interval)
-            return false;
+        for (WatchableResource resource : watchableResources)
+            if (resource.isChanged())
+                return true;
+        return false;
+    }
 
-        try {
-            for (WatchableResource resource : watchableResources)
-                if (resource.isChanged())
-                    return true;
-            return false;
-        } finally {
-            lastCheckTime = now;
-        }
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        // the subscriptions are not restored: a deserialized config object is not hot reloaded.
+        subscriptions = new ArrayList<Subscription>();
     }
 
     boolean isAsync() {
@@ -126,4 +351,8 @@ class HotReloadLogic implements Serializable {
         return type == SYNC;
     }
 
+    boolean isWatch() {
+        return type == WATCH;
+    }
+
 }
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import static java.util.Collections.singletonMap;
+import static org.aeonbits.owner.util.Util.eq;
+
+/**
+ * The properties of a config object, as an immutable map looking up a key in a few layers, in order: the properties
+ * set on the config object, then the imported maps, the properties loaded from each source and the default values.
+ * <p>
+ * The layers are never copied nor modified: the ones loaded from the sources and the default values are shared by all
+ * the config objects using them, and a reload only replaces the layers loaded again. A config object keeps in a map of
+ * its own only the properties that have been set, or removed, on it.
+ * </p>
+ * <p>
+ * Looking up a key doesn't allocate anything; iterating on the entries, as the bulk operations do, merges the layers
+ * into a new map every time.
+ * </p>
+ *
+ * @author Luigi R. Viggiano
+ */
+final class LayeredProperties extends AbstractMap<String, String> implements Serializable {
+
+    private static final long serialVersionUID = -3521760127830473621L;
+
+    static final LayeredProperties EMPTY = new LayeredProperties();
+
+    private final Map<?, ?>[] layers;
+    // the properties set on the config object, overriding the layers: a null value means that it has been removed.
+    private final Map<String, String> overrides;
+    private transient volatile Integer hashCode;
+
+    /**
+     * Creates the properties looking up the given layers, in order of precedence.
+     */
+    LayeredProperties(Map<?, ?>... layers) {
+        this(layers, Collections.<String, String>emptyMap());
+    }
+
+    private LayeredProperties(Map<?, ?>[] layers, Map<String, String> overrides) {
+        this.layers = layers;
+        this.overrides = overrides;
+    }
+
+    @Override
+    public String get(Object key) {
+        if (key == null)
+            return null;
+        if (!overrides.isEmpty() && overrides.containsKey(key))
+            return overrides.get(key);
+        return layered(key);
+    }
+
+    private String layered(Object key) {
+        for (Map<?, ?> layer : layers) {
+            Object value = layer.get(key);
+            if (value != null)
+                return (value instanceof String) ? (String) value : null;
+        }
+        return null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Returns the properties with the given property set on them, or removed when the value is <code>null</code>.
+     */
+    LayeredProperties with(String key, String value) {
+        return with(singletonMap(key, value));
+    }
+
+    /**
+     * Returns the properties with the given properties set on them, or removed when their value is <code>null</code>.
+     */
+    LayeredProperties with(Map<String, String> changes) {
+        Map<String, String> result = new HashMap<String, String>(overrides);
+        for (Map.Entry<String, String> change : changes.entrySet()) {
+            String key = change.getKey();
+            String value = change.getValue();
+            // a property set back to the value of the layers doesn't need to be kept.
+            if (eq(value, layered(key)))
+                result.remove(key);
+            else
+                result.put(key, value);
+        }
+        if (result.isEmpty())
+            return new LayeredProperties(layers);
+        return new LayeredProperties(layers, Collections.unmodifiableMap(result));
+    }
+
+    /**
+     * Returns a new {@link Properties} object containing all the properties.
+     */
+    Properties toProperties() {
+        Properties result = new Properties();
+        result.putAll(merge());
+        return result;
+    }
+
+    private Map<String, String> merge() {
+        Map<String, String> result = new HashMap<String, String>();
+        for (int i = layers.length - 1; i >= 0; i--)
+            for (Map.Entry<?, ?> entry : layers[i].entrySet()) {
+                if (!(entry.getKey() instanceof String))
+                    continue;
+                String key = (String) entry.getKey();
+                if (entry.getValue() instanceof String)
+                    result.put(key, (String) entry.getValue());
+                else
+                    result.remove(key);
+            }
+        for (Map.Entry<String, String> entry : overrides.entrySet())
+            if (entry.getValue() == null)
+                result.remove(entry.getKey());
+            else
+                result.put(entry.getKey(), entry.getValue());
+        return result;
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return Collections.unmodifiableMap(merge()).entrySet();
+    }
+
+    @Override
+    public int hashCode() {
+        Integer result = hashCode;
+        if (result == null)
+            hashCode = result = super.hashCode();
+        return result;
+    }
+
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner;
+
+import org.aeonbits.owner.util.Util;
+
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Queue;
+import java.util.WeakHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Notifies the listeners of a config object on an {@link Executor}, for {@link Config.AsyncListeners}.
+ * <p>
+ * Each listener has its own queue of notifications, run one at a time in the order they have been dispatched: a slow
+ * listener delays only its own notifications.
+ * </p>
+ *
+ * @author Luigi R. Viggiano
+ */
+final class ListenerDispatcher {
+
+    private final Executor executor;
+    // the listeners removed are forgotten once their pending notifications have been run.
+    private final Map<Object, SerialQueue> queues = new WeakHashMap<Object, SerialQueue>();
+
+    // a single executor for each executor class, kept while it is used by some config class, or its threads run.
+    private static final Map<Class<?>, Reference<Executor>> executors =
+            new WeakHashMap<Class<?>, Reference<Executor>>();
+
+    private static class DefaultExecutorHolder {
+        static final Executor INSTANCE = newDefaultExecutor();
+    }
+
+    ListenerDispatcher(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Returns the executor used when {@link Config.AsyncListeners} doesn't specify one: a virtual thread per task when
+     * the JVM supports them (Java 21 or later), a shared pool of daemon threads otherwise.
+     */
+    static Executor defaultExecutor() {
+        return DefaultExecutorHolder.INSTANCE;
+    }
+
+    /**
+     * Returns the executor of the given class, instantiating it only if there isn't one already, so that the config
+     * classes using the same executor class share its threads.
+     */
+    static Executor executor(Class<? extends Executor> executorClass) {
+        if (executorClass == Executor.class)
+            return defaultExecutor();
+        synchronized (executors) {
+            Reference<Executor> reference = executors.get(executorClass);
+            Executor result = (reference != null) ? reference.get() : null;
+            if (result == null) {
+                result = Util.newInstance(executorClass);
+                executors.put(executorClass, new WeakReference<Executor>(result));
+            }
+            return result;
+        }
+    }
+
+    private static Executor newDefaultExecutor() {
+        try {
+            return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (Exception e) {
+            return new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, SECONDS, new SynchronousQueue<Runnable>(),
+                    new ThreadFactory() {
+                        public Thread newThread(Runnable r) {
+                            Thread result = new Thread(r, "owner-listener");
+                            result.setDaemon(true);
+                            return result;
+                        }
+                    });
+        }
+    }
+
+    /**
+     * Runs the given notification of the given listener, after the ones previously dispatched to the same listener.
+     */
+    void dispatch(Object listener, Runnable notification) {
+        SerialQueue queue;
+        synchronized (queues) {
+            queue = queues.get(listener);
+            if (queue == null)
+                queues.put(listener, queue = new SerialQueue());
+        }
+        queue.add(notification);
+    }
+
+    private final class SerialQueue implements Runnable {
+        private final Queue<Runnable> notifications = new LinkedList<Runnable>();
+        private boolean running;
+
+        void add(Runnable notification) {
+            synchronized (this) {
+                notifications.add(notification);
+                if (running)
+                    return;
+                running = true;
+            }
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                // the executor has been shut down: the notifications are run by the caller.
+                run();
+            }
+        }
+
+        public void run() {
+            while (true) {
+                Runnable notification;
+                synchronized (this) {
+                    notification = notifications.poll();
+                    if (notification == null) {
+                        running = false;
+                        return;
+                    }
+                }
+                try {
+                    notification.run();
+                } catch (RuntimeException e) {
+                    uncaught(e);
+                } catch (Error e) {
+                    uncaught(e);
+                }
+            }
+        }
+
+        private void uncaught(Throwable e) {
+            Thread thread = Thread.currentThread();
+            thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+        }
+    }
+
+}
@@ -11,17 +11,36 @@ package org.aeonbits.owner;
 import org.aeonbits.owner.loaders.Loader;
 import org.aeonbits.owner.loaders.PropertiesLoader;
 import org.aeonbits.owner.loaders.SystemLoader;
+import org.aeonbits.owner.loaders.Watchable;
 import org.aeonbits.owner.loaders.XMLLoader;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.aeonbits.owner.util.Util.fileFromURI;
+import static org.aeonbits.owner.util.Util.ignore;
+import static org.aeonbits.owner.util.Util.ignoreAndReturnNull;
+import static org.aeonbits.owner.util.Util.now;
 import static org.aeonbits.owner.util.Util.unsupported;
 
 
@@ -34,8 +53,41 @@ import static org.aeonbits.owner.util.Util.unsupported;
  */
 class LoadersManager implements Serializable {
 
+    private static final int MAX_CONCURRENT_LOADS = 8;
+    private static final ThreadPoolExecutor executor = newExecutor();
+
+    /**
+     * How long a source that couldn't be loaded is not tried again, in milliseconds.
+     */
+    static final long UNAVAILABLE_SOURCE_TTL = SECONDS.toMillis(10);
+
+    /**
+     * The coarsest resolution of the last modified time of the files: a file modified less than this before being
+     * loaded may be modified again without changing its last modified time.
+     */
+    private static final long MODIFIED_TIME_RESOLUTION = SECONDS.toMillis(2);
+
     private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
     private final List<Loader> loaders = new LinkedList<Loader>();
+    private transient ConcurrentMap<URI, Long> unavailable = new ConcurrentHashMap<URI, Long>();
+    private transient ConcurrentMap<List<URI>, URI> firstAvailable = new ConcurrentHashMap<List<URI>, URI>();
+    private transient ConcurrentMap<URI, LoadedSource> loadedSources = new ConcurrentHashMap<URI, LoadedSource>();
+    // the snapshot file of each config class, restored the first time the config class is loaded. Guarded by itself.
+    private transient Map<Class<?>, SourcesSnapshotFile> snapshotFiles =
+            new WeakHashMap<Class<?>, SourcesSnapshotFile>();
+
+    /**
+     * The properties loaded from a source, that can be used again as long as the stamp of the source doesn't change.
+     */
+    private static class LoadedSource {
+        final String stamp;
+        final Properties properties;
+
+        LoadedSource(String stamp, Properties properties) {
+            this.stamp = stamp;
+            this.properties = properties;
+        }
+    }
 
     LoadersManager() {
         registerLoader(new PropertiesLoader());
@@ -43,9 +95,269 @@ class LoadersManager implements Serializable {
         registerLoader(new SystemLoader());
     }
 
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        unavailable = new ConcurrentHashMap<URI, Long>();
+        firstAvailable = new ConcurrentHashMap<List<URI>, URI>();
+        loadedSources = new ConcurrentHashMap<URI, LoadedSource>();
+        snapshotFiles = new WeakHashMap<Class<?>, SourcesSnapshotFile>();
+    }
+
     void load(Properties result, URI uri) throws IOException {
+        result.putAll(load(uri));
+    }
+
+    /**
+     * Loads the given URI, returning properties that must not be modified.
+     * <p>
+     * The properties loaded from a source are returned again, without loading the source, as long as its stamp doesn't
+     * change: the stamp of a file is its last modified time and size, the stamp of the other sources is provided by the
+     * loaders implementing {@link Watchable}.
+     * </p>
+     * <p>
+     * If the URI can't be loaded, it is remembered as unavailable for {@link #UNAVAILABLE_SOURCE_TTL}, unless it is a
+     * file: checking that a file doesn't exist is as cheap as checking the remembered sources, and a file being created
+     * must be loaded by the hot reload without delay.
+     * </p>
+     */
+    Properties load(URI uri) throws IOException {
         Loader loader = findLoader(uri);
-        loader.load(result, uri);
+        File file = fileFromURI(uri);
+        try {
+            String stamp = stamp(uri, file, loader);
+            LoadedSource loaded = (stamp == null) ? null : loadedSources.get(uri);
+            if (loaded != null && loaded.stamp.equals(stamp))
+                return loaded.properties;
+
+            Properties result = new Properties();
+            loader.load(result, uri);
+            if (stamp != null)
+                loadedSources.put(uri, new LoadedSource(stamp, result));
+            else
+                loadedSources.remove(uri);
+            return result;
+        } catch (IOException e) {
+            loadedSources.remove(uri);
+            if (file == null)
+                unavailable.put(uri, now() + UNAVAILABLE_SOURCE_TTL);
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the snapshot file of the given config class, or <code>null</code> if the snapshots are not enabled: the
+     * properties it keeps are restored the first time it is returned, see {@link SourcesSnapshotFile}.
+     */
+    SourcesSnapshotFile snapshotFile(Class<? extends Config> clazz) {
+        synchronized (snapshotFiles) {
+            SourcesSnapshotFile result = snapshotFiles.get(clazz);
+            if (result == null) {
+                result = SourcesSnapshotFile.of(clazz);
+                if (result == null)
+                    return null;
+                result.restore(this);
+                snapshotFiles.put(clazz, result);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Uses the given properties for the source as if they had been loaded from it, as long as its stamp doesn't change,
+     * see {@link SourcesSnapshotFile}.
+     *
+     * @return <code>false</code> if the properties have been loaded by a different loader than the current one.
+     */
+    boolean restore(URI uri, String loaderClass, String stamp, Properties properties) {
+        Loader loader;
+        try {
+            loader = findLoader(uri);
+        } catch (UnsupportedOperationException e) {
+            return false;
+        }
+        if (!loader.getClass().getName().equals(loaderClass))
+            return false;
+        loadedSources.putIfAbsent(uri, new LoadedSource(stamp, properties));
+        return true;
+    }
+
+    /**
+     * Returns the stamp of the source the given properties have been loaded from, or <code>null</code> if it is not
+     * known.
+     */
+    String loadedStamp(URI uri, Properties properties) {
+        LoadedSource loaded = loadedSources.get(uri);
+        return (loaded != null && loaded.properties == properties) ? loaded.stamp : null;
+    }
+
+    /**
+     * Returns the stamp of the given source, or <code>null</code> if it is not known, or if it is a file modified so
+     * recently that it may be modified again without changing its last modified time.
+     * <p>
+     * A source whose stamp can't be determined is just loaded: if it is not available, the loader tells.
+     * </p>
+     */
+    private static String stamp(URI uri, File file, Loader loader) {
+        if (file != null) {
+            long lastModified = file.lastModified();
+            if (lastModified == 0L || System.currentTimeMillis() - lastModified <= MODIFIED_TIME_RESOLUTION)
+                return null;
+            return lastModified + ":" + file.length();
+        }
+        if (loader instanceof Watchable)
+            try {
+                return ((Watchable) loader).stamp(uri);
+            } catch (IOException e) {
+                return ignoreAndReturnNull();
+            }
+        return null;
+    }
+
+    /**
+     * Loads the first available of the given URIs, see {@link Config.LoadType#FIRST}.
+     * <p>
+     * The sources recently found unavailable are skipped. The source found available the last time is fetched along
+     * with the ones preceding it, while the ones following it are fetched only if none of them is available.
+     * </p>
+     *
+     * @param sources where to put the properties loaded from each source, see {@link #load(URI)}.
+     * @return the properties loaded from the first available URI, if any.
+     */
+    List<Properties> loadFirst(List<URI> uris, Map<URI, Properties> sources) {
+        List<URI> candidates = available(uris);
+        int last = candidates.indexOf(firstAvailable.get(uris));
+        URI found = loadFirstAvailable(last < 0 ? candidates : candidates.subList(0, last + 1), sources);
+        if (found == null && last >= 0)
+            found = loadFirstAvailable(candidates.subList(last + 1, candidates.size()), sources);
+        if (found == null) {
+            firstAvailable.remove(uris);
+            return Collections.emptyList();
+        }
+        firstAvailable.put(new ArrayList<URI>(uris), found);
+        return Collections.singletonList(sources.get(found));
+    }
+
+    private URI loadFirstAvailable(List<URI> candidates, Map<URI, Properties> sources) {
+        List<FutureTask<Properties>> tasks = loadConcurrently(candidates, true);
+        for (int i = 0; i < tasks.size(); i++)
+            try {
+                sources.put(candidates.get(i), await(tasks.get(i)));
+                for (FutureTask<Properties> next : tasks.subList(i + 1, tasks.size()))
+                    next.cancel(false);
+                return candidates.get(i);
+            } catch (IOException ex) {
+                // happens when a file specified in the sources is not found or cannot be read.
+                ignore();
+            }
+        return null;
+    }
+
+    /**
+     * Loads and merges all the given URIs, see {@link Config.LoadType#MERGE}. The sources recently found unavailable
+     * are skipped.
+     *
+     * @param sources where to put the properties loaded from each source, see {@link #load(URI)}.
+     * @return the properties loaded from each available URI, in the same order.
+     */
+    List<Properties> loadMerged(List<URI> uris, Map<URI, Properties> sources) {
+        List<URI> candidates = available(uris);
+        List<FutureTask<Properties>> tasks = loadConcurrently(candidates, false);
+        LinkedList<Properties> result = new LinkedList<Properties>();
+        for (int i = tasks.size() - 1; i >= 0; i--)
+            try {
+                Properties source = await(tasks.get(i));
+                sources.put(candidates.get(i), source);
+                result.addFirst(source);
+            } catch (IOException ex) {
+                // happens when a file specified in the sources is not found or cannot be read.
+                ignore();
+            }
+        return result;
+    }
+
+    private List<URI> available(List<URI> uris) {
+        if (unavailable.isEmpty())
+            return uris;
+        long now = now();
+        List<URI> result = new ArrayList<URI>(uris.size());
+        for (URI uri : uris) {
+            Long expiration = unavailable.get(uri);
+            if (expiration == null)
+                result.add(uri);
+            else if (now >= expiration) {
+                unavailable.remove(uri, expiration);
+                result.add(uri);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Loads the given URIs concurrently, each one in its own {@link Properties}: the first one is loaded by the calling
+     * thread, the others by the workers. The returned tasks are in the same order as the URIs, and their results are
+     * obtained with {@link #await(FutureTask)}.
+     * <p>
+     * When <code>speculative</code>, the URIs may not need to be loaded at all: only the ones that aren't files, whose
+     * loading may take long, are started by the workers, and the others are loaded by the calling thread when needed.
+     * </p>
+     */
+    private List<FutureTask<Properties>> loadConcurrently(List<URI> uris, boolean speculative) {
+        List<FutureTask<Properties>> tasks = new ArrayList<FutureTask<Properties>>(uris.size());
+        for (final URI uri : uris)
+            tasks.add(new FutureTask<Properties>(new Callable<Properties>() {
+                public Properties call() throws IOException {
+                    return load(uri);
+                }
+            }));
+        for (int i = 1; i < tasks.size(); i++)
+            if (!speculative || fileFromURI(uris.get(i)) == null)
+                executor.execute(tasks.get(i));
+        if (!speculative && !tasks.isEmpty())
+            tasks.get(0).run();
+        return tasks;
+    }
+
+    /**
+     * Returns the properties loaded by the given task. If none of the workers has started the task yet, it is run in
+     * the calling thread, so that a loader creating other config objects can't exhaust the workers waiting for itself.
+     */
+    private static Properties await(FutureTask<Properties> task) throws IOException {
+        task.run();
+        boolean interrupted = false;
+        try {
+            while (true)
+                try {
+                    return task.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException)
+                throw (IOException) cause;
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw unsupported(cause, "Loading failed: %s", cause.getMessage());
+        } finally {
+            if (interrupted)
+                Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ThreadPoolExecutor newExecutor() {
+        int threads = Math.min(MAX_CONCURRENT_LOADS, Math.max(2, Runtime.getRuntime().availableProcessors() * 2));
+        ThreadPoolExecutor result = new ThreadPoolExecutor(threads, threads, 30, SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                    public Thread newThread(Runnable r) {
+                        Thread result = new Thread(r, "owner-loader");
+                        result.setDaemon(true);
+                        return result;
+                    }
+                });
+        result.allowCoreThreadTimeOut(true);
+        return result;
     }
 
     Loader findLoader(URI uri) {
@@ -66,6 +378,10 @@ class LoadersManager implements Serializable {
         lock.writeLock().lock();
         try {
             loaders.add(0, loader);
+            loadedSources.clear();
+            synchronized (snapshotFiles) {
+                snapshotFiles.clear();
+            }
         } finally {
             lock.writeLock().unlock();
         }
@@ -75,6 +391,10 @@ class LoadersManager implements Serializable {
         lock.writeLock().lock();
         try {
             loaders.clear();
+            loadedSources.clear();
+            synchronized (snapshotFiles) {
+                snapshotFiles.clear();
+            }
         } finally {
             lock.writeLock().unlock();
         }
@@ -12,16 +12,13 @@ import java.io.IOException;
 import java.io.Serializable;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
-import static org.aeonbits.owner.Config.DisableableFeature.PARAMETER_FORMATTING;
-import static org.aeonbits.owner.Config.DisableableFeature.VARIABLE_EXPANSION;
-import static org.aeonbits.owner.Converters.SpecialValue.NULL;
-import static org.aeonbits.owner.Converters.convert;
-import static org.aeonbits.owner.PreprocessorResolver.resolvePreprocessors;
-import static org.aeonbits.owner.PropertiesMapper.key;
-import static org.aeonbits.owner.util.Util.isFeatureDisabled;
 import static org.aeonbits.owner.util.Reflection.invokeDefaultMethod;
 import static org.aeonbits.owner.util.Reflection.isDefault;
 
@@ -42,8 +39,8 @@ class PropertiesInvocationHandler implements InvocationHandler, Serializable {
 
     private static final long serialVersionUID = 5432212884255718342L;
     private transient List<DelegateMethodHandle> delegates;
-    private final Object jmxSupport;
-    private final StrSubstitutor substitutor;
+    private transient ConcurrentMap<Method, MethodInvoker> invokers = new ConcurrentHashMap<Method, MethodInvoker>();
+    final Object jmxSupport;
     final PropertiesManager propertiesManager;
 
 
@@ -51,20 +48,60 @@ class PropertiesInvocationHandler implements InvocationHandler, Serializable {
         this.propertiesManager = manager;
         this.jmxSupport = jmxSupport;
         delegates = findDelegates(manager, jmxSupport);
-        this.substitutor = new StrSubstitutor(manager.load());
+        manager.load();
+    }
+
+    /**
+     * Handles the invocations of one method of the proxy. It is created the first time the method is invoked, deciding
+     * once for all if the method is a default method, a delegate or a property accessor, and then reused.
+     */
+    interface MethodInvoker {
+        Object invoke(Object proxy, Object[] args) throws Throwable;
     }
 
     public Object invoke(Object proxy, Method invokedMethod, Object... args) throws Throwable {
         propertiesManager.syncReloadCheck();
+        return invoker(invokedMethod).invoke(proxy, args);
+    }
 
-        if (isDefault(invokedMethod))
-            return invokeDefaultMethod(proxy, invokedMethod, args);
+    MethodInvoker invoker(Method method) {
+        MethodInvoker invoker = invokers.get(method);
+        if (invoker != null)
+            return invoker;
+        invoker = newInvoker(method);
+        MethodInvoker raced = invokers.putIfAbsent(method, invoker);
+        return raced != null ? raced : invoker;
+    }
 
-        DelegateMethodHandle delegate = getDelegateMethod(invokedMethod);
-        if (delegate != null)
-            return delegate.invoke(args);
+    private MethodInvoker newInvoker(final Method method) {
+        if (isDefault(method))
+            return new MethodInvoker() {
+                public Object invoke(Object proxy, Object[] args) throws Throwable {
+                    return invokeDefaultMethod(proxy, method, args);
+                }
+            };
 
-        return resolveProperty(invokedMethod, args);
+        final DelegateMethodHandle delegate = getDelegateMethod(method);
+        if (delegate != null)
+            return new MethodInvoker() {
+                public Object invoke(Object proxy, Object[] args) throws Throwable {
+                    return delegate.invoke(args);
+                }
+            };
+
+        final ResolutionPlan plan = propertiesManager.metadata().plan(method);
+        if (plan.isCached())
+            return new MethodInvoker() {
+                public Object invoke(Object proxy, Object[] args) {
+                    return resolveCachedProperty(method, plan);
+                }
+            };
+
+        return new MethodInvoker() {
+            public Object invoke(Object proxy, Object[] args) {
+                return resolveProperty(propertiesManager.snapshot(), plan, null, args);
+            }
+        };
     }
 
     private DelegateMethodHandle getDelegateMethod(Method invokedMethod) {
@@ -74,68 +111,50 @@ class PropertiesInvocationHandler implements InvocationHandler, Serializable {
         return null;
     }
 
-    private Object resolveProperty(Method method, Object... args) {
-        String key = expandKey(method, args);
-        String value = propertiesManager.getProperty(key);
+    private Object resolveCachedProperty(Method method, ResolutionPlan plan) {
+        ValueCache cache = propertiesManager.valueCache;
+        ValueCache.Entry entry = cache.get(method);
+        if (entry != null)
+            return entry.value();
+        long version = cache.version();
+        Set<String> dependencies = new HashSet<String>();
+        Object result = resolveProperty(propertiesManager.snapshot(), plan, dependencies);
+        cache.put(method, result, dependencies, version);
+        return result;
+    }
+
+    private Object resolveProperty(PropertiesSnapshot snapshot, ResolutionPlan plan, Set<String> dependencies,
+                                   Object... args) {
+        StrSubstitutor substitutor = snapshot.substitutor();
+        String key = expandKey(substitutor, plan, dependencies, args);
+        String value = snapshot.getProperty(key);
+        if (dependencies != null)
+            dependencies.add(key);
 
         // TODO: this if should go away! See #84 and #86
-        if (value == null && !isFeatureDisabled(method, VARIABLE_EXPANSION)) {
-            String unexpandedKey = key(method);
-            value = propertiesManager.getProperty(unexpandedKey);
+        if (value == null && plan.isVariableExpansionEnabled()) {
+            value = snapshot.getProperty(plan.key());
+            if (dependencies != null)
+                dependencies.add(plan.key());
         }
         if (value == null)
             return null;
-        value = preProcess(method, value);
-        Object result = convert(method, method.getReturnType(),
-                format(method, propertiesManager
-                    .decryptIfNecessary(method, expandVariables(method, value)),
-                    args));
-        if (result == NULL) return null;
-        return result;
-    }
-
-    private String preProcess(Method method, String value) {
-        List<Preprocessor> preprocessors = resolvePreprocessors(method);
-        String result = value;
-        for (Preprocessor preprocessor : preprocessors)
-            result = preprocessor.process(result);
-        return result;
-    }
-
-    private String expandKey(Method method, Object... args) {
-        String key = key(method);
-        if (isFeatureDisabled(method, VARIABLE_EXPANSION))
-            return key;
-        return substitutor.replace(key, args);
+        value = plan.preProcess(value);
+        return plan.convert(plan.format(plan.decrypt(expandVariables(substitutor, plan, value, dependencies)), args));
     }
 
-    private String format(Method method, String format, Object... args) {
-        if (isFeatureDisabled(method, PARAMETER_FORMATTING))
-            return format;
-
-        // If there are no arguments to format, we can just return.
-        // This is also helpful when the {@code format} is a property value that contains a '%' character,
-        // such as '@#$%^&*()" (e.g., a clear-text password). In such cases, the '%' character is not
-        // a placeholder in a format string -- its just a random character in the property value.
-        if ( args == null || args.length == 0 )
-            return format;
-
-        try {
-            // Do this to achieve property expansion
-            return String.format(format, args);
-            }
-        catch ( Exception e ) {
-            // There's no guarantee that a property value from a config file
-            // is a legal format string. When formatting doesn't work, let's
-            // just return the original property value.
-            return format;
-            }
+    private String expandKey(StrSubstitutor substitutor, ResolutionPlan plan, Set<String> dependencies,
+                             Object... args) {
+        if (!plan.isVariableExpansionEnabled())
+            return plan.key();
+        return substitutor.replace(plan.key(), dependencies, args);
     }
 
-    private String expandVariables(Method method, String value) {
-        if (isFeatureDisabled(method, VARIABLE_EXPANSION))
+    private String expandVariables(StrSubstitutor substitutor, ResolutionPlan plan, String value,
+                                   Set<String> dependencies) {
+        if (!plan.isVariableExpansionEnabled())
             return value;
-        return substitutor.replace(value);
+        return substitutor.replace(value, dependencies);
     }
 
     private List<DelegateMethodHandle> findDelegates(Object... targets) {
@@ -159,5 +178,6 @@ class PropertiesInvocationHandler implements InvocationHandler, Serializable {
             throws IOException, ClassNotFoundException {
         in.defaultReadObject();
         delegates = findDelegates(propertiesManager, jmxSupport);
+        invokers = new ConcurrentHashMap<Method, MethodInvoker>();
     }
 }
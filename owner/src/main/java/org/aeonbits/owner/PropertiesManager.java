@@ -8,10 +8,7 @@
 
 package org.aeonbits.owner;
 
-import org.aeonbits.owner.crypto.Decryptor;
-import org.aeonbits.owner.crypto.IdentityDecryptor;
 import org.aeonbits.owner.event.*;
-import org.aeonbits.owner.util.Util;
 
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
@@ -22,33 +19,50 @@ import java.lang.reflect.Proxy;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.*;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock.ReadLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock.WriteLock;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantLock;
 
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
 import static java.util.Collections.synchronizedList;
-import static org.aeonbits.owner.Config.LoadType.FIRST;
-import static org.aeonbits.owner.PropertiesMapper.defaults;
 import static org.aeonbits.owner.util.Util.*;
 
 /**
  * Loads properties and manages access to properties handling concurrency.
+ * <p>
+ * Writers build the new, immutable, {@link LayeredProperties} while holding a lock, then publish a
+ * {@link PropertiesSnapshot} of them. Readers just use the last published snapshot, so they never lock.
+ * </p>
+ * <p>
+ * The properties are not merged into a map of each config object: they are looked up in the layers of the imported
+ * maps, of the sources, which are shared with the other config objects loading them, and of the default values, which
+ * are shared by all the config objects of the class.
+ * </p>
  *
  * @author Luigi R. Viggiano
  */
-class PropertiesManager implements Reloadable, Accessible, Mutable {
+class PropertiesManager implements Reloadable, Accessible, Mutable, Closeable {
     private final Class<? extends Config> clazz;
+    private transient ConfigClassMetadata metadata;
+    // notifies the listeners after the changes, for AsyncListeners; null when they are notified synchronously.
+    private transient ListenerDispatcher dispatcher;
     private final Map<?, ?>[] imports;
-    private final Properties properties;
-    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
-    private final ReadLock readLock = lock.readLock();
-    private final WriteLock writeLock = lock.writeLock();
+    private Map<String, String> precomputedDefaults;
+    // the copies of the imported maps, kept until the imported maps are modified.
+    private Map<?, ?>[] importLayers;
+    private volatile PropertiesSnapshot snapshot = PropertiesSnapshot.EMPTY;
+    private final ReentrantLock writeLock = new ReentrantLock();
 
     private final LoadType loadType;
     private final List<URI> uris;
     private final HotReloadLogic hotReloadLogic;
 
+    // what has been loaded from each source the last time, to find out the keys to compare on reload.
+    private transient Map<URI, Properties> sources;
+    // the keys whose value may differ from the loaded one, since the last load.
+    private final Set<String> modifiedKeys = new HashSet<String>();
+    private boolean allKeysModified;
+
     private volatile boolean loading = false;
 
     final List<ReloadListener> reloadListeners = synchronizedList(new LinkedList<ReloadListener>());
@@ -56,14 +70,7 @@ class PropertiesManager implements Reloadable, Accessible, Mutable {
     private Object proxy;
     private final LoadersManager loaders;
 
-
-    /**
-     * A cache of encryptedKeys with its decryptor.
-     * <p>
-     * This allows each key has its own decryptor.
-     * Reflection is slow.
-     */
-    private Map<Method, Decryptor> encryptedKeys = new HashMap<Method, Decryptor>();
+    final ValueCache valueCache = new ValueCache();
 
     final List<PropertyChangeListener> propertyChangeListeners = synchronizedList(
             new LinkedList<PropertyChangeListener>() {
@@ -81,10 +88,11 @@ class PropertiesManager implements Reloadable, Accessible, Mutable {
                 }
             });
 
-    PropertiesManager(Class<? extends Config> clazz, Properties properties, ScheduledExecutorService scheduler,
-                      VariablesExpander expander, LoadersManager loaders, Map<?, ?>... imports) {
+    PropertiesManager(Class<? extends Config> clazz, ReloadCoordinator coordinator, VariablesExpander expander,
+                      LoadersManager loaders, Map<?, ?>... imports) {
         this.clazz = clazz;
-        this.properties = properties;
+        this.metadata = ConfigClassMetadata.of(clazz);
+        this.dispatcher = dispatcher(metadata);
         this.loaders = loaders;
         this.imports = imports;
         ConfigURIFactory urlFactory = new ConfigURIFactory(clazz.getClassLoader(), expander);
@@ -94,81 +102,48 @@ class PropertiesManager implements Reloadable, Accessible, Mutable {
             this.uris.addAll(toURIs(inter.getAnnotation(Sources.class), urlFactory));
         }
 
-        LoadPolicy loadPolicy = clazz.getAnnotation(LoadPolicy.class);
-        if (loadPolicy == null) {
-            for (Class<?> inter : clazz.getInterfaces()) {
-                loadPolicy = inter.getAnnotation(LoadPolicy.class);
-                if (loadPolicy != null) {
-                    break;
-                }
-            }
-        }
-        loadType = (loadPolicy != null) ? loadPolicy.value() : FIRST;
-
-        HotReload hotReload = clazz.getAnnotation(HotReload.class);
-        if (hotReload == null) {
-            for (Class<?> inter : clazz.getInterfaces()) {
-                hotReload = inter.getAnnotation(HotReload.class);
-                if (hotReload != null) {
-                    break;
-                }
-            }
-        }
+        loadType = metadata.loadType();
+        HotReload hotReload = metadata.hotReload();
         if (hotReload != null) {
-            hotReloadLogic = new HotReloadLogic(hotReload, uris, this);
+            hotReloadLogic = new HotReloadLogic(hotReload, uris, loaders, this);
 
             if (hotReloadLogic.isAsync())
-                scheduler.scheduleAtFixedRate(new Runnable() {
-                    public void run() {
-                        hotReloadLogic.checkAndReload();
-                    }
-                }, hotReload.value(), hotReload.value(), hotReload.unit());
+                hotReloadLogic.schedule(coordinator);
+            else if (hotReloadLogic.isWatch())
+                hotReloadLogic.startWatching(coordinator);
         } else {
             hotReloadLogic = null;
         }
+    }
 
-        // We try to identify the DecryptorClass annotation, to assign the Decryptor to this configuration.
-        // If it isn't present then we assign the IdentityDecryptor.
-        DecryptorClass decryptorManager = clazz.getAnnotation(DecryptorClass.class);
-        Class<? extends Decryptor> decryptorClazz;
-        if (decryptorManager != null) {
-            decryptorClazz = decryptorManager.value();
-        } else {
-            decryptorClazz = IdentityDecryptor.class;
-        }
-        Decryptor classDecryptor = Util.newInstance(decryptorClazz);
-
-        // Reflection is slow, so we will cache all methods with EncryptedValue annotation.
-        Method[] methods = clazz.getMethods();
-        for (Method method : methods) {
-            if (PropertiesMapper.isEncryptedValue(method)) {
-                EncryptedValue encriptedKey = method.getAnnotation(EncryptedValue.class);
-                decryptorClazz = encriptedKey.value();
-                if (decryptorClazz != IdentityDecryptor.class) {
-                    encryptedKeys.put(method, Util.newInstance(decryptorClazz));
-                } else {
-                    encryptedKeys.put(method, classDecryptor);
-                }
-            }
-        }
+    /**
+     * Stops reloading the properties of a config object that is not going to be used anymore.
+     */
+    void stopHotReload() {
+        if (hotReloadLogic != null)
+            hotReloadLogic.stop();
     }
 
     /**
-     * If method contains the EncryptedValue annotation it Decrypts the value with the associated {@link Decryptor}.
-     *
-     * @param method with the key definition.
-     * @param value the value to decrypt when the method contains the EncryptedValue annotation
-     * @return
-     *      the <code>value</code> if the method doesn't contains the EncryptedValue annotation
-     *      or the <code>result of decrypt the value</code> if it does.
+     * Returns the manager of the given config object, or <code>null</code> if the object has not been created by a
+     * {@link Factory}.
      */
-    String decryptIfNecessary(Method method, String value) {
-        // Value can't be null, it has been checked previously in PropertiesInvocationHandler.resolveProperty
-        if (this.encryptedKeys.containsKey(method)) {
-            Decryptor decryptor = this.encryptedKeys.get(method);
-            return decryptor.decrypt(value);
-        }
-        return value;
+    static PropertiesManager of(Object config) {
+        if (config instanceof GeneratedConfig)
+            return ((GeneratedConfig) config).propertiesManager();
+        if (!(config instanceof Proxy))
+            return null;
+        InvocationHandler handler = Proxy.getInvocationHandler(config);
+        if (!(handler instanceof PropertiesInvocationHandler))
+            return null;
+        return ((PropertiesInvocationHandler) handler).propertiesManager;
+    }
+
+    /**
+     * Returns the metadata of the config class, shared by all its config objects.
+     */
+    ConfigClassMetadata metadata() {
+        return metadata;
     }
 
     private List<URI> toURIs(Sources sources, ConfigURIFactory uriFactory) {
@@ -196,38 +171,107 @@ class PropertiesManager implements Reloadable, Accessible, Mutable {
         return loaders.defaultSpecs(prefix);
     }
 
-    Properties load() {
+    void load() {
         writeLock.lock();
         try {
-            return load(properties);
+            SourcesSnapshotFile snapshotFile = loaders.snapshotFile(clazz);
+            Map<URI, Properties> loadedSources = new HashMap<URI, Properties>();
+            LayeredProperties loaded = load(loadedSources);
+            if (snapshotFile != null)
+                snapshotFile.store(loaders, loadedSources);
+            sources = loadedSources;
+            snapshot = new PropertiesSnapshot(loaded);
+            valueCache.clear();
         } finally {
             writeLock.unlock();
         }
     }
 
-    private Properties load(Properties props) {
+    /**
+     * Uses the given default values, computed at build time, instead of scanning the {@link Config.DefaultValue}
+     * annotations of the config class. Must be invoked before the properties are loaded.
+     */
+    void setPrecomputedDefaults(Map<String, String> defaults) {
+        this.precomputedDefaults = defaults;
+    }
+
+    /**
+     * Returns the last published snapshot of the properties.
+     */
+    PropertiesSnapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Publishes a new snapshot after a change of the given keys, and returns the events for the other keys whose value,
+     * once the variables are expanded, has been changed by the change of the given keys.
+     */
+    private List<PropertyChangeEvent> publish(LayeredProperties properties, Collection<String> changedKeys) {
+        PropertiesSnapshot previous = snapshot;
+        PropertiesSnapshot next = new PropertiesSnapshot(previous, properties, changedKeys);
+        snapshot = next;
+        valueCache.invalidate(changedKeys);
+        return derivedPropertyChangeEvents(previous, next, changedKeys);
+    }
+
+    private List<PropertyChangeEvent> derivedPropertyChangeEvents(PropertiesSnapshot previous, PropertiesSnapshot next,
+                                                                  Collection<String> changedKeys) {
+        if (propertyChangeListeners.isEmpty())
+            return Collections.emptyList();
+        Set<String> changed = new HashSet<String>(changedKeys);
+        List<PropertyChangeEvent> events = new ArrayList<PropertyChangeEvent>();
+        for (String key : next.dependentsOf(changed)) {
+            if (changed.contains(key))
+                continue;
+            String oldValue = previous.getExpandedProperty(key);
+            String newValue = next.getExpandedProperty(key);
+            if (!eq(oldValue, newValue))
+                events.add(new PropertyChangeEvent(proxy, key, oldValue, newValue));
+        }
+        return events;
+    }
+
+    private LayeredProperties load(Map<URI, Properties> loadedSources) {
         try {
             loading = true;
-            defaults(props, clazz);
-            Properties loadedFromFile = doLoad();
-            merge(props, loadedFromFile);
-            merge(props, reverse(imports));
-            return props;
+            List<Properties> loadedFromSources = loadType.load(uris, loaders, loadedSources);
+            List<Map<?, ?>> layers = new ArrayList<Map<?, ?>>(imports.length + loadedFromSources.size() + 1);
+            layers.addAll(asList(importLayers()));
+            layers.addAll(loadedFromSources);
+            layers.add(precomputedDefaults != null ? precomputedDefaults : metadata.defaults());
+            return new LayeredProperties(layers.toArray(new Map<?, ?>[layers.size()]));
         } finally {
             loading = false;
         }
     }
 
+    /**
+     * Returns the copies of the imported maps, copying again only the ones that have been modified since the last load.
+     */
+    private Map<?, ?>[] importLayers() {
+        Map<?, ?>[] result = new Map<?, ?>[imports.length];
+        for (int i = 0; i < imports.length; i++)
+            if (importLayers != null && importLayers[i].equals(imports[i]))
+                result[i] = importLayers[i];
+            else
+                result[i] = new HashMap<Object, Object>(imports[i]);
+        return importLayers = result;
+    }
+
     @Delegate
     public void reload() {
         writeLock.lock();
         try {
-            Properties loaded = load(new Properties());
-            List<PropertyChangeEvent> events =
-                    fireBeforePropertyChangeEvents(keys(properties, loaded), properties, loaded);
+            Map<URI, Properties> loadedSources = new HashMap<URI, Properties>();
+            LayeredProperties loaded = load(loadedSources);
+            LayeredProperties properties = snapshot.properties();
+            Set<?> keys = keysToCompare(loadedSources, properties, loaded);
+            List<PropertyChangeEvent> events = fireBeforePropertyChangeEvents(keys, properties, loaded);
             ReloadEvent reloadEvent = fireBeforeReloadEvent(events, properties, loaded);
-            applyPropertyChangeEvents(events);
+            List<PropertyChangeEvent> derivedEvents =
+                    publish(loaded(loadedSources, keys, events, properties, loaded), changedKeys(events));
             firePropertyChangeEvents(events);
+            firePropertyChangeEvents(derivedEvents);
             fireReloadEvent(reloadEvent);
         } catch (RollbackBatchException e) {
             ignore();
@@ -236,6 +280,53 @@ class PropertiesManager implements Reloadable, Accessible, Mutable {
         }
     }
 
+    /**
+     * Returns the keys that may have been changed by a reload: the ones of the sources that have been loaded again,
+     * since the properties loaded from a source that is not modified are the same, the ones of the imports, and the
+     * ones modified since the last load.
+     */
+    private Set<?> keysToCompare(Map<URI, Properties> loadedSources, LayeredProperties properties,
+                                 LayeredProperties loaded) {
+        if (sources == null || allKeysModified)
+            return keys(properties, loaded);
+        Set<Object> keys = new HashSet<Object>(modifiedKeys);
+        for (Map.Entry<URI, Properties> entry : sources.entrySet())
+            if (loadedSources.get(entry.getKey()) != entry.getValue())
+                keys.addAll(entry.getValue().keySet());
+        for (Map.Entry<URI, Properties> entry : loadedSources.entrySet())
+            if (sources.get(entry.getKey()) != entry.getValue())
+                keys.addAll(entry.getValue().keySet());
+        for (Map<?, ?> map : imports)
+            keys.addAll(map.keySet());
+        return keys;
+    }
+
+    /**
+     * Records the sources just loaded, and returns the loaded properties keeping the previous value of the keys whose
+     * changes have been rolled back by the listeners, which are recorded as modified since the last load.
+     */
+    private LayeredProperties loaded(Map<URI, Properties> loadedSources, Set<?> comparedKeys,
+                                     List<PropertyChangeEvent> events, LayeredProperties properties,
+                                     LayeredProperties loaded) {
+        sources = loadedSources;
+        modifiedKeys.clear();
+        allKeysModified = false;
+        Set<String> changedKeys = changedKeys(events);
+        Map<String, String> rolledBack = new HashMap<String, String>();
+        for (Object key : comparedKeys)
+            if (!changedKeys.contains(key) && !eq(properties.get(key), loaded.get(key)))
+                rolledBack.put((String) key, properties.get(key));
+        modifiedKeys.addAll(rolledBack.keySet());
+        return rolledBack.isEmpty() ? loaded : loaded.with(rolledBack);
+    }
+
+    private static Set<String> changedKeys(List<PropertyChangeEvent> events) {
+        Set<String> result = new LinkedHashSet<String>();
+        for (PropertyChangeEvent event : events)
+            result.add(event.getPropertyName());
+        return result;
+    }
+
     private Set<?> keys(Map<?, ?>... maps) {
         Set<Object> keys = new HashSet<Object>();
         for (Map<?, ?> map : maps)
@@ -243,25 +334,45 @@ class PropertiesManager implements Reloadable, Accessible, Mutable {
         return keys;
     }
 
-    private void applyPropertyChangeEvents(List<PropertyChangeEvent> events) {
+    private List<PropertyChangeEvent> applyPropertyChangeEvents(List<PropertyChangeEvent> events) {
+        if (events.isEmpty()) return Collections.emptyList();
+        Map<String, String> changes = new LinkedHashMap<String, String>();
         for (PropertyChangeEvent event : events)
-            performSetProperty(event.getPropertyName(), event.getNewValue());
-    }
-
-    private void fireReloadEvent(ReloadEvent reloadEvent) {
-        for (ReloadListener listener : reloadListeners)
-            listener.reloadPerformed(reloadEvent);
+            changes.put(event.getPropertyName(), asString(event.getNewValue()));
+        return publish(snapshot.properties().with(changes), changes.keySet());
+    }
+
+    private void fireReloadEvent(final ReloadEvent reloadEvent) {
+        if (reloadEvent == null)
+            return;
+        for (final ReloadListener listener : reloadListeners)
+            if (dispatcher == null)
+                listener.reloadPerformed(reloadEvent);
+            else
+                dispatcher.dispatch(listener, new Runnable() {
+                    public void run() {
+                        listener.reloadPerformed(reloadEvent);
+                    }
+                });
     }
 
-    private ReloadEvent fireBeforeReloadEvent(List<PropertyChangeEvent> events, Properties oldProperties,
-                                              Properties newProperties) throws RollbackBatchException {
-        ReloadEvent reloadEvent = new ReloadEvent(proxy, events, oldProperties, newProperties);
+    private ReloadEvent fireBeforeReloadEvent(List<PropertyChangeEvent> events, LayeredProperties oldProperties,
+                                              LayeredProperties newProperties) throws RollbackBatchException {
+        // the event has a copy of all the properties, not worth making if nobody listens
+        if (reloadListeners.isEmpty())
+            return null;
+        ReloadEvent reloadEvent = new ReloadEvent(proxy, events, oldProperties.toProperties(),
+                newProperties.toProperties());
         for (ReloadListener listener : reloadListeners)
             if (listener instanceof TransactionalReloadListener)
                 ((TransactionalReloadListener) listener).beforeReload(reloadEvent);
         return reloadEvent;
     }
 
+    @Delegate
+    public void close() {
+        stopHotReload();
+    }
 
     @Delegate
     public void addReloadListener(ReloadListener listener) {
@@ -335,23 +446,9 @@ class PropertiesManager implements Reloadable, Accessible, Mutable {
         }
     }
 
-    private Properties doLoad() {
-        return loadType.load(uris, loaders);
-    }
-
-    private static void merge(Properties results, Map<?, ?>... inputs) {
-        for (Map<?, ?> input : inputs)
-            results.putAll(input);
-    }
-
     @Delegate
     public String getProperty(String key) {
-        readLock.lock();
-        try {
-            return properties.getProperty(key);
-        } finally {
-            readLock.unlock();
-        }
+        return snapshot.getProperty(key);
     }
 
     void syncReloadCheck() {
@@ -361,92 +458,68 @@ class PropertiesManager implements Reloadable, Accessible, Mutable {
 
     @Delegate
     public String getProperty(String key, String defaultValue) {
-        readLock.lock();
-        try {
-            return properties.getProperty(key, defaultValue);
-        } finally {
-            readLock.unlock();
-        }
+        return snapshot.getProperty(key, defaultValue);
     }
 
+    // bulk operations are not on the hot path: they copy the properties of the last published snapshot into a
+    // Properties object, so that the output is the same as the one of the JDK.
+
     @Delegate
     public void storeToXML(OutputStream os, String comment) throws IOException {
-        readLock.lock();
-        try {
-            properties.storeToXML(os, comment);
-        } finally {
-            readLock.unlock();
-        }
+        snapshot.properties().toProperties().storeToXML(os, comment);
     }
 
     @Delegate
     public Set<String> propertyNames() {
-        readLock.lock();
-        try {
-            LinkedHashSet<String> result = new LinkedHashSet<String>();
-            for (Enumeration<?> propertyNames = properties.propertyNames(); propertyNames.hasMoreElements(); )
-                result.add((String) propertyNames.nextElement());
-            return result;
-        } finally {
-            readLock.unlock();
-        }
+        return propertyNames(snapshot.properties().toProperties());
+    }
+
+    private static Set<String> propertyNames(Properties properties) {
+        LinkedHashSet<String> result = new LinkedHashSet<String>();
+        for (Enumeration<?> propertyNames = properties.propertyNames(); propertyNames.hasMoreElements(); )
+            result.add((String) propertyNames.nextElement());
+        return result;
     }
 
     @Delegate
     public void list(PrintStream out) {
-        readLock.lock();
-        try {
-            properties.list(out);
-        } finally {
-            readLock.unlock();
-        }
+        snapshot.properties().toProperties().list(out);
     }
 
     @Delegate
     public void list(PrintWriter out) {
-        readLock.lock();
-        try {
-            properties.list(out);
-        } finally {
-            readLock.unlock();
-        }
+        snapshot.properties().toProperties().list(out);
     }
 
     @Delegate
     public void store(OutputStream out, String comments) throws IOException {
-        readLock.lock();
-        try {
-            properties.store(out, comments);
-        } finally {
-            readLock.unlock();
-        }
+        snapshot.properties().toProperties().store(out, comments);
     }
 
     @Delegate
     @SuppressWarnings("unchecked")
     public void fill(Map map) {
-        readLock.lock();
-        try {
-            for (String propertyName : propertyNames())
-                map.put(propertyName, getProperty(propertyName));
-        } finally {
-            readLock.unlock();
-        }
+        Properties properties = snapshot.properties().toProperties();
+        for (String propertyName : propertyNames(properties))
+            map.put(propertyName, properties.getProperty(propertyName));
     }
 
     @Delegate
     public String setProperty(String key, String newValue) {
         writeLock.lock();
         try {
-            String oldValue = properties.getProperty(key);
+            LayeredProperties properties = snapshot.properties();
+            String oldValue = properties.get(key);
             try {
                 if (eq(oldValue, newValue)) return oldValue;
 
                 PropertyChangeEvent event = new PropertyChangeEvent(proxy, key, oldValue, newValue);
                 fireBeforePropertyChange(event);
-                String result = performSetProperty(key, newValue);
+                modifiedKeys.add(key);
+                List<PropertyChangeEvent> derivedEvents = publish(properties.with(key, newValue), singletonList(key));
                 firePropertyChange(event);
-                return result;
+                firePropertyChangeEvents(derivedEvents);
+                return oldValue;
             } catch (RollbackException e) {
                 return oldValue;
             }
@@ -455,41 +528,39 @@ class PropertiesManager implements Reloadable, Accessible, Mutable {
         }
     }
 
-    private String performSetProperty(String key, Object value) {
-        return (value == null) ?
-                performRemoveProperty(key) :
-                asString(properties.setProperty(key, asString(value)));
-    }
-
     @Delegate
     public String removeProperty(String key) {
         writeLock.lock();
         try {
-            String oldValue = properties.getProperty(key);
-            PropertyChangeEvent event = new PropertyChangeEvent(proxy, key, oldValue, null);
-            fireBeforePropertyChange(event);
-            String result = performRemoveProperty(key);
-            firePropertyChange(event);
-            return result;
-        } catch (RollbackException e) {
-            return properties.getProperty(key);
+            LayeredProperties properties = snapshot.properties();
+            String oldValue = properties.get(key);
+            try {
+                PropertyChangeEvent event = new PropertyChangeEvent(proxy, key, oldValue, null);
+                fireBeforePropertyChange(event);
+                modifiedKeys.add(key);
+                List<PropertyChangeEvent> derivedEvents = publish(properties.with(key, null), singletonList(key));
+                firePropertyChange(event);
+                firePropertyChangeEvents(derivedEvents);
+                return oldValue;
+            } catch (RollbackException e) {
+                return oldValue;
+            }
         } finally {
             writeLock.unlock();
         }
     }
 
-    private String performRemoveProperty(String key) {
-        return asString(properties.remove(key));
-    }
-
     @Delegate
     public void clear() {
         writeLock.lock();
         try {
+            LayeredProperties properties = snapshot.properties();
             List<PropertyChangeEvent> events =
                     fireBeforePropertyChangeEvents(keys(properties), properties, new Properties());
-            applyPropertyChangeEvents(events);
+            List<PropertyChangeEvent> derivedEvents = applyPropertyChangeEvents(events);
+            allKeysModified = true;
             firePropertyChangeEvents(events);
+            firePropertyChangeEvents(derivedEvents);
         } catch (RollbackBatchException e) {
             ignore();
         } finally {
@@ -512,9 +583,12 @@ class PropertiesManager implements Reloadable, Accessible, Mutable {
     }
 
     private void performLoad(Set keys, Properties props) throws RollbackBatchException {
-        List<PropertyChangeEvent> events = fireBeforePropertyChangeEvents(keys, properties, props);
-        applyPropertyChangeEvents(events);
+        List<PropertyChangeEvent> events = fireBeforePropertyChangeEvents(keys, snapshot.properties(), props);
+        List<PropertyChangeEvent> derivedEvents = applyPropertyChangeEvents(events);
+        for (PropertyChangeEvent event : events)
+            modifiedKeys.add(event.getPropertyName());
         firePropertyChangeEvents(events);
+        firePropertyChangeEvents(derivedEvents);
     }
 
     @Delegate
@@ -538,12 +612,7 @@ class PropertiesManager implements Reloadable, Accessible, Mutable {
     @Delegate
     @Override
     public String toString() {
-        readLock.lock();
-        try {
-            return properties.toString();
-        } finally {
-            readLock.unlock();
-        }
+        return snapshot.properties().toProperties().toString();
     }
 
     boolean isLoading() {
@@ -551,12 +620,13 @@ class PropertiesManager implements Reloadable, Accessible, Mutable {
     }
 
     private List<PropertyChangeEvent> fireBeforePropertyChangeEvents(
-            Set keys, Properties oldValues, Properties newValues) throws RollbackBatchException {
+            Set keys, LayeredProperties oldValues, Map<?, ?> newValues) throws RollbackBatchException {
         List<PropertyChangeEvent> events = new ArrayList<PropertyChangeEvent>();
         for (Object keyObject : keys) {
             String key = (String) keyObject;
-            String oldValue = oldValues.getProperty(key);
-            String newValue = newValues.getProperty(key);
+            String oldValue = oldValues.get(key);
+            Object value = newValues.get(key);
+            String newValue = (value instanceof String) ? (String) value : null;
             if (!eq(oldValue, newValue)) {
                 PropertyChangeEvent event =
                         new PropertyChangeEvent(proxy, key, oldValue, newValue);
@@ -583,37 +653,29 @@ class PropertiesManager implements Reloadable, Accessible, Mutable {
                 ((TransactionalPropertyChangeListener) listener).beforePropertyChange(event);
     }
 
-    private void firePropertyChange(PropertyChangeEvent event) {
-        for (PropertyChangeListener listener : propertyChangeListeners)
-            listener.propertyChange(event);
+    private void firePropertyChange(final PropertyChangeEvent event) {
+        for (final PropertyChangeListener listener : propertyChangeListeners)
+            if (dispatcher == null)
+                listener.propertyChange(event);
+            else
+                dispatcher.dispatch(listener, new Runnable() {
+                    public void run() {
+                        listener.propertyChange(event);
+                    }
+                });
     }
 
     @Delegate
     @Override
     public boolean equals(Object obj) {
-        if (!(obj instanceof Proxy)) return false;
-        InvocationHandler handler = Proxy.getInvocationHandler(obj);
-        if (!(handler instanceof PropertiesInvocationHandler))
-            return false;
-        PropertiesInvocationHandler propsInvocationHandler = (PropertiesInvocationHandler) handler;
-        PropertiesManager that = propsInvocationHandler.propertiesManager;
-        return this.equals(that);
+        PropertiesManager that = of(obj);
+        return that != null && this.equals(that);
     }
 
     private boolean equals(PropertiesManager that) {
         if (!this.isAssignationCompatibleWith(that))
             return false;
-        this.readLock.lock();
-        try {
-            that.readLock.lock();
-            try {
-                return this.properties.equals(that.properties);
-            } finally {
-                that.readLock.unlock();
-            }
-        } finally {
-            this.readLock.unlock();
-        }
+        return this.snapshot.equals(that.snapshot);
     }
 
     private boolean isAssignationCompatibleWith(PropertiesManager that) {
@@ -623,12 +685,18 @@ class PropertiesManager implements Reloadable, Accessible, Mutable {
     @Delegate
     @Override
     public int hashCode() {
-        readLock.lock();
-        try {
-            return properties.hashCode();
-        } finally {
-            readLock.unlock();
-        }
+        return snapshot.hashCode();
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        metadata = ConfigClassMetadata.of(clazz);
+        dispatcher = dispatcher(metadata);
+    }
+
+    private static ListenerDispatcher dispatcher(ConfigClassMetadata metadata) {
+        Executor executor = metadata.listenerExecutor();
+        return (executor != null) ? new ListenerDispatcher(executor) : null;
     }
 
 }
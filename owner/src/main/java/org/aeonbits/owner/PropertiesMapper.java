@@ -13,7 +13,8 @@ import org.aeonbits.owner.Config.EncryptedValue;
 import org.aeonbits.owner.Config.Key;
 
 import java.lang.reflect.Method;
-import java.util.Properties;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Maps methods to properties keys and defaultValues. Maps a class to default property values.
@@ -39,14 +40,16 @@ final class PropertiesMapper {
         return defaultValue != null ? defaultValue.value() : null;
     }
 
-    static void defaults(Properties properties, Class<? extends Config> clazz) {
+    static Map<String, String> defaults(Class<? extends Config> clazz) {
+        Map<String, String> result = new HashMap<String, String>();
         Method[] methods = clazz.getMethods();
         for (Method method : methods) {
             String key = key(method);
             String value = defaultValue(method);
             if (value != null)
-                properties.put(key, value);
+                result.put(key, value);
         }
+        return result;
     }
 
 }
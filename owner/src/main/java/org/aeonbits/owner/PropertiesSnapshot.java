@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner;
+
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable version of the properties managed by a {@link PropertiesManager}.
+ * <p>
+ * Every change to the properties publishes a new snapshot, so that readers of single values never need to lock: they
+ * just read the current snapshot, which is never modified afterwards.
+ * </p>
+ * <p>
+ * A snapshot derived from a previous one keeps the expanded values not affected by the change, and updates the graph of
+ * the dependencies between the properties, telling which properties reference a given one through <code>${...}</code>.
+ * </p>
+ *
+ * @author Luigi R. Viggiano
+ */
+final class PropertiesSnapshot implements Serializable {
+
+    private static final long serialVersionUID = 2956375618478253962L;
+
+    static final PropertiesSnapshot EMPTY = new PropertiesSnapshot(LayeredProperties.EMPTY);
+
+    private final LayeredProperties values;
+    private final StrSubstitutor substitutor;
+
+    // for every key, the keys whose values reference it directly; built when first needed
+    private transient volatile Map<String, Set<String>> dependents;
+
+    PropertiesSnapshot(LayeredProperties values) {
+        this.values = values;
+        this.substitutor = new StrSubstitutor(values, true);
+    }
+
+    /**
+     * Creates the snapshot following the given one, after a change of the given keys.
+     */
+    PropertiesSnapshot(PropertiesSnapshot previous, LayeredProperties values, Collection<String> changedKeys) {
+        this.values = values;
+        this.substitutor = new StrSubstitutor(values, previous.substitutor, changedKeys);
+
+        Map<String, Set<String>> previousDependents = previous.dependents;
+        if (previousDependents != null)
+            this.dependents = updateDependents(previousDependents, previous, changedKeys);
+    }
+
+    /**
+     * Returns the properties of this snapshot.
+     */
+    LayeredProperties properties() {
+        return values;
+    }
+
+    String getProperty(String key) {
+        return values.get(key);
+    }
+
+    String getProperty(String key, String defaultValue) {
+        String value = values.get(key);
+        return (value == null) ? defaultValue : value;
+    }
+
+    /**
+     * Returns a {@link StrSubstitutor} resolving the variables against this snapshot.
+     */
+    StrSubstitutor substitutor() {
+        return substitutor;
+    }
+
+    /**
+     * Returns the value of the given key with the variables expanded, or <code>null</code> if the key is not defined or
+     * its variables can't be expanded.
+     */
+    String getExpandedProperty(String key) {
+        try {
+            return substitutor.replace(values.get(key));
+        } catch (UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the keys whose values reference, directly or indirectly, any of the given keys.
+     */
+    Set<String> dependentsOf(Collection<String> keys) {
+        Map<String, Set<String>> graph = dependents();
+        Set<String> result = new LinkedHashSet<String>();
+        Deque<String> pending = new ArrayDeque<String>(keys);
+        while (!pending.isEmpty()) {
+            Set<String> direct = graph.get(pending.pop());
+            if (direct != null)
+                for (String dependent : direct)
+                    if (result.add(dependent))
+                        pending.push(dependent);
+        }
+        return result;
+    }
+
+    private Map<String, Set<String>> dependents() {
+        Map<String, Set<String>> result = dependents;
+        if (result == null) {
+            result = new HashMap<String, Set<String>>();
+            for (Map.Entry<String, String> entry : values.entrySet())
+                for (String variable : substitutor.template(entry.getValue()).variables()) {
+                    Set<String> keys = result.get(variable);
+                    if (keys == null)
+                        result.put(variable, keys = new HashSet<String>());
+                    keys.add(entry.getKey());
+                }
+            dependents = result;
+        }
+        return result;
+    }
+
+    private Map<String, Set<String>> updateDependents(Map<String, Set<String>> previousDependents,
+                                                      PropertiesSnapshot previous, Collection<String> changedKeys) {
+        Map<String, Set<String>> result = new HashMap<String, Set<String>>(previousDependents);
+        for (String key : changedKeys) {
+            unlink(result, key, previous.values.get(key));
+            link(result, key, values.get(key));
+        }
+        return result;
+    }
+
+    // once built, the sets in the graph are shared between snapshots, so they are copied before being modified
+
+    private void link(Map<String, Set<String>> graph, String key, String value) {
+        if (value == null)
+            return;
+        for (String variable : substitutor.template(value).variables()) {
+            Set<String> keys = graph.get(variable);
+            Set<String> copy = (keys == null) ? new HashSet<String>() : new HashSet<String>(keys);
+            copy.add(key);
+            graph.put(variable, copy);
+        }
+    }
+
+    private void unlink(Map<String, Set<String>> graph, String key, String value) {
+        if (value == null)
+            return;
+        for (String variable : substitutor.template(value).variables()) {
+            Set<String> keys = graph.get(variable);
+            if (keys == null || !keys.contains(key))
+                continue;
+            Set<String> copy = new HashSet<String>(keys);
+            copy.remove(key);
+            if (copy.isEmpty())
+                graph.remove(variable);
+            else
+                graph.put(variable, copy);
+        }
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof PropertiesSnapshot)) return false;
+        return values.equals(((PropertiesSnapshot) obj).values);
+    }
+
+    @Override
+    public int hashCode() {
+        return values.hashCode();
+    }
+
+}
@@ -0,0 +1,279 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner;
+
+import org.aeonbits.owner.HotReloadLogic.WatchableResource;
+
+import java.io.File;
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Checks the resources of the {@link Config.HotReloadType#ASYNC asynchronous} hot reloads of the config objects created
+ * by a factory, and the sources other than files of the {@link Config.HotReloadType#WATCH watched} ones.
+ * <p>
+ * The config objects having the same interval share a single periodic check, in which each resource is checked once,
+ * however many config objects have been loaded from it; the config objects loaded from the resources changed are then
+ * reloaded. Both the checks and the reloads run on a pool of worker threads, so that a slow source or a slow reload
+ * doesn't delay the other checks on the scheduler.
+ * </p>
+ * <p>
+ * The config objects are only weakly referenced, and are forgotten once they have been garbage collected; the periodic
+ * check of an interval is cancelled when there are no more config objects using it.
+ * </p>
+ *
+ * @author Luigi R. Viggiano
+ */
+final class ReloadCoordinator {
+
+    private static final int MAX_WORKERS = 4;
+    private static final ThreadPoolExecutor workers = newWorkers();
+
+    private final ScheduledExecutorService scheduler;
+    private final LoadersManager loaders;
+    // the checks of each interval, in milliseconds. Guarded by this, as the groups.
+    private final Map<Long, Group> groups = new HashMap<Long, Group>();
+
+    ReloadCoordinator(ScheduledExecutorService scheduler, LoadersManager loaders) {
+        this.scheduler = scheduler;
+        this.loaders = loaders;
+    }
+
+    private static ThreadPoolExecutor newWorkers() {
+        int threads = Math.min(MAX_WORKERS, Math.max(2, Runtime.getRuntime().availableProcessors()));
+        ThreadPoolExecutor result = new ThreadPoolExecutor(threads, threads, 30, SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                    public Thread newThread(Runnable r) {
+                        Thread result = new Thread(r, "owner-reload");
+                        result.setDaemon(true);
+                        return result;
+                    }
+                });
+        result.allowCoreThreadTimeOut(true);
+        return result;
+    }
+
+    /**
+     * Starts checking the given files and sources every <code>interval</code> milliseconds, reloading the given hot
+     * reload logic when some of them has been changed.
+     *
+     * @return the registration, to be cancelled when the hot reload is stopped.
+     */
+    Registration register(HotReloadLogic logic, long interval, Collection<File> files, Collection<URI> sources) {
+        Long period = Math.max(interval, 1);
+        Set<Object> keys = new LinkedHashSet<Object>();
+        keys.addAll(files);
+        keys.addAll(sources);
+
+        // the state of the resources not checked yet is taken before they are loaded, so that no change is missed:
+        // outside of the lock, since a source may be slow to check. The resources removed from the group meanwhile
+        // are looked up again.
+        Map<Object, WatchableResource> watchables = new HashMap<Object, WatchableResource>();
+        while (true) {
+            Set<Object> unknown = new LinkedHashSet<Object>();
+            synchronized (this) {
+                Group group = groups.get(period);
+                for (Object key : keys)
+                    if ((group == null || !group.resources.containsKey(key)) && !watchables.containsKey(key))
+                        unknown.add(key);
+                if (unknown.isEmpty()) {
+                    if (group == null) {
+                        group = new Group(period);
+                        groups.put(period, group);
+                    }
+                    Registration registration = new Registration(logic, group, keys);
+                    group.add(registration, watchables);
+                    return registration;
+                }
+            }
+            for (Object key : unknown)
+                watchables.put(key, watchable(key));
+        }
+    }
+
+    /**
+     * Returns a task running the given one on the workers, unless it is already waiting to start: the caller, such as
+     * the {@link FileWatcher}, is not delayed by a slow reload.
+     */
+    static Runnable onWorkers(final Runnable task) {
+        final AtomicBoolean pending = new AtomicBoolean();
+        return new Runnable() {
+            public void run() {
+                if (pending.compareAndSet(false, true))
+                    workers.execute(new Runnable() {
+                        public void run() {
+                            pending.set(false);
+                            task.run();
+                        }
+                    });
+            }
+        };
+    }
+
+    private WatchableResource watchable(Object key) {
+        if (key instanceof File)
+            return new HotReloadLogic.WatchableFile((File) key);
+        return new HotReloadLogic.WatchableSource((URI) key, loaders);
+    }
+
+    /**
+     * The config objects checked with the same interval.
+     */
+    private final class Group implements Runnable {
+        private final long interval;
+        private final Map<Object, Watched> resources = new HashMap<Object, Watched>();
+        private final Set<Registration> registrations = new LinkedHashSet<Registration>();
+        private final AtomicBoolean checking = new AtomicBoolean();
+        private final Future<?> task;
+
+        Group(long interval) {
+            this.interval = interval;
+            this.task = scheduler.scheduleAtFixedRate(this, interval, interval, MILLISECONDS);
+        }
+
+        /**
+         * Adds the given registration: the given watchables must include its resources not in the group yet.
+         */
+        void add(Registration registration, Map<Object, WatchableResource> watchables) {
+            registrations.add(registration);
+            for (Object key : registration.resources) {
+                Watched watched = resources.get(key);
+                if (watched == null)
+                    resources.put(key, watched = new Watched(watchables.get(key)));
+                watched.registrations.add(registration);
+            }
+        }
+
+        void remove(Registration registration) {
+            if (!registrations.remove(registration))
+                return;
+            for (Object key : registration.resources) {
+                Watched watched = resources.get(key);
+                if (watched != null && watched.registrations.remove(registration) && watched.registrations.isEmpty())
+                    resources.remove(key);
+            }
+            if (registrations.isEmpty()) {
+                task.cancel(false);
+                groups.remove(interval);
+            }
+        }
+
+        /**
+         * Runs on the scheduler: hands the check over to the workers, unless the previous one is still running.
+         */
+        public void run() {
+            if (checking.compareAndSet(false, true))
+                workers.execute(new Runnable() {
+                    public void run() {
+                        try {
+                            check();
+                        } finally {
+                            checking.set(false);
+                        }
+                    }
+                });
+        }
+
+        private void check() {
+            List<Watched> watchedResources;
+            List<Registration> collected = new ArrayList<Registration>();
+            synchronized (ReloadCoordinator.this) {
+                watchedResources = new ArrayList<Watched>(resources.values());
+                for (Registration registration : registrations)
+                    if (registration.logic.get() == null)
+                        collected.add(registration);
+            }
+            for (Registration registration : collected)
+                registration.cancel();
+
+            // only this thread checks the resources of the group, so they don't need to be locked.
+            Set<Registration> changed = new LinkedHashSet<Registration>();
+            for (Watched watched : watchedResources)
+                if (watched.resource.isChanged())
+                    synchronized (ReloadCoordinator.this) {
+                        changed.addAll(watched.registrations);
+                    }
+            for (Registration registration : changed)
+                registration.reloadLater();
+        }
+    }
+
+    /**
+     * A resource checked for the config objects of a group.
+     */
+    private static final class Watched {
+        final WatchableResource resource;
+        final Set<Registration> registrations = new LinkedHashSet<Registration>();
+
+        Watched(WatchableResource resource) {
+            this.resource = resource;
+        }
+    }
+
+    /**
+     * The hot reload of a config object, checked in a group.
+     */
+    final class Registration implements Runnable {
+        private final Reference<HotReloadLogic> logic;
+        private final Group group;
+        private final Collection<Object> resources;
+        private final AtomicBoolean pending = new AtomicBoolean();
+
+        Registration(HotReloadLogic logic, Group group, Collection<Object> resources) {
+            this.logic = new WeakReference<HotReloadLogic>(logic);
+            this.group = group;
+            this.resources = new ArrayList<Object>(resources);
+        }
+
+        /**
+         * Reloads on the workers, unless a reload is already waiting to start: a change notified while reloading
+         * is reloaded once more afterwards.
+         */
+        void reloadLater() {
+            if (pending.compareAndSet(false, true))
+                workers.execute(this);
+        }
+
+        public void run() {
+            pending.set(false);
+            HotReloadLogic reloadLogic = logic.get();
+            if (reloadLogic == null)
+                cancel();
+            else
+                reloadLogic.reload();
+        }
+
+        /**
+         * Stops checking the resources of this config object.
+         */
+        void cancel() {
+            synchronized (ReloadCoordinator.this) {
+                group.remove(this);
+            }
+        }
+    }
+
+}
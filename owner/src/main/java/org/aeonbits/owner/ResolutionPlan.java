@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner;
+
+import org.aeonbits.owner.Config.CachedValue;
+import org.aeonbits.owner.crypto.Decryptor;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.List;
+
+import static org.aeonbits.owner.Config.DisableableFeature.PARAMETER_FORMATTING;
+import static org.aeonbits.owner.Config.DisableableFeature.VARIABLE_EXPANSION;
+import static org.aeonbits.owner.Converters.SpecialValue.NULL;
+import static org.aeonbits.owner.Converters.resolveConverters;
+import static org.aeonbits.owner.PreprocessorResolver.resolvePreprocessors;
+import static org.aeonbits.owner.TokenizerResolver.resolveTokenizer;
+import static org.aeonbits.owner.util.Util.isFeatureDisabled;
+
+/**
+ * Everything needed to resolve the value of a {@link Config} method, computed once from the method annotations.
+ * <p>
+ * Reflection is slow, so the {@link PropertiesInvocationHandler} builds a plan the first time a method is invoked and
+ * reuses it for the following invocations. Instances are immutable and can be shared among threads.
+ * </p>
+ *
+ * @author Luigi R. Viggiano
+ */
+final class ResolutionPlan {
+
+    private final Method method;
+    private final Class<?> returnType;
+    private final String key;
+    private final boolean variableExpansionEnabled;
+    private final boolean parameterFormattingEnabled;
+    private final boolean cached;
+    private final Preprocessor[] preprocessors;
+    private final Decryptor decryptor;
+    private final Tokenizer tokenizer;
+    private final Converters[] converters;
+
+    ResolutionPlan(Method method, Decryptor decryptor) {
+        this.method = method;
+        this.returnType = method.getReturnType();
+        this.key = PropertiesMapper.key(method);
+        this.variableExpansionEnabled = !isFeatureDisabled(method, VARIABLE_EXPANSION);
+        this.parameterFormattingEnabled = !isFeatureDisabled(method, PARAMETER_FORMATTING);
+        this.cached = isCached(method);
+        List<Preprocessor> preprocessorList = resolvePreprocessors(method);
+        this.preprocessors = preprocessorList.toArray(new Preprocessor[preprocessorList.size()]);
+        this.decryptor = decryptor;
+        this.tokenizer = tokenizer(method, returnType);
+        this.converters = resolveConverters(method, returnType);
+    }
+
+    private static boolean isCached(Method method) {
+        if (method.getParameterTypes().length > 0)
+            return false;
+        return method.getAnnotation(CachedValue.class) != null ||
+                method.getDeclaringClass().getAnnotation(CachedValue.class) != null;
+    }
+
+    private static Tokenizer tokenizer(Method method, Class<?> returnType) {
+        if (!returnType.isArray() && !Collection.class.isAssignableFrom(returnType))
+            return null;
+        try {
+            return resolveTokenizer(method);
+        } catch (UnsupportedOperationException e) {
+            // conflicting annotations: leave the converter resolve it again, so that the error is reported at the same
+            // time it was before, i.e. when a value is actually converted.
+            return null;
+        }
+    }
+
+    String key() {
+        return key;
+    }
+
+    boolean isVariableExpansionEnabled() {
+        return variableExpansionEnabled;
+    }
+
+    boolean isCached() {
+        return cached;
+    }
+
+    String preProcess(String value) {
+        String result = value;
+        for (Preprocessor preprocessor : preprocessors)
+            result = preprocessor.process(result);
+        return result;
+    }
+
+    String decrypt(String value) {
+        if (decryptor == null)
+            return value;
+        return decryptor.decrypt(value);
+    }
+
+    String format(String format, Object... args) {
+        if (!parameterFormattingEnabled)
+            return format;
+
+        // If there are no arguments to format, we can just return.
+        // This is also helpful when the {@code format} is a property value that contains a '%' character,
+        // such as '@#$%^&*()" (e.g., a clear-text password). In such cases, the '%' character is not
+        // a placeholder in a format string -- its just a random character in the property value.
+        if (args == null || args.length == 0)
+            return format;
+
+        try {
+            // Do this to achieve property expansion
+            return String.format(format, args);
+        } catch (Exception e) {
+            // There's no guarantee that a property value from a config file
+            // is a legal format string. When formatting doesn't work, let's
+            // just return the original property value.
+            return format;
+        }
+    }
+
+    Object convert(String text) {
+        Object result = Converters.convert(converters, method, returnType, text, tokenizer);
+        if (result == NULL) return null;
+        return result;
+    }
+
+}
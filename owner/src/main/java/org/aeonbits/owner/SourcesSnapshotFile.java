@@ -0,0 +1,264 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URLConnection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import static org.aeonbits.owner.util.Util.ignore;
+
+/**
+ * A binary file keeping the properties loaded from the sources of a config class, along with the stamps and the CRC32
+ * checksums of the sources, so that the sources that haven't been changed don't need to be parsed again when the
+ * application is restarted.
+ * <p>
+ * The snapshots are enabled setting the system property {@value #SNAPSHOT_DIR} to the directory where they are kept.
+ * Each config class has its own file, which is written when the config object is created, if the stamps of the sources
+ * are different from the ones it contains. A missing, unreadable or corrupted file, detected through its checksum, is
+ * ignored. The properties of a source are used only if the checksum of its content still matches: a deployment can
+ * replace a file keeping its last modified time and its size.
+ * </p>
+ * <p>
+ * Only the files and the resources of the classpath (files or jar entries) are kept, so that the environment, the
+ * system properties and the remote sources, which may hold credentials and don't cost much to parse, are never written
+ * to the disk. The file is readable by its owner only.
+ * </p>
+ *
+ * @author Luigi R. Viggiano
+ */
+class SourcesSnapshotFile {
+
+    static final String SNAPSHOT_DIR = "owner.snapshot.dir";
+
+    private static final int MAGIC = 0x4f574e52;
+    private static final int VERSION = 2;
+    private static final List<String> SCHEMES = Arrays.asList("file", "jar");
+
+    private final File file;
+    private final Map<URI, String> restoredStamps = new HashMap<URI, String>();
+
+    private SourcesSnapshotFile(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Returns the snapshot file of the given config class, or <code>null</code> if the snapshots are not enabled.
+     */
+    static SourcesSnapshotFile of(Class<? extends Config> clazz) {
+        String dir = System.getProperty(SNAPSHOT_DIR);
+        if (dir == null || dir.isEmpty())
+            return null;
+        return new SourcesSnapshotFile(new File(dir, clazz.getName() + ".snapshot"));
+    }
+
+    private static boolean isKept(URI uri) {
+        return uri.getScheme() != null && SCHEMES.contains(uri.getScheme().toLowerCase());
+    }
+
+    /**
+     * Gives to the loaders the properties kept in the file: they are used if the stamps of the sources still match.
+     */
+    synchronized void restore(LoadersManager loaders) {
+        if (!file.isFile())
+            return;
+        try {
+            List<Source> sources = read();
+            if (sources == null)
+                return;
+            for (Source source : sources)
+                if (isKept(source.uri) && isUnchanged(source)
+                        && loaders.restore(source.uri, source.loader, source.stamp, source.properties))
+                    restoredStamps.put(source.uri, source.stamp);
+        } catch (IOException e) {
+            ignore();
+        } catch (URISyntaxException e) {
+            ignore();
+        }
+    }
+
+    private static boolean isUnchanged(Source source) {
+        try {
+            return checksum(source.uri) == source.checksum;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns the CRC32 checksum of the content of the given source: reading it costs much less than parsing it.
+     */
+    private static long checksum(URI uri) throws IOException {
+        URLConnection connection = uri.toURL().openConnection();
+        connection.setUseCaches(false);
+        CheckedInputStream in = new CheckedInputStream(connection.getInputStream(), new CRC32());
+        try {
+            byte[] buffer = new byte[8192];
+            while (in.read(buffer) >= 0)
+                continue;
+            return in.getChecksum().getValue();
+        } finally {
+            in.close();
+        }
+    }
+
+    private static class Source {
+        final URI uri;
+        final String loader;
+        final String stamp;
+        final long checksum;
+        final Properties properties;
+
+        Source(URI uri, String loader, String stamp, long checksum, Properties properties) {
+            this.uri = uri;
+            this.loader = loader;
+            this.stamp = stamp;
+            this.checksum = checksum;
+            this.properties = properties;
+        }
+    }
+
+    /**
+     * Returns the sources kept in the file, or <code>null</code> if the file has been written by a different version.
+     */
+    private List<Source> read() throws IOException, URISyntaxException {
+        CheckedInputStream checked = new CheckedInputStream(new BufferedInputStream(new FileInputStream(file)),
+                new CRC32());
+        DataInputStream in = new DataInputStream(checked);
+        try {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION)
+                return null;
+            List<Source> result = new ArrayList<Source>();
+            for (int sources = in.readInt(); sources > 0; sources--) {
+                URI uri = new URI(readString(in));
+                String loader = readString(in);
+                String stamp = readString(in);
+                long checksum = in.readLong();
+                Properties properties = new Properties();
+                for (int entries = in.readInt(); entries > 0; entries--)
+                    properties.put(readString(in), readString(in));
+                result.add(new Source(uri, loader, stamp, checksum, properties));
+            }
+            long checksum = checked.getChecksum().getValue();
+            if (in.readLong() != checksum)
+                throw new IOException("Corrupted snapshot " + file);
+            return result;
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Writes the properties loaded from the given sources, if their stamps are different from the ones restored.
+     */
+    synchronized void store(LoadersManager loaders, Map<URI, Properties> sources) {
+        Map<URI, String> stamps = new HashMap<URI, String>();
+        for (Map.Entry<URI, Properties> source : sources.entrySet()) {
+            if (!isKept(source.getKey()))
+                continue;
+            String stamp = loaders.loadedStamp(source.getKey(), source.getValue());
+            if (stamp != null)
+                stamps.put(source.getKey(), stamp);
+        }
+        if (stamps.equals(restoredStamps))
+            return;
+        Map<URI, Long> checksums = new HashMap<URI, Long>();
+        for (URI uri : stamps.keySet())
+            try {
+                checksums.put(uri, checksum(uri));
+            } catch (IOException e) {
+                ignore();
+            }
+        try {
+            write(loaders, sources, stamps, checksums);
+            restoredStamps.clear();
+            restoredStamps.putAll(stamps);
+        } catch (IOException e) {
+            ignore();
+        }
+    }
+
+    private void write(LoadersManager loaders, Map<URI, Properties> sources, Map<URI, String> stamps,
+                       Map<URI, Long> checksums) throws IOException {
+        File dir = file.getAbsoluteFile().getParentFile();
+        dir.mkdirs();
+        File temp = File.createTempFile(file.getName(), ".temp", dir);
+        try {
+            ownerOnly(temp);
+            CheckedOutputStream checked = new CheckedOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(temp)), new CRC32());
+            DataOutputStream out = new DataOutputStream(checked);
+            try {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(checksums.size());
+                for (Map.Entry<URI, Long> checksum : checksums.entrySet()) {
+                    URI uri = checksum.getKey();
+                    writeString(out, uri.toString());
+                    writeString(out, loaders.findLoader(uri).getClass().getName());
+                    writeString(out, stamps.get(uri));
+                    out.writeLong(checksum.getValue());
+                    Properties properties = sources.get(uri);
+                    out.writeInt(properties.size());
+                    for (Map.Entry<Object, Object> entry : properties.entrySet()) {
+                        writeString(out, String.valueOf(entry.getKey()));
+                        writeString(out, String.valueOf(entry.getValue()));
+                    }
+                }
+                out.writeLong(checked.getChecksum().getValue());
+            } finally {
+                out.close();
+            }
+            if (!temp.renameTo(file) && !(file.delete() && temp.renameTo(file)))
+                throw new IOException("Can't write " + file);
+        } finally {
+            temp.delete();
+        }
+    }
+
+    private static void ownerOnly(File file) throws IOException {
+        boolean restricted = file.setReadable(false, false) && file.setReadable(true, true)
+                && file.setWritable(false, false) && file.setWritable(true, true);
+        if (!restricted)
+            throw new IOException("Can't restrict the access to " + file);
+    }
+
+    private String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > file.length())
+            throw new IOException("Corrupted snapshot " + file);
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, "UTF-8");
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes("UTF-8");
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+}
@@ -8,12 +8,21 @@
 
 package org.aeonbits.owner;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
-import java.util.Properties;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
-import static java.util.regex.Pattern.compile;
+import static org.aeonbits.owner.util.Util.unsupported;
 
 /**
  * <p>
@@ -42,13 +51,22 @@ import static java.util.regex.Pattern.compile;
  * <pre>
  *      The quick brown fox jumped over the lazy dog.
  * </pre>
+ * <p>
+ * Every source string is parsed into a {@link Template} of literal text and variable names. When the values are known
+ * not to change, the templates of the strings containing variables and the expanded values are cached by the instance,
+ * so they go away along with it.
+ * A variable referencing itself, directly or through other variables, is reported with an
+ * {@link UnsupportedOperationException}.
+ * </p>
  *
  * @author Luigi R. Viggiano
  */
 class StrSubstitutor implements Serializable {
 
-    private final Properties values;
-    private static final Pattern PATTERN = compile("\\$\\{(.+?)\\}");
+    private final Map<?, ?> values;
+    private final boolean immutable;
+    private transient ConcurrentMap<String, Template> templates;
+    private transient ConcurrentMap<String, Expansion> expansions;
 
     /**
      * Creates a new instance and initializes it. Uses defaults for variable prefix and suffix and the escaping
@@ -56,8 +74,121 @@ class StrSubstitutor implements Serializable {
      *
      * @param values the variables' values, may be null
      */
-    StrSubstitutor(Properties values) {
+    StrSubstitutor(Map<?, ?> values) {
+        this(values, false);
+    }
+
+    /**
+     * Creates a new instance and initializes it.
+     *
+     * @param values    the variables' values, may be null
+     * @param immutable <code>true</code> if the values never change, so that the expanded values can be cached
+     */
+    StrSubstitutor(Map<?, ?> values, boolean immutable) {
         this.values = values;
+        this.immutable = immutable;
+        initCaches();
+    }
+
+    /**
+     * Creates a new instance for immutable values that differ from the ones of the given instance only for the given
+     * keys: the expanded values not depending on those keys are taken from the given instance instead of being expanded
+     * again.
+     *
+     * @param values      the variables' values
+     * @param previous    the instance to take the expanded values from
+     * @param changedKeys the keys whose value differs from the ones of the given instance
+     */
+    StrSubstitutor(Map<?, ?> values, StrSubstitutor previous, Collection<String> changedKeys) {
+        this(values, true);
+        if (previous.expansions != null)
+            for (Map.Entry<String, Expansion> entry : previous.expansions.entrySet())
+                if (Collections.disjoint(entry.getValue().variables, changedKeys))
+                    expansions.put(entry.getKey(), entry.getValue());
+    }
+
+    /**
+     * A source string split in literal text and variables: the literal at index <code>i</code> is followed by the
+     * variable at index <code>i</code>, and the last literal closes the string.
+     */
+    static final class Template {
+        private final String[] literals;
+        private final String[] variables;
+        private final int literalsLength;
+
+        private Template(List<String> literals, List<String> variables) {
+            this.literals = literals.toArray(new String[literals.size()]);
+            this.variables = variables.toArray(new String[variables.size()]);
+            int length = 0;
+            for (String literal : literals)
+                length += literal.length();
+            this.literalsLength = length;
+        }
+
+        boolean hasVariables() {
+            return variables.length > 0;
+        }
+
+        List<String> variables() {
+            return Collections.unmodifiableList(Arrays.asList(variables));
+        }
+
+        static Template parse(String source) {
+            List<String> literals = new ArrayList<String>();
+            List<String> variables = new ArrayList<String>();
+            int literalStart = 0;
+            int from = 0;
+            int start;
+            while ((start = source.indexOf("${", from)) >= 0) {
+                int end = source.indexOf('}', start + 3);
+                if (end < 0)
+                    break;
+                if (containsLineTerminator(source, start + 2, end)) {
+                    from = start + 1;
+                    continue;
+                }
+                literals.add(source.substring(literalStart, start));
+                variables.add(source.substring(start + 2, end));
+                literalStart = from = end + 1;
+            }
+            literals.add(source.substring(literalStart));
+            return new Template(literals, variables);
+        }
+
+        // variables are matched as ${.+?}, where '.' doesn't match line terminators
+        private static boolean containsLineTerminator(String source, int from, int to) {
+            for (int i = from; i < to; i++) {
+                char c = source.charAt(i);
+                if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029')
+                    return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * The result of the expansion of a source string, with all the variables looked up to compute it.
+     */
+    private static final class Expansion {
+        private final String value;
+        private final Set<String> variables;
+
+        private Expansion(String value, Set<String> variables) {
+            this.value = value;
+            this.variables = variables;
+        }
+    }
+
+    Template template(String source) {
+        // the strings without variables are cheap to parse, and not worth keeping.
+        if (templates == null || !source.contains("${"))
+            return Template.parse(source);
+        Template template = templates.get(source);
+        if (template == null) {
+            template = Template.parse(source);
+            templates.putIfAbsent(source, template);
+        }
+        return template;
     }
 
     /**
@@ -68,18 +199,74 @@ class StrSubstitutor implements Serializable {
      * @return the result of the replace operation
      */
     String replace(String source) {
+        return replace(source, (Set<String>) null);
+    }
+
+    /**
+     * Same as {@link #replace(String)}, also collecting the names of all the variables looked up, recursively.
+     *
+     * @param source the string to replace in, null returns null
+     * @param variables where to add the names of the variables, or <code>null</code> if they are not needed
+     * @return the result of the replace operation
+     */
+    String replace(String source, Set<String> variables) {
         if (source == null)
             return null;
-        Matcher m = PATTERN.matcher(source);
-        StringBuffer sb = new StringBuffer();
-        while (m.find()) {
-            String var = m.group(1);
-            String value = values.getProperty(var);
-            String replacement = (value != null) ? replace(value) : "";
-            m.appendReplacement(sb, Matcher.quoteReplacement(replacement));
+        return expand(source, variables, Collections.<String>emptyList());
+    }
+
+    private String expand(String source, Set<String> variables, List<String> resolving) {
+        if (!immutable)
+            return expand(template(source), variables, resolving);
+
+        Expansion expansion = expansions.get(source);
+        if (expansion == null) {
+            Set<String> dependencies = new HashSet<String>();
+            expansion = new Expansion(expand(template(source), dependencies, resolving), dependencies);
+            expansions.putIfAbsent(source, expansion);
+        }
+        if (variables != null)
+            variables.addAll(expansion.variables);
+        return expansion.value;
+    }
+
+    private String expand(Template template, Set<String> variables, List<String> resolving) {
+        if (!template.hasVariables())
+            return template.literals[0];
+
+        String[] replacements = new String[template.variables.length];
+        int length = template.literalsLength;
+        for (int i = 0; i < replacements.length; i++) {
+            String var = template.variables[i];
+            if (variables != null)
+                variables.add(var);
+            String value = lookup(var);
+            replacements[i] = (value != null) ? expand(value, variables, resolving(resolving, var)) : "";
+            length += replacements[i].length();
         }
-        m.appendTail(sb);
-        return sb.toString();
+
+        StringBuilder result = new StringBuilder(length);
+        for (int i = 0; i < replacements.length; i++)
+            result.append(template.literals[i]).append(replacements[i]);
+        return result.append(template.literals[replacements.length]).toString();
+    }
+
+    private static List<String> resolving(List<String> resolving, String var) {
+        if (resolving.contains(var)) {
+            StringBuilder cycle = new StringBuilder();
+            for (String name : resolving.subList(resolving.indexOf(var), resolving.size()))
+                cycle.append("${").append(name).append("} -> ");
+            throw unsupported("Cyclic variable expansion: %s${%s}", cycle, var);
+        }
+        List<String> result = new ArrayList<String>(resolving.size() + 1);
+        result.addAll(resolving);
+        result.add(var);
+        return result;
+    }
+
+    private String lookup(String var) {
+        Object value = values.get(var);
+        return (value instanceof String) ? (String) value : null;
     }
 
     /**
@@ -93,9 +280,31 @@ class StrSubstitutor implements Serializable {
      * @return formatted string
      */
     String replace(String source, Object... args) {
+        return replace(source, null, args);
+    }
+
+    /**
+     * Same as {@link #replace(String, Object...)}, also collecting the names of all the variables looked up,
+     * recursively.
+     *
+     * @param source A source formatting format string. {@code null} returns {@code null}
+     * @param variables where to add the names of the variables, or <code>null</code> if they are not needed
+     * @param args Arguments referenced by the format specifiers in the source string.
+     * @return formatted string
+     */
+    String replace(String source, Set<String> variables, Object... args) {
         if (source == null)
             return null;
-        Matcher m = PATTERN.matcher(source);
-        return m.find() ? replace(source) : String.format(source, args);
+        return template(source).hasVariables() ? replace(source, variables) : String.format(source, args);
+    }
+
+    private void initCaches() {
+        templates = immutable ? new ConcurrentHashMap<String, Template>() : null;
+        expansions = immutable ? new ConcurrentHashMap<String, Expansion>() : null;
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        initCaches();
     }
 }
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches the converted values of the methods annotated with {@link Config.CachedValue}, keeping track of the
+ * properties every value has been computed from, so that it can be invalidated when one of them changes.
+ * <p>
+ * A value computed while some property is being changed is never cached: {@link #version()} has to be taken before
+ * reading the properties, and {@link #put} discards the value if any invalidation happened meanwhile.
+ * </p>
+ *
+ * @author Luigi R. Viggiano
+ */
+final class ValueCache implements Serializable {
+
+    private static final long serialVersionUID = -2383431215623454498L;
+
+    private transient ConcurrentMap<Method, Entry> entries = new ConcurrentHashMap<Method, Entry>();
+    private final AtomicLong version = new AtomicLong();
+
+    static final class Entry {
+        private final Object value;
+        private final Set<String> dependencies;
+
+        private Entry(Object value, Set<String> dependencies) {
+            this.value = value;
+            this.dependencies = dependencies;
+        }
+
+        Object value() {
+            return value;
+        }
+    }
+
+    Entry get(Method method) {
+        return entries.get(method);
+    }
+
+    long version() {
+        return version.get();
+    }
+
+    void put(Method method, Object value, Set<String> dependencies, long version) {
+        Entry entry = new Entry(value, dependencies);
+        entries.put(method, entry);
+        if (this.version.get() != version)
+            entries.remove(method, entry);
+    }
+
+    void invalidate(Collection<String> keys) {
+        version.incrementAndGet();
+        for (Iterator<Entry> iterator = entries.values().iterator(); iterator.hasNext(); )
+            if (dependsOnAny(iterator.next(), keys))
+                iterator.remove();
+    }
+
+    private static boolean dependsOnAny(Entry entry, Collection<String> keys) {
+        for (String key : keys)
+            if (entry.dependencies.contains(key))
+                return true;
+        return false;
+    }
+
+    void clear() {
+        version.incrementAndGet();
+        entries.clear();
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        entries = new ConcurrentHashMap<Method, Entry>();
+    }
+
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner.loaders;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.net.HttpURLConnection.HTTP_NOT_MODIFIED;
+
+/**
+ * Loads the HTTP resources with conditional <code>GET</code> requests.
+ * <p>
+ * The properties loaded from a resource are kept along with its <code>ETag</code> and <code>Last-Modified</code>
+ * headers, which are sent back with the next request for it: a resource not modified meanwhile costs a single request,
+ * and it is neither transferred nor parsed again.
+ * </p>
+ *
+ * @author Luigi R. Viggiano
+ */
+final class ConditionalGet {
+
+    interface Parser {
+        void parse(Properties result, InputStream input) throws IOException;
+    }
+
+    private final Map<URI, Response> responses = new ConcurrentHashMap<URI, Response>();
+
+    static boolean accept(URI uri) {
+        return "http".equalsIgnoreCase(uri.getScheme()) || "https".equalsIgnoreCase(uri.getScheme());
+    }
+
+    void load(Properties result, URI uri, Parser parser) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) uri.toURL().openConnection();
+        connection.setUseCaches(false);
+        Response previous = responses.get(uri);
+        if (previous != null) {
+            if (previous.etag != null)
+                connection.setRequestProperty("If-None-Match", previous.etag);
+            if (previous.lastModified != null)
+                connection.setRequestProperty("If-Modified-Since", previous.lastModified);
+        }
+        try {
+            if (previous != null && connection.getResponseCode() == HTTP_NOT_MODIFIED) {
+                result.putAll(previous.properties);
+                return;
+            }
+            Properties loaded = new Properties();
+            InputStream input = connection.getInputStream();
+            try {
+                parser.parse(loaded, input);
+            } finally {
+                input.close();
+            }
+            Response response = new Response(connection, loaded);
+            if (response.etag == null && response.lastModified == null)
+                responses.remove(uri);
+            else
+                responses.put(uri, response);
+            result.putAll(loaded);
+        } catch (IOException e) {
+            responses.remove(uri);
+            throw e;
+        }
+    }
+
+    private static final class Response {
+        final String etag;
+        final String lastModified;
+        // never modified, since it is copied into the properties returned.
+        final Properties properties;
+
+        Response(HttpURLConnection connection, Properties properties) {
+            this.etag = connection.getHeaderField("ETag");
+            this.lastModified = connection.getHeaderField("Last-Modified");
+            this.properties = properties;
+        }
+    }
+
+}
@@ -8,24 +8,40 @@
 
 package org.aeonbits.owner.loaders;
 
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.net.MalformedURLException;
 import java.net.URI;
-import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.util.Properties;
 
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static org.aeonbits.owner.util.Util.fileFromURI;
+
 /**
  * A {@link Loader loader} able to read properties from standard Java properties files.
+ * <p>
+ * The files are parsed as UTF-8 while they are read, without going through a {@link java.io.Reader}; the files on the
+ * local file system larger than {@value #MAPPED_FILE_SIZE} bytes are memory mapped, except on Windows, where a mapped
+ * file can't be modified nor deleted until the mapping is garbage collected.
+ * </p>
  *
  * @since 1.0.5
  * @author Luigi R. Viggiano
  */
-public class PropertiesLoader implements Loader {
+public class PropertiesLoader implements Loader, Watchable {
 
     private static final long serialVersionUID = -1781643040589572341L;
-    private static final String DEFAULT_ENCODING = "UTF-8";
+    // smaller files are just read: a mapping costs more to set up, and holds the file until it's garbage collected.
+    static final int MAPPED_FILE_SIZE = 1024 * 1024;
+    private static final boolean CAN_MAP_FILES = File.separatorChar != '\\';
+    private static final int BUFFER_SIZE = 8192;
+    private transient ConditionalGet http;
 
     public boolean accept(URI uri) {
         try {
@@ -37,8 +53,19 @@ public class PropertiesLoader implements Loader {
     }
 
     public void load(Properties result, URI uri) throws IOException {
-        URL url = uri.toURL();
-        InputStream input = url.openStream();
+        if ("file".equalsIgnoreCase(uri.getScheme())) {
+            load(result, fileFromURI(uri));
+            return;
+        }
+        if (ConditionalGet.accept(uri)) {
+            http().load(result, uri, new ConditionalGet.Parser() {
+                public void parse(Properties result, InputStream input) throws IOException {
+                    load(result, input);
+                }
+            });
+            return;
+        }
+        InputStream input = uri.toURL().openStream();
         try {
             load(result, input);
         } finally {
@@ -46,8 +73,38 @@ public class PropertiesLoader implements Loader {
         }
     }
 
+    private void load(Properties result, File file) throws IOException {
+        FileInputStream input = new FileInputStream(file);
+        try {
+            FileChannel channel = input.getChannel();
+            long size = channel.size();
+            if (CAN_MAP_FILES && size >= MAPPED_FILE_SIZE && size <= Integer.MAX_VALUE)
+                new PropertiesParser(channel.map(READ_ONLY, 0, size)).parse(result);
+            else
+                load(result, channel);
+        } finally {
+            input.close();
+        }
+    }
+
     void load(Properties result, InputStream input) throws IOException {
-        result.load(new InputStreamReader(input, DEFAULT_ENCODING));
+        load(result, Channels.newChannel(input));
+    }
+
+    private void load(Properties result, ReadableByteChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        buffer.flip();
+        new PropertiesParser(buffer, channel).parse(result);
+    }
+
+    private synchronized ConditionalGet http() {
+        if (http == null)
+            http = new ConditionalGet();
+        return http;
+    }
+
+    public String stamp(URI uri) throws IOException {
+        return URLStamp.of(uri);
     }
 
     public String defaultSpecFor(String uriPrefix) {
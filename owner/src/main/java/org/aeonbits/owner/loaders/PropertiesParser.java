@@ -0,0 +1,311 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner.loaders;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Map;
+
+/**
+ * Parses the Java properties format from UTF-8 bytes, with the same semantics of {@link java.util.Properties#load(
+ * java.io.Reader)}: comments, logical lines continued with a backslash, key and value separators, and escapes.
+ * <p>
+ * The bytes are decoded while the lines are read, from a {@link ByteBuffer} that can be a memory mapped file, into a
+ * single buffer reused for all the lines: the only objects allocated are the keys and the values. The bytes are copied
+ * in chunks from the buffer to an array, which is cheaper to scan byte by byte.
+ * </p>
+ *
+ * @author Luigi R. Viggiano
+ */
+final class PropertiesParser {
+
+    private static final int EOF = -1;
+    private static final char REPLACEMENT = '\uFFFD';
+    private static final int CHUNK_SIZE = 8192;
+
+    private final ByteBuffer input;
+    private final ReadableByteChannel channel;
+    private char[] line = new char[256];
+    private char[] converted = new char[256];
+    private int pendingLowSurrogate = EOF;
+    private final byte[] bytes = new byte[CHUNK_SIZE];
+    private int position;
+    private int limit;
+
+    /**
+     * Parses the given bytes.
+     */
+    PropertiesParser(ByteBuffer input) {
+        this(input, null);
+    }
+
+    /**
+     * Parses the bytes read from the channel, using the given buffer, which must be empty and ready to be read.
+     */
+    PropertiesParser(ByteBuffer buffer, ReadableByteChannel channel) {
+        this.input = buffer;
+        this.channel = channel;
+    }
+
+    /**
+     * Puts all the properties parsed into the given map.
+     */
+    void parse(Map<Object, Object> result) throws IOException {
+        int length;
+        while ((length = readLine()) >= 0)
+            parseLine(result, length);
+    }
+
+    private void parseLine(Map<Object, Object> result, int length) {
+        int keyLength = 0;
+        int valueStart = length;
+        boolean hasSeparator = false;
+        boolean precedingBackslash = false;
+        while (keyLength < length) {
+            char c = line[keyLength];
+            if ((c == '=' || c == ':') && !precedingBackslash) {
+                valueStart = keyLength + 1;
+                hasSeparator = true;
+                break;
+            } else if (isWhitespace(c) && !precedingBackslash) {
+                valueStart = keyLength + 1;
+                break;
+            }
+            precedingBackslash = (c == '\\') && !precedingBackslash;
+            keyLength++;
+        }
+        while (valueStart < length) {
+            char c = line[valueStart];
+            if (!isWhitespace(c)) {
+                if (hasSeparator || (c != '=' && c != ':'))
+                    break;
+                hasSeparator = true;
+            }
+            valueStart++;
+        }
+        result.put(convert(0, keyLength), convert(valueStart, length - valueStart));
+    }
+
+    private static boolean isWhitespace(int c) {
+        return c == ' ' || c == '\t' || c == '\f';
+    }
+
+    /**
+     * Reads a logical line into {@link #line}, skipping the comments and the blank lines, and joining the lines
+     * continued by a backslash.
+     *
+     * @return the length of the line, or -1 at the end of the input.
+     */
+    private int readLine() throws IOException {
+        int length = 0;
+        boolean skipWhitespace = true;
+        boolean commentLine = false;
+        boolean newLine = true;
+        boolean appendedLineBegin = false;
+        boolean precedingBackslash = false;
+        boolean skipLF = false;
+
+        while (true) {
+            int c = read();
+            if (c == EOF) {
+                if (length == 0 || commentLine)
+                    return -1;
+                return precedingBackslash ? length - 1 : length;
+            }
+            if (skipLF) {
+                skipLF = false;
+                if (c == '\n')
+                    continue;
+            }
+            if (skipWhitespace) {
+                if (isWhitespace(c) || (!appendedLineBegin && (c == '\r' || c == '\n')))
+                    continue;
+                skipWhitespace = false;
+                appendedLineBegin = false;
+            }
+            if (newLine) {
+                newLine = false;
+                if (c == '#' || c == '!') {
+                    commentLine = true;
+                    continue;
+                }
+            }
+            if (c != '\n' && c != '\r') {
+                if (commentLine)
+                    continue;
+                if (length == line.length)
+                    line = grow(line);
+                line[length++] = (char) c;
+                precedingBackslash = (c == '\\') && !precedingBackslash;
+            } else if (commentLine || length == 0) {
+                commentLine = false;
+                newLine = true;
+                skipWhitespace = true;
+                length = 0;
+            } else if (precedingBackslash) {
+                length--;
+                skipWhitespace = true;
+                appendedLineBegin = true;
+                precedingBackslash = false;
+                skipLF = (c == '\r');
+            } else {
+                return length;
+            }
+        }
+    }
+
+    /**
+     * Returns the string in the given range of the line, with the escapes replaced.
+     */
+    private String convert(int offset, int length) {
+        int end = offset + length;
+        int backslash = offset;
+        while (backslash < end && line[backslash] != '\\')
+            backslash++;
+        if (backslash == end)
+            return new String(line, offset, length);
+
+        if (converted.length < length)
+            converted = new char[Math.max(length, converted.length * 2)];
+        int count = backslash - offset;
+        System.arraycopy(line, offset, converted, 0, count);
+        int i = backslash;
+        while (i < end) {
+            char c = line[i++];
+            if (c != '\\') {
+                converted[count++] = c;
+                continue;
+            }
+            c = line[i++];
+            if (c == 'u') {
+                if (i > end - 4)
+                    throw new IllegalArgumentException("Malformed \\uxxxx encoding.");
+                int value = 0;
+                for (int j = 0; j < 4; j++) {
+                    int digit = hexDigit(line[i++]);
+                    if (digit < 0)
+                        throw new IllegalArgumentException("Malformed \\uxxxx encoding.");
+                    value = (value << 4) + digit;
+                }
+                converted[count++] = (char) value;
+            } else {
+                switch (c) {
+                    case 't': c = '\t'; break;
+                    case 'r': c = '\r'; break;
+                    case 'n': c = '\n'; break;
+                    case 'f': c = '\f'; break;
+                    default: break;
+                }
+                converted[count++] = c;
+            }
+        }
+        return new String(converted, 0, count);
+    }
+
+    private static int hexDigit(char c) {
+        if (c >= '0' && c <= '9')
+            return c - '0';
+        if (c >= 'a' && c <= 'f')
+            return c - 'a' + 10;
+        if (c >= 'A' && c <= 'F')
+            return c - 'A' + 10;
+        return -1;
+    }
+
+    /**
+     * Decodes the next char from the UTF-8 input, replacing the malformed sequences with U+FFFD.
+     */
+    private int read() throws IOException {
+        if (pendingLowSurrogate != EOF) {
+            int c = pendingLowSurrogate;
+            pendingLowSurrogate = EOF;
+            return c;
+        }
+        if (position < limit && bytes[position] >= 0)
+            return bytes[position++];
+        int b = readByte();
+        if (b < 0x80)
+            return b;
+        int continuations;
+        int codePoint;
+        int min;
+        if (b >= 0xc2 && b < 0xe0) {
+            continuations = 1;
+            codePoint = b & 0x1f;
+            min = 0x80;
+        } else if (b >= 0xe0 && b < 0xf0) {
+            continuations = 2;
+            codePoint = b & 0x0f;
+            min = 0x800;
+        } else if (b >= 0xf0 && b < 0xf5) {
+            continuations = 3;
+            codePoint = b & 0x07;
+            min = 0x10000;
+        } else {
+            return REPLACEMENT;
+        }
+        for (int i = 0; i < continuations; i++) {
+            int next = peekByte();
+            if ((next & 0xc0) != 0x80)
+                return REPLACEMENT;
+            readByte();
+            codePoint = (codePoint << 6) | (next & 0x3f);
+        }
+        if (codePoint < min || codePoint > Character.MAX_CODE_POINT
+                || (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE))
+            return REPLACEMENT;
+        if (codePoint < Character.MIN_SUPPLEMENTARY_CODE_POINT)
+            return codePoint;
+        codePoint -= Character.MIN_SUPPLEMENTARY_CODE_POINT;
+        pendingLowSurrogate = Character.MIN_LOW_SURROGATE + (codePoint & 0x3ff);
+        return Character.MIN_HIGH_SURROGATE + (codePoint >>> 10);
+    }
+
+    private int readByte() throws IOException {
+        if (position == limit && !fill())
+            return EOF;
+        return bytes[position++] & 0xff;
+    }
+
+    private int peekByte() throws IOException {
+        if (position == limit && !fill())
+            return EOF;
+        return bytes[position] & 0xff;
+    }
+
+    /**
+     * Copies the next bytes of the input into {@link #bytes}, reading them from the channel when the buffer is empty.
+     */
+    private boolean fill() throws IOException {
+        if (!input.hasRemaining()) {
+            if (channel == null)
+                return false;
+            input.clear();
+            int read;
+            do {
+                read = channel.read(input);
+            } while (read == 0);
+            input.flip();
+            if (read < 0)
+                return false;
+        }
+        position = 0;
+        limit = Math.min(input.remaining(), bytes.length);
+        input.get(bytes, 0, limit);
+        return true;
+    }
+
+    private static char[] grow(char[] chars) {
+        char[] result = new char[chars.length * 2];
+        System.arraycopy(chars, 0, result, 0, chars.length);
+        return result;
+    }
+
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner.loaders;
+
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * Implemented by the {@link Loader loaders} able to notify the changes of a resource as soon as they happen, like a
+ * ZooKeeper watch does.
+ * <p>
+ * The hot reloadable config objects subscribe to the resources of these loaders, and are reloaded when they are
+ * notified, instead of checking them periodically.
+ * </p>
+ *
+ * @author Luigi R. Viggiano
+ * @since 1.0.13
+ */
+public interface Subscribable {
+
+    /**
+     * Starts notifying the changes of the resource to the given subscriber.
+     *
+     * @param uri        the {@link URI} of the resource.
+     * @param subscriber notified, on a thread of the loader, when the resource has been changed.
+     * @return the handle to stop the notifications.
+     * @throws IOException if the resource can't be watched: the hot reload then checks it periodically.
+     */
+    Subscription subscribe(URI uri, Subscriber subscriber) throws IOException;
+
+    /**
+     * Receives the notifications of a subscription.
+     */
+    interface Subscriber {
+        /**
+         * Called when the resource has been changed.
+         */
+        void changed();
+
+        /**
+         * Called when the loader stops notifying the changes of the resource, as when it is closed: the hot reload
+         * then checks it periodically.
+         */
+        void unsubscribed();
+    }
+
+    /**
+     * The handle of a subscription.
+     */
+    interface Subscription {
+        void cancel();
+    }
+
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner.loaders;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLConnection;
+
+/**
+ * Computes the {@link Watchable#stamp(java.net.URI) stamp} of a resource identified by an URL, from its last modified
+ * time. The HTTP resources don't have a stamp: they are loaded with a {@link ConditionalGet}, which costs a single
+ * request when they haven't been modified.
+ *
+ * @author Luigi R. Viggiano
+ */
+final class URLStamp {
+
+    /** Don't let anyone instantiate this class */
+    private URLStamp() {}
+
+    static String of(URI uri) throws IOException {
+        if (ConditionalGet.accept(uri))
+            return null;
+        URLConnection connection = uri.toURL().openConnection();
+        connection.setUseCaches(false);
+        long lastModified = connection.getLastModified();
+        return lastModified == 0L ? null : lastModified + ":" + connection.getContentLength();
+    }
+
+}
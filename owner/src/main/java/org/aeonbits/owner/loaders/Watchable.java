@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner.loaders;
+
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * Implemented by the {@link Loader loaders} able to tell cheaply whether a resource has been changed, without loading
+ * it.
+ * <p>
+ * The resources of these loaders, other than files, are hot reloaded when their stamp changes, and they are not loaded
+ * again while their stamp doesn't change. The resources of the loaders not implementing this interface are hot reloaded
+ * comparing what is loaded from them, which is more expensive.
+ * </p>
+ *
+ * @author Luigi R. Viggiano
+ * @since 1.0.13
+ */
+public interface Watchable {
+
+    /**
+     * Returns a stamp identifying the current content of the resource, such as the ETag or the Last-Modified header of
+     * an HTTP resource, or a version number: when the content changes, the stamp changes too.
+     *
+     * @param uri the {@link URI} of the resource.
+     * @return the stamp of the resource, or <code>null</code> if it can't be determined without loading the resource.
+     * @throws IOException if the resource is not available.
+     */
+    String stamp(URI uri) throws IOException;
+
+}
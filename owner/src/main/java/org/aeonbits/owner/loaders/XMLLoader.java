@@ -8,46 +8,58 @@
 
 package org.aeonbits.owner.loaders;
 
-import org.xml.sax.Attributes;
-import org.xml.sax.InputSource;
-import org.xml.sax.SAXException;
-import org.xml.sax.SAXParseException;
-import org.xml.sax.ext.DefaultHandler2;
-
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.parsers.SAXParser;
-import javax.xml.parsers.SAXParserFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLResolver;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.StringReader;
+import java.io.UnsupportedEncodingException;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
-import java.util.Stack;
+
+import static javax.xml.stream.XMLStreamConstants.CDATA;
+import static javax.xml.stream.XMLStreamConstants.CHARACTERS;
+import static javax.xml.stream.XMLStreamConstants.END_ELEMENT;
+import static javax.xml.stream.XMLStreamConstants.SPACE;
+import static javax.xml.stream.XMLStreamConstants.START_ELEMENT;
+import static org.aeonbits.owner.util.Util.unreachableButCompilerNeedsThis;
 
 /**
  * A {@link Loader loader} able to read properties from standard XML Java properties files, as well as user defined
  * XML properties files.
+ * <p>
+ * The files are read through a non validating StAX parser: the structure required by the DTD of the Java properties
+ * files is checked while they are parsed. Each thread reuses its own parser factory and buffers.
+ * </p>
  *
  * @since 1.0.5
  * @author Luigi R. Viggiano
  */
-public class XMLLoader implements Loader {
+public class XMLLoader implements Loader, Watchable {
 
     private static final long serialVersionUID = -894351666332018767L;
-    private transient SAXParserFactory factory = null;
+    private transient ThreadLocal<XmlToPropsParser> parsers = null;
+    private transient ConditionalGet http;
 
-    private synchronized SAXParserFactory factory() {
-        if (factory == null) {
-            factory = SAXParserFactory.newInstance();
-            factory.setValidating(true);
-            factory.setNamespaceAware(true);
-        }
-        return factory;
+    private synchronized XmlToPropsParser parser() {
+        if (parsers == null)
+            parsers = new ThreadLocal<XmlToPropsParser>() {
+                @Override
+                protected XmlToPropsParser initialValue() {
+                    return new XmlToPropsParser(XMLInputFactory.newInstance());
+                }
+            };
+        return parsers.get();
     }
 
-    static class XmlToPropsHandler extends DefaultHandler2 {
+    static class XmlToPropsParser implements XMLResolver {
 
         private static final String PROPS_DTD_URI =
                 "http://java.sun.com/dtd/properties.dtd";
@@ -61,68 +73,135 @@ public class XMLLoader implements Loader {
                         "<!ELEMENT entry (#PCDATA) >" +
                         "<!ATTLIST entry key CDATA #REQUIRED>";
 
-        private boolean isJavaPropertiesFormat = false;
-        private final Properties props;
-        private final Stack<String> paths = new Stack<String>();
-        private final Stack<StringBuilder> value = new Stack<StringBuilder>();
-
-        @Override
-        public InputSource resolveEntity(String name, String publicId, String baseURI,
-                                         String systemId) throws SAXException, IOException {
-            InputSource inputSource = null;
-            if (systemId.equals(PROPS_DTD_URI)) {
-                isJavaPropertiesFormat = true;
-                inputSource = new InputSource(new StringReader(PROPS_DTD));
-                inputSource.setSystemId(PROPS_DTD_URI);
+        private final XMLInputFactory factory;
+        private final ArrayDeque<String> paths = new ArrayDeque<String>();
+        private final List<StringBuilder> values = new ArrayList<StringBuilder>();
+        private boolean isJavaPropertiesFormat;
+        private int children;
+
+        XmlToPropsParser(XMLInputFactory factory) {
+            this.factory = factory;
+            factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+            factory.setProperty(XMLInputFactory.IS_VALIDATING, false);
+            factory.setProperty(XMLInputFactory.IS_REPLACING_ENTITY_REFERENCES, true);
+            factory.setProperty(XMLInputFactory.SUPPORT_DTD, true);
+            factory.setXMLResolver(this);
+        }
+
+        public Object resolveEntity(String publicID, String systemID, String baseURI, String namespace) {
+            if (!PROPS_DTD_URI.equals(systemID))
+                return null;
+            isJavaPropertiesFormat = true;
+            try {
+                return new ByteArrayInputStream(PROPS_DTD.getBytes("UTF-8"));
+            } catch (UnsupportedEncodingException e) {
+                return unreachableButCompilerNeedsThis(/* utf-8 is supported in jre libraries */);
             }
-            return inputSource;
         }
 
-        public XmlToPropsHandler(Properties props) {
-            this.props = props;
+        void parse(InputStream input, Properties props) throws XMLStreamException {
+            isJavaPropertiesFormat = false;
+            children = 0;
+            XMLStreamReader reader = factory.createXMLStreamReader(input);
+            try {
+                int depth = 0;
+                while (reader.hasNext()) {
+                    switch (reader.next()) {
+                        case START_ELEMENT:
+                            startElement(reader, props, depth++);
+                            break;
+                        case CHARACTERS:
+                        case CDATA:
+                        case SPACE:
+                            if (depth > 0)
+                                values.get(depth - 1).append(reader.getTextCharacters(), reader.getTextStart(),
+                                        reader.getTextLength());
+                            break;
+                        case END_ELEMENT:
+                            endElement(props, --depth);
+                            break;
+                        default:
+                            break;
+                    }
+                }
+            } finally {
+                paths.clear();
+                reader.close();
+            }
         }
 
-        @Override
-        public void startElement(String uri, String localName, String qName,
-                                 Attributes attributes) throws SAXException {
-            value.push(new StringBuilder());
+        private void startElement(XMLStreamReader reader, Properties props, int depth) throws XMLStreamException {
+            if (values.size() == depth)
+                values.add(new StringBuilder());
+            values.get(depth).setLength(0);
 
+            String name = qName(reader.getPrefix(), reader.getLocalName());
             if (isJavaPropertiesFormat) {
-                if ("entry".equals(qName))
-                    paths.push(attributes.getValue("key"));
-                else
-                    paths.push(qName);
+                checkJavaPropertiesFormat(reader, name, depth);
+                paths.push("entry".equals(name) ? reader.getAttributeValue(null, "key") : name);
             } else {
-                String path = (paths.size() == 0) ? qName : paths.peek() + "." + qName;
+                String path = (depth == 0) ? name : paths.peek() + "." + name;
                 paths.push(path);
-                for (int i = 0; i < attributes.getLength(); i++) {
-                    String attrName = attributes.getQName(i);
-                    String attrValue = attributes.getValue(i);
-                    props.setProperty(path + "." + attrName, attrValue);
+                for (int i = 0; i < reader.getAttributeCount(); i++) {
+                    String attrName = qName(reader.getAttributePrefix(i), reader.getAttributeLocalName(i));
+                    props.setProperty(path + "." + attrName, reader.getAttributeValue(i));
                 }
             }
         }
 
-        @Override
-        public void characters(char[] ch, int start, int length) throws SAXException {
-            value.peek().append(new String(ch, start, length));
+        private void endElement(Properties props, int depth) {
+            String key = paths.pop();
+            String propertyValue = trim(values.get(depth));
+            if (propertyValue != null && !(isJavaPropertiesFormat && "comment".equals(key)))
+                props.setProperty(key, propertyValue);
         }
 
-        @Override
-        public void endElement(String uri, String localName, String qName) throws SAXException {
-            String key = paths.peek();
-            String propertyValue = this.value.peek().toString().trim();
-            if (!propertyValue.isEmpty() &&
-                    !(isJavaPropertiesFormat && "comment".equals(key)))
-                props.setProperty(key, propertyValue);
-            value.pop();
-            paths.pop();
+        /**
+         * Checks what the DTD of the Java properties files requires: a <code>properties</code> root element, containing
+         * an optional <code>comment</code> element, followed by <code>entry</code> elements having a <code>key</code>.
+         */
+        private void checkJavaPropertiesFormat(XMLStreamReader reader, String name, int depth)
+                throws XMLStreamException {
+            boolean valid;
+            if (depth == 0)
+                valid = "properties".equals(name) && hasOnlyAttribute(reader, "version")
+                        && (reader.getAttributeCount() == 0 || "1.0".equals(reader.getAttributeValue(0)));
+            else if (depth == 1 && "comment".equals(name))
+                valid = children == 0 && reader.getAttributeCount() == 0;
+            else if (depth == 1 && "entry".equals(name))
+                valid = reader.getAttributeValue(null, "key") != null && hasOnlyAttribute(reader, "key");
+            else
+                valid = false;
+            if (depth == 1)
+                children++;
+            if (!valid)
+                throw new XMLStreamException("Invalid element <" + name + "> for the Java properties format",
+                        reader.getLocation());
+        }
+
+        private static boolean hasOnlyAttribute(XMLStreamReader reader, String name) {
+            for (int i = 0; i < reader.getAttributeCount(); i++)
+                if (!name.equals(qName(reader.getAttributePrefix(i), reader.getAttributeLocalName(i))))
+                    return false;
+            return true;
+        }
+
+        private static String qName(String prefix, String localName) {
+            return (prefix == null || prefix.isEmpty()) ? localName : prefix + ":" + localName;
         }
 
-        @Override
-        public void error(SAXParseException e) throws SAXException {
-            if (isJavaPropertiesFormat)
-                throw e;
+        /**
+         * Returns the content of the buffer without the leading and trailing whitespace, as {@link String#trim()}
+         * does, or <code>null</code> if there is nothing else.
+         */
+        private static String trim(StringBuilder value) {
+            int start = 0;
+            int end = value.length();
+            while (start < end && value.charAt(start) <= ' ')
+                start++;
+            while (end > start && value.charAt(end - 1) <= ' ')
+                end--;
+            return (start == end) ? null : value.substring(start, end);
         }
     }
 
@@ -136,21 +215,40 @@ public class XMLLoader implements Loader {
     }
 
     public void load(Properties result, URI uri) throws IOException {
+        if (ConditionalGet.accept(uri)) {
+            http().load(result, uri, new ConditionalGet.Parser() {
+                public void parse(Properties result, InputStream input) throws IOException {
+                    load(result, input);
+                }
+            });
+            return;
+        }
         InputStream input = uri.toURL().openStream();
         try {
-            SAXParser parser = factory().newSAXParser();
-            XmlToPropsHandler h = new XmlToPropsHandler(result);
-            parser.setProperty("http://xml.org/sax/properties/lexical-handler", h);
-            parser.parse(input, h);
-        } catch (ParserConfigurationException e) {
-            throw new IllegalArgumentException(e);
-        } catch (SAXException e) {
-            throw new IOException(e);
+            load(result, input);
         } finally {
             input.close();
         }
     }
 
+    private void load(Properties result, InputStream input) throws IOException {
+        try {
+            parser().parse(input, result);
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private synchronized ConditionalGet http() {
+        if (http == null)
+            http = new ConditionalGet();
+        return http;
+    }
+
+    public String stamp(URI uri) throws IOException {
+        return URLStamp.of(uri);
+    }
+
     public String defaultSpecFor(String urlPrefix) {
         return urlPrefix + ".xml";
     }
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner;
+
+import org.aeonbits.owner.Config.CachedValue;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * @author Luigi R. Viggiano
+ */
+public class CachedValueTest {
+
+    @CachedValue
+    public interface CachedConfig extends Mutable {
+        @DefaultValue("1, 2, 3")
+        int[] numbers();
+
+        @DefaultValue("http://${host}:${port}/")
+        List<String> urls();
+
+        @DefaultValue("localhost")
+        String host();
+
+        @DefaultValue("80")
+        String port();
+
+        @DefaultValue("%s")
+        String pattern(String arg);
+    }
+
+    public interface PartiallyCachedConfig extends Mutable {
+        @CachedValue
+        @DefaultValue("a, b")
+        String[] cached();
+
+        @DefaultValue("a, b")
+        String[] notCached();
+    }
+
+    private CachedConfig cfg;
+
+    @Before
+    public void before() {
+        cfg = ConfigFactory.create(CachedConfig.class);
+    }
+
+    @Test
+    public void shouldReturnTheSameConvertedValue() {
+        int[] numbers = cfg.numbers();
+        assertArrayEquals(new int[] {1, 2, 3}, numbers);
+        assertSame(numbers, cfg.numbers());
+    }
+
+    @Test
+    public void shouldInvalidateWhenThePropertyChanges() {
+        int[] numbers = cfg.numbers();
+        cfg.setProperty("numbers", "4, 5");
+        assertArrayEquals(new int[] {4, 5}, cfg.numbers());
+        assertNotSame(numbers, cfg.numbers());
+    }
+
+    @Test
+    public void shouldInvalidateWhenAVariableChanges() {
+        List<String> urls = cfg.urls();
+        assertEquals(asList("http://localhost:80/"), urls);
+        cfg.setProperty("port", "8080");
+        assertEquals(asList("http://localhost:8080/"), cfg.urls());
+    }
+
+    @Test
+    public void shouldNotInvalidateWhenAnUnrelatedPropertyChanges() {
+        List<String> urls = cfg.urls();
+        cfg.setProperty("numbers", "4, 5");
+        assertSame(urls, cfg.urls());
+    }
+
+    @Test
+    public void shouldInvalidateWhenThePropertyIsRemoved() {
+        cfg.numbers();
+        cfg.removeProperty("numbers");
+        assertNull(cfg.numbers());
+    }
+
+    @Test
+    public void shouldInvalidateWhenPropertiesAreCleared() {
+        cfg.host();
+        cfg.clear();
+        assertNull(cfg.host());
+    }
+
+    @Test
+    public void shouldInvalidateWhenPropertiesAreLoaded() throws IOException {
+        cfg.host();
+        cfg.load(new ByteArrayInputStream("host=example.com".getBytes("UTF-8")));
+        assertEquals("example.com", cfg.host());
+    }
+
+    @Test
+    public void shouldNotCacheMethodsWithParameters() {
+        assertEquals("foo", cfg.pattern("foo"));
+        assertEquals("bar", cfg.pattern("bar"));
+    }
+
+    @Test
+    public void shouldCacheOnlyAnnotatedMethods() {
+        PartiallyCachedConfig partial = ConfigFactory.create(PartiallyCachedConfig.class);
+        assertSame(partial.cached(), partial.cached());
+        assertNotSame(partial.notCached(), partial.notCached());
+    }
+
+}
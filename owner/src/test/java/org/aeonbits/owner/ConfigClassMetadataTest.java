@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner;
+
+import org.aeonbits.owner.Config.LoadPolicy;
+import org.aeonbits.owner.crypto.IdentityDecryptor;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+
+import static org.aeonbits.owner.Config.LoadType.MERGE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The metadata of a config class is computed once and shared by all its config objects.
+ *
+ * @author Luigi R. Viggiano
+ */
+public class ConfigClassMetadataTest {
+
+    @LoadPolicy(MERGE)
+    public interface SharedConfig extends Mutable {
+        @DefaultValue("localhost")
+        String host();
+
+        @Key("server.port")
+        @DefaultValue("80")
+        int port();
+
+        @EncryptedValue
+        @DefaultValue("secret")
+        String password();
+
+        @EncryptedValue(IdentityDecryptor.class)
+        @DefaultValue("token")
+        String token();
+    }
+
+    @Test
+    public void shouldShareTheMetadataAmongTheConfigObjects() throws Exception {
+        SharedConfig first = ConfigFactory.create(SharedConfig.class);
+        SharedConfig second = ConfigFactory.create(SharedConfig.class, Collections.singletonMap("host", "example.com"));
+
+        ConfigClassMetadata metadata = manager(first).metadata();
+        assertSame(metadata, manager(second).metadata());
+        assertSame(metadata, ConfigClassMetadata.of(SharedConfig.class));
+
+        Method port = SharedConfig.class.getMethod("port");
+        assertSame(metadata.plan(port), metadata.plan(port));
+        assertEquals(80, first.port());
+        assertEquals("example.com", second.host());
+        assertEquals("localhost", first.host());
+    }
+
+    @Test
+    public void shouldComputeTheMetadataFromTheAnnotations() throws Exception {
+        ConfigClassMetadata metadata = ConfigClassMetadata.of(SharedConfig.class);
+
+        assertEquals("80", metadata.defaults().get("server.port"));
+        assertEquals("localhost", metadata.defaults().get("host"));
+        assertEquals(MERGE, metadata.loadType());
+        assertNull(metadata.hotReload());
+
+        assertNull(metadata.decryptorFor(SharedConfig.class.getMethod("host")));
+        assertTrue(metadata.decryptorFor(SharedConfig.class.getMethod("password")) instanceof IdentityDecryptor);
+        assertSame(metadata.decryptorFor(SharedConfig.class.getMethod("password")),
+                metadata.decryptorFor(SharedConfig.class.getMethod("token")));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void shouldNotLetTheDefaultsBeModified() {
+        ConfigClassMetadata.of(SharedConfig.class).defaults().put("host", "example.com");
+    }
+
+    @Test
+    public void shouldNotShareTheModifiedProperties() {
+        SharedConfig first = ConfigFactory.create(SharedConfig.class);
+        SharedConfig second = ConfigFactory.create(SharedConfig.class);
+
+        first.setProperty("host", "example.com");
+
+        assertEquals("example.com", first.host());
+        assertEquals("localhost", second.host());
+    }
+
+    private static PropertiesManager manager(Config config) {
+        return ((PropertiesInvocationHandler) Proxy.getInvocationHandler(config)).propertiesManager;
+    }
+
+}
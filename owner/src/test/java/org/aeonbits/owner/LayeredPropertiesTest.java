@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import static java.util.Collections.singletonMap;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Luigi R. Viggiano
+ */
+public class LayeredPropertiesTest {
+
+    private Map<String, String> imported;
+    private Properties source;
+    private Map<String, String> defaults;
+    private LayeredProperties properties;
+
+    @Before
+    public void before() {
+        imported = singletonMap("user", "admin");
+        source = new Properties();
+        source.setProperty("host", "example.com");
+        source.setProperty("user", "guest");
+        defaults = new HashMap<String, String>();
+        defaults.put("host", "localhost");
+        defaults.put("port", "80");
+        properties = new LayeredProperties(imported, source, defaults);
+    }
+
+    @Test
+    public void shouldLookUpTheLayersInOrder() {
+        assertEquals("admin", properties.get("user"));
+        assertEquals("example.com", properties.get("host"));
+        assertEquals("80", properties.get("port"));
+        assertNull(properties.get("missing"));
+        assertNull(properties.get(null));
+        assertEquals(3, properties.size());
+    }
+
+    @Test
+    public void shouldSetAndRemoveWithoutModifyingTheLayers() {
+        LayeredProperties modified = properties.with("host", "aeonbits.org").with("port", null);
+
+        assertEquals("aeonbits.org", modified.get("host"));
+        assertNull(modified.get("port"));
+        assertFalse(modified.containsKey("port"));
+        assertEquals(2, modified.size());
+
+        assertEquals("example.com", properties.get("host"));
+        assertEquals("example.com", source.getProperty("host"));
+        assertEquals("80", defaults.get("port"));
+    }
+
+    @Test
+    public void shouldForgetTheChangesRestoringTheValueOfTheLayers() {
+        LayeredProperties restored = properties.with("host", "aeonbits.org").with("host", "example.com");
+        assertEquals(properties, restored);
+        assertEquals(properties.hashCode(), restored.hashCode());
+    }
+
+    @Test
+    public void shouldIgnoreTheValuesThatAreNotStrings() {
+        Map<Object, Object> layer = new HashMap<Object, Object>();
+        layer.put("port", 8080);
+        LayeredProperties layered = new LayeredProperties(layer, defaults);
+
+        assertNull(layered.get("port"));
+        assertEquals("localhost", layered.get("host"));
+        assertEquals(1, layered.size());
+    }
+
+    @Test
+    public void shouldCopyAllThePropertiesIntoProperties() {
+        Properties result = properties.with("timeout", "10").toProperties();
+
+        Properties expected = new Properties();
+        expected.setProperty("user", "admin");
+        expected.setProperty("host", "example.com");
+        expected.setProperty("port", "80");
+        expected.setProperty("timeout", "10");
+        assertEquals(expected, result);
+        assertTrue(properties.with("timeout", "10").entrySet().containsAll(expected.entrySet()));
+    }
+
+}
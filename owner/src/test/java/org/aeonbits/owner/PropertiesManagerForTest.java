@@ -20,15 +20,18 @@ import java.util.concurrent.ScheduledExecutorService;
  * @author Luigi R. Viggiano
  */
 public class PropertiesManagerForTest extends PropertiesManager {
-    public PropertiesManagerForTest(Class<? extends Config> clazz, Properties properties,
-                             ScheduledExecutorService scheduler, VariablesExpander expander, LoadersManager loaders,
-                             Map<?, ?>... imports) {
-        super(clazz, properties, scheduler, expander, loaders, imports);
+    public PropertiesManagerForTest(Class<? extends Config> clazz, ScheduledExecutorService scheduler,
+                                    VariablesExpander expander, LoadersManager loaders, Map<?, ?>... imports) {
+        super(clazz, new ReloadCoordinator(scheduler, loaders), expander, loaders, imports);
     }
 
     @Override
-    public Properties load() {
-        return super.load();
+    public void load() {
+        super.load();
+    }
+
+    public Properties getProperties() {
+        return snapshot().properties().toProperties();
     }
 
     public List<ReloadListener> getReloadListeners() {
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner;
+
+import org.aeonbits.owner.Config.HotReload;
+import org.aeonbits.owner.Config.Sources;
+import org.aeonbits.owner.loaders.Loader;
+import org.aeonbits.owner.loaders.Watchable;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.aeonbits.owner.Config.HotReloadType.ASYNC;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * The asynchronous hot reloads of the config objects of a factory are checked together: each source is checked once
+ * per interval, and only the config objects loaded from the sources changed are reloaded.
+ *
+ * @author Luigi R. Viggiano
+ */
+public class ReloadCoordinatorTest {
+
+    private static final AtomicInteger stamps = new AtomicInteger();
+    private static volatile String stamp;
+    private static volatile String name;
+
+    static class StampedLoader implements Loader, Watchable {
+        public boolean accept(URI uri) {
+            return uri.getScheme().equals("stamped");
+        }
+
+        public void load(Properties result, URI uri) {
+            result.setProperty("name", name);
+        }
+
+        public String defaultSpecFor(String uriPrefix) {
+            return null;
+        }
+
+        public String stamp(URI uri) {
+            stamps.incrementAndGet();
+            return stamp;
+        }
+    }
+
+    @Sources("stamped:config")
+    @HotReload(value = 10, unit = MILLISECONDS, type = ASYNC)
+    interface StampedConfig extends Config {
+        String name();
+    }
+
+    private ScheduledExecutorService scheduler;
+    private ScheduledFuture<?> task;
+    private Factory factory;
+
+    @Before
+    public void before() {
+        stamp = "1";
+        name = "first";
+        scheduler = mock(ScheduledExecutorService.class);
+        task = mock(ScheduledFuture.class);
+        doReturn(task).when(scheduler).scheduleAtFixedRate(any(Runnable.class), anyLong(), anyLong(),
+                any(TimeUnit.class));
+        factory = new DefaultFactory(scheduler, new Properties());
+        factory.registerLoader(new StampedLoader());
+    }
+
+    @Test
+    public void shouldCheckEachSourceOncePerInterval() throws InterruptedException {
+        List<StampedConfig> configs = new ArrayList<StampedConfig>();
+        for (int i = 0; i < 20; i++)
+            configs.add(factory.create(StampedConfig.class));
+        Runnable tick = scheduledTick();
+
+        stamps.set(0);
+        tick.run();
+        for (int i = 0; i < 100 && stamps.get() == 0; i++)
+            Thread.sleep(10);
+        Thread.sleep(50);
+        assertEquals(1, stamps.get());
+
+        name = "second";
+        stamp = "2";
+        tick.run();
+        for (StampedConfig cfg : configs) {
+            for (int i = 0; i < 100 && !cfg.name().equals("second"); i++)
+                Thread.sleep(10);
+            assertEquals("second", cfg.name());
+        }
+    }
+
+    @Test
+    public void shouldStopCheckingWhenTheConfigObjectsAreCollected() throws InterruptedException {
+        Reference<StampedConfig> reference = new WeakReference<StampedConfig>(factory.create(StampedConfig.class));
+        Runnable tick = scheduledTick();
+
+        for (int i = 0; i < 100 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(reference.get());
+
+        tick.run();
+        verify(task, timeout(1000)).cancel(false);
+    }
+
+    private Runnable scheduledTick() {
+        ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler, times(1)).scheduleAtFixedRate(captor.capture(), anyLong(), anyLong(), any(TimeUnit.class));
+        return captor.getValue();
+    }
+
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner;
+
+import org.aeonbits.owner.Config.DisableFeature;
+import org.aeonbits.owner.Config.Key;
+import org.aeonbits.owner.Config.Separator;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.aeonbits.owner.Config.DisableableFeature.PARAMETER_FORMATTING;
+import static org.aeonbits.owner.Config.DisableableFeature.VARIABLE_EXPANSION;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Luigi R. Viggiano
+ */
+public class ResolutionPlanTest {
+
+    interface PlannedConfig extends Config {
+        int port();
+
+        @Key("server.name")
+        @DisableFeature({VARIABLE_EXPANSION, PARAMETER_FORMATTING})
+        String name();
+
+        @Separator(";")
+        List<Integer> ports();
+
+        File file();
+    }
+
+    private ResolutionPlan plan(String methodName) throws NoSuchMethodException {
+        return new ResolutionPlan(PlannedConfig.class.getMethod(methodName), null);
+    }
+
+    @Test
+    public void shouldResolveKeyAndFeatures() throws Exception {
+        ResolutionPlan port = plan("port");
+        assertEquals("port", port.key());
+        assertTrue(port.isVariableExpansionEnabled());
+
+        ResolutionPlan name = plan("name");
+        assertEquals("server.name", name.key());
+        assertFalse(name.isVariableExpansionEnabled());
+        assertEquals("%s", name.format("%s", "ignored"));
+    }
+
+    @Test
+    public void shouldConvertUsingThePlan() throws Exception {
+        assertEquals(8080, plan("port").convert("8080"));
+        assertEquals(asList(1, 2, 3), plan("ports").convert("1; 2; 3"));
+        assertEquals(new File("foo"), plan("file").convert("foo"));
+    }
+
+    @Test
+    public void shouldSkipConvertersThatCanNeverApply() throws Exception {
+        Converters[] converters = Converters.resolveConverters(PlannedConfig.class.getMethod("port"), int.class);
+        assertArrayEquals(new Converters[] {
+                Converters.METHOD_WITH_REGISTERED_CONVERTER,
+                Converters.PROPERTY_EDITOR,
+                Converters.PRIMITIVE,
+                Converters.CLASS_WITH_STRING_CONSTRUCTOR,
+                Converters.CLASS_WITH_VALUE_OF_METHOD,
+                Converters.CLASS_WITH_OBJECT_CONSTRUCTOR,
+                Converters.UNSUPPORTED
+        }, converters);
+    }
+
+}
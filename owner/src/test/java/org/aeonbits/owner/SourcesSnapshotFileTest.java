@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner;
+
+import org.aeonbits.owner.Config.LoadPolicy;
+import org.aeonbits.owner.Config.Sources;
+import org.aeonbits.owner.loaders.Loader;
+import org.aeonbits.owner.util.Util;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.net.URI;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.aeonbits.owner.Config.LoadType.MERGE;
+import static org.aeonbits.owner.util.UtilTest.fileFromURI;
+import static org.aeonbits.owner.util.UtilTest.save;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The sources loaded by a config class are kept in a snapshot file, and are not parsed again by the next factories
+ * (as after a restart of the application) as long as they are not modified.
+ *
+ * @author Luigi R. Viggiano
+ */
+public class SourcesSnapshotFileTest implements TestConstants {
+    private static final String SOURCE = "file:" + RESOURCES_DIR + "/SourcesSnapshotFileTest.counted";
+    private static final File SNAPSHOT_DIR = new File(RESOURCES_DIR, "snapshots");
+
+    private static final AtomicInteger reads = new AtomicInteger();
+
+    static class CountingLoader implements Loader {
+        public boolean accept(URI uri) {
+            return uri.toString().endsWith(".counted");
+        }
+
+        public void load(Properties result, URI uri) throws IOException {
+            reads.incrementAndGet();
+            InputStream input = new FileInputStream(Util.fileFromURI(uri));
+            try {
+                result.load(input);
+            } finally {
+                input.close();
+            }
+        }
+
+        public String defaultSpecFor(String uriPrefix) {
+            return null;
+        }
+    }
+
+    @Sources(SOURCE)
+    interface SnapshotConfig extends Config {
+        String host();
+
+        @DefaultValue("80")
+        int port();
+    }
+
+    @LoadPolicy(MERGE)
+    @Sources({"system:properties", SOURCE})
+    interface SystemSnapshotConfig extends Config {
+        @Key("SourcesSnapshotFileTest.secret")
+        String secret();
+
+        String host();
+    }
+
+    private File source;
+    private File snapshot;
+
+    @Before
+    public void before() throws Exception {
+        source = fileFromURI(SOURCE);
+        saveOld(source, 20000, "localhost");
+        snapshot = new File(SNAPSHOT_DIR, SnapshotConfig.class.getName() + ".snapshot");
+        snapshot.delete();
+        System.setProperty(SourcesSnapshotFile.SNAPSHOT_DIR, SNAPSHOT_DIR.getPath());
+        reads.set(0);
+    }
+
+    @After
+    public void after() {
+        System.clearProperty(SourcesSnapshotFile.SNAPSHOT_DIR);
+        System.clearProperty("SourcesSnapshotFileTest.secret");
+        new File(SNAPSHOT_DIR, SystemSnapshotConfig.class.getName() + ".snapshot").delete();
+        source.delete();
+        snapshot.delete();
+    }
+
+    @Test
+    public void shouldNotParseTheSourcesKeptInTheSnapshot() {
+        assertEquals("localhost", create().host());
+        assertEquals(1, reads.get());
+        assertTrue(snapshot.isFile());
+
+        SnapshotConfig cfg = create();
+        assertEquals(1, reads.get());
+        assertEquals("localhost", cfg.host());
+        assertEquals(80, cfg.port());
+    }
+
+    @Test
+    public void shouldParseTheSourcesModifiedSinceTheSnapshot() throws IOException {
+        create();
+        saveOld(source, 10000, "example.com");
+
+        assertEquals("example.com", create().host());
+        assertEquals(2, reads.get());
+
+        assertEquals("example.com", create().host());
+        assertEquals(2, reads.get());
+    }
+
+    @Test
+    public void shouldParseTheSourcesReplacedKeepingTheirStamp() throws IOException {
+        create();
+        long lastModified = source.lastModified();
+        long length = source.length();
+        saveOld(source, 20000, "localhos7");
+        assertTrue(source.setLastModified(lastModified));
+        assertEquals(length, source.length());
+
+        assertEquals("localhos7", create().host());
+        assertEquals(2, reads.get());
+    }
+
+    @Test
+    public void shouldIgnoreACorruptedSnapshot() throws IOException {
+        create();
+        RandomAccessFile file = new RandomAccessFile(snapshot, "rw");
+        try {
+            file.seek(file.length() - 12);
+            file.write(0x55);
+        } finally {
+            file.close();
+        }
+
+        assertEquals("localhost", create().host());
+        assertEquals(2, reads.get());
+    }
+
+    @Test
+    public void shouldNotWriteTheSnapshotWhenNotEnabled() {
+        System.clearProperty(SourcesSnapshotFile.SNAPSHOT_DIR);
+        assertEquals("localhost", create().host());
+        assertFalse(snapshot.exists());
+    }
+
+    @Test
+    public void shouldNotKeepTheSystemProperties() throws IOException {
+        System.setProperty("SourcesSnapshotFileTest.secret", "s3cr3t");
+        Factory factory = ConfigFactory.newInstance();
+        factory.registerLoader(new CountingLoader());
+        SystemSnapshotConfig cfg = factory.create(SystemSnapshotConfig.class);
+        assertEquals("s3cr3t", cfg.secret());
+        assertEquals("localhost", cfg.host());
+
+        String content = read(new File(SNAPSHOT_DIR, SystemSnapshotConfig.class.getName() + ".snapshot"));
+        assertTrue(content.contains("localhost"));
+        assertFalse(content.contains("s3cr3t"));
+    }
+
+    private static String read(File file) throws IOException {
+        byte[] bytes = new byte[(int) file.length()];
+        RandomAccessFile input = new RandomAccessFile(file, "r");
+        try {
+            input.readFully(bytes);
+        } finally {
+            input.close();
+        }
+        return new String(bytes, "UTF-8");
+    }
+
+    private static SnapshotConfig create() {
+        Factory factory = ConfigFactory.newInstance();
+        factory.registerLoader(new CountingLoader());
+        return factory.create(SnapshotConfig.class);
+    }
+
+    private static void saveOld(File file, long age, final String host) throws IOException {
+        save(file, new Properties() {{
+            setProperty("host", host);
+        }});
+        assertTrue(file.setLastModified(System.currentTimeMillis() - 15000 - age));
+    }
+
+}
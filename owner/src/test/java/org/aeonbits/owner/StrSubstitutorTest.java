@@ -10,10 +10,20 @@ package org.aeonbits.owner;
 
 import org.junit.Test;
 
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 
+import static java.util.Arrays.asList;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * @author Luigi R. Viggiano
@@ -105,4 +115,120 @@ public class StrSubstitutorTest {
         assertEquals("baz", sub.replace("baz"));
         assertEquals("foo.1.sfx", sub.replace("foo.%d.%s", 1, "sfx"));
     }
+
+    @Test
+    public void shouldTreatMalformedVariablesAsText() {
+        Properties values = new Properties() {{
+            setProperty("foo", "fooValue");
+            setProperty("}", "brace");
+        }};
+        StrSubstitutor sub = new StrSubstitutor(values);
+        assertEquals("${}", sub.replace("${}"));
+        assertEquals("brace", sub.replace("${}}"));
+        assertEquals("${foo", sub.replace("${foo"));
+        assertEquals("${fo\no} fooValue", sub.replace("${fo\no} ${foo}"));
+        assertEquals("$fooValue$", sub.replace("$${foo}$"));
+    }
+
+    @Test
+    public void shouldReportCyclicVariables() {
+        Properties values = new Properties() {{
+            setProperty("a", "x${b}");
+            setProperty("b", "y${c}");
+            setProperty("c", "z${a}");
+            setProperty("self", "${self}");
+        }};
+        for (boolean immutable : new boolean[] {false, true}) {
+            StrSubstitutor sub = new StrSubstitutor(values, immutable);
+            try {
+                sub.replace("${a}");
+                fail("cycle not detected");
+            } catch (UnsupportedOperationException e) {
+                assertEquals("Cyclic variable expansion: ${a} -> ${b} -> ${c} -> ${a}", e.getMessage());
+            }
+            try {
+                sub.replace("${self}");
+                fail("cycle not detected");
+            } catch (UnsupportedOperationException e) {
+                assertEquals("Cyclic variable expansion: ${self} -> ${self}", e.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void shouldAllowTheSameVariableMoreThanOnce() {
+        Map<String, String> values = new HashMap<String, String>();
+        values.put("host", "localhost");
+        values.put("url", "${host}/${host}");
+        assertEquals("localhost/localhost ${}", new StrSubstitutor(values, true).replace("${url} ${}"));
+    }
+
+    @Test
+    public void shouldCacheExpandedValuesWhenImmutable() {
+        Map<String, String> values = new HashMap<String, String>();
+        values.put("host", "localhost");
+        values.put("port", "80");
+        values.put("url", "http://${host}:${port}/");
+        StrSubstitutor sub = new StrSubstitutor(values, true);
+
+        Set<String> variables = new HashSet<String>();
+        String first = sub.replace("${url}", variables);
+        assertEquals("http://localhost:80/", first);
+        assertEquals(new HashSet<String>(asList("url", "host", "port")), variables);
+
+        Set<String> again = new HashSet<String>();
+        assertSame(first, sub.replace("${url}", again));
+        assertEquals(variables, again);
+    }
+
+    @Test
+    public void shouldNotCacheExpandedValuesWhenMutable() {
+        Properties values = new Properties();
+        values.setProperty("host", "localhost");
+        StrSubstitutor sub = new StrSubstitutor(values);
+        assertEquals("localhost", sub.replace("${host}"));
+        values.setProperty("host", "example.com");
+        assertEquals("example.com", sub.replace("${host}"));
+    }
+
+    @Test
+    public void shouldKeepTheParsedTemplatesWhenImmutable() {
+        StrSubstitutor sub = new StrSubstitutor(new HashMap<String, String>(), true);
+        String source = "The ${animal} jumped over the ${target}.";
+        assertSame(sub.template(source), sub.template(new String(source)));
+        assertTrue(sub.template(source).hasVariables());
+    }
+
+    @Test
+    public void shouldNotKeepTheTemplatesWithoutVariables() {
+        StrSubstitutor sub = new StrSubstitutor(new HashMap<String, String>(), true);
+        String source = "secret";
+        assertNotSame(sub.template(source), sub.template(source));
+        assertFalse(sub.template(source).hasVariables());
+    }
+
+    @Test
+    public void shouldNotShareTheTemplatesBetweenInstances() {
+        String source = "The ${animal} jumped over the ${target}.";
+        StrSubstitutor sub = new StrSubstitutor(new HashMap<String, String>(), true);
+        StrSubstitutor other = new StrSubstitutor(new HashMap<String, String>(), true);
+        assertNotSame(sub.template(source), other.template(source));
+    }
+
+    @Test
+    public void shouldKeepTheExpansionsNotAffectedByAChange() {
+        Map<String, String> values = new HashMap<String, String>();
+        values.put("host", "localhost");
+        values.put("port", "80");
+        StrSubstitutor previous = new StrSubstitutor(values, true);
+        String host = previous.replace("http://${host}/");
+        previous.replace("${port}");
+
+        Map<String, String> changed = new HashMap<String, String>(values);
+        changed.put("port", "8080");
+        StrSubstitutor next = new StrSubstitutor(changed, previous, asList("port"));
+        assertSame(host, next.replace("http://${host}/"));
+        assertEquals("8080", next.replace("${port}"));
+    }
+
 }
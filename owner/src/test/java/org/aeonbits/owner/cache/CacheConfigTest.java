@@ -15,9 +15,20 @@ import org.aeonbits.owner.Factory;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentMatchers;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.*;
 import static org.mockito.ArgumentMatchers.eq;
@@ -140,4 +151,105 @@ public class CacheConfigTest {
         assertSame(dummy, cached);
     }
 
+    @Test
+    public void testGetOrCreateConcurrentlyCreatesOnlyOnce() throws Exception {
+        Factory spy = spy(ConfigFactory.newInstance());
+        doAnswer(new Answer<Object>() {
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                Thread.sleep(200);
+                return invocation.callRealMethod();
+            }
+        }).when(spy).create(eq(MyConfig.class), ArgumentMatchers.<Map<?, ?>[]>any());
+
+        List<MyConfig> results = getOrCreateConcurrently(spy, 8);
+
+        for (MyConfig result : results)
+            assertSame(results.get(0), result);
+        verify(spy, times(1)).create(eq(MyConfig.class), ArgumentMatchers.<Map<?, ?>[]>any());
+    }
+
+    @Test
+    public void testGetOrCreateConcurrentlyRethrowsToAllTheThreadsWaiting() throws Exception {
+        Factory spy = spy(ConfigFactory.newInstance());
+        doAnswer(new Answer<Object>() {
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                Thread.sleep(200);
+                throw new IllegalStateException("failed");
+            }
+        }).when(spy).create(eq(MyConfig.class), ArgumentMatchers.<Map<?, ?>[]>any());
+
+        try {
+            getOrCreateConcurrently(spy, 4);
+            fail("IllegalStateException expected");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        assertNull(ConfigCache.get(MyConfig.class));
+    }
+
+    @Test
+    public void testGetOrCreateRacingWithAddReturnsTheCachedInstance() throws Exception {
+        final MyConfig added = ConfigFactory.create(MyConfig.class);
+        for (int round = 0; round < 20; round++) {
+            ConfigCache.clear();
+            final CountDownLatch start = new CountDownLatch(1);
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            try {
+                List<Future<MyConfig>> futures = new ArrayList<Future<MyConfig>>();
+                for (int i = 0; i < 8; i++) {
+                    final boolean adding = i % 2 == 0;
+                    futures.add(executor.submit(new Callable<MyConfig>() {
+                        public MyConfig call() throws Exception {
+                            start.await();
+                            if (adding) {
+                                ConfigCache.add("foo", added);
+                                return ConfigCache.get("foo");
+                            }
+                            return ConfigCache.getOrCreate("foo", MyConfig.class);
+                        }
+                    }));
+                }
+                start.countDown();
+                // the threads waiting for the one creating the instance must not hang.
+                List<MyConfig> results = new ArrayList<MyConfig>();
+                for (Future<MyConfig> future : futures)
+                    results.add(future.get(10, TimeUnit.SECONDS));
+                for (MyConfig result : results)
+                    assertSame(ConfigCache.get("foo"), result);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    private static List<MyConfig> getOrCreateConcurrently(final Factory factory, int threads) throws Exception {
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<MyConfig>> futures = new ArrayList<Future<MyConfig>>();
+            for (int i = 0; i < threads; i++)
+                futures.add(executor.submit(new Callable<MyConfig>() {
+                    public MyConfig call() throws Exception {
+                        start.await();
+                        return ConfigCache.getOrCreate(factory, MyConfig.class);
+                    }
+                }));
+            start.countDown();
+            // all the threads are awaited, so that none of them is still creating when the next test runs.
+            List<MyConfig> results = new ArrayList<MyConfig>();
+            ExecutionException failure = null;
+            for (Future<MyConfig> future : futures)
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    failure = e;
+                }
+            if (failure != null)
+                throw failure;
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
 }
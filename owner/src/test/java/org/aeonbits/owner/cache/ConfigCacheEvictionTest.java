@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner.cache;
+
+import org.aeonbits.owner.Config;
+import org.aeonbits.owner.Config.HotReload;
+import org.aeonbits.owner.Config.Sources;
+import org.aeonbits.owner.ConfigCache;
+import org.aeonbits.owner.TestConstants;
+import org.aeonbits.owner.util.TimeProviderForTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Properties;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.aeonbits.owner.util.UtilTest.fileFromURI;
+import static org.aeonbits.owner.util.UtilTest.save;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Luigi R. Viggiano
+ */
+public class ConfigCacheEvictionTest implements TestConstants {
+    private static final String SPEC = "file:" + RESOURCES_DIR + "/ConfigCacheEvictionTest.properties";
+
+    interface MyConfig extends Config {}
+
+    @Sources(SPEC)
+    @HotReload(5)
+    interface HotReloadConfig extends Config {
+        @DefaultValue("5")
+        Integer someValue();
+    }
+
+    @Before
+    public void before() {
+        ConfigCache.clear();
+    }
+
+    @After
+    public void after() {
+        ConfigCache.setMaximumSize(Integer.MAX_VALUE);
+        ConfigCache.setExpireAfterAccess(0, SECONDS);
+        ConfigCache.clear();
+    }
+
+    @Test
+    public void shouldEvictTheLeastRecentlyUsedInstances() {
+        ConfigCache.setMaximumSize(2);
+        MyConfig first = ConfigCache.getOrCreate("first", MyConfig.class);
+        ConfigCache.getOrCreate("second", MyConfig.class);
+        assertSame(first, ConfigCache.get("first"));
+
+        ConfigCache.getOrCreate("third", MyConfig.class);
+
+        assertEquals(2, ConfigCache.list().size());
+        assertSame(first, ConfigCache.get("first"));
+        assertNull(ConfigCache.get("second"));
+        assertNotNull(ConfigCache.get("third"));
+    }
+
+    @Test
+    public void shouldEvictWhenTheMaximumSizeIsReduced() {
+        for (int i = 0; i < 10; i++)
+            ConfigCache.getOrCreate(i, MyConfig.class);
+
+        ConfigCache.setMaximumSize(3);
+
+        assertEquals(3, ConfigCache.list().size());
+        assertNotNull(ConfigCache.get(9));
+        assertNull(ConfigCache.get(0));
+    }
+
+    @Test
+    public void shouldExpireTheInstancesNotUsed() throws InterruptedException {
+        ConfigCache.setExpireAfterAccess(50, MILLISECONDS);
+        MyConfig first = ConfigCache.getOrCreate("first", MyConfig.class);
+        assertSame(first, ConfigCache.get("first"));
+
+        Thread.sleep(100);
+
+        assertNull(ConfigCache.get("first"));
+        assertTrue(ConfigCache.list().isEmpty());
+    }
+
+    @Test
+    public void shouldCountHitsMissesAndEvictions() {
+        ConfigCache.Stats before = ConfigCache.stats();
+        ConfigCache.setMaximumSize(1);
+
+        ConfigCache.getOrCreate("first", MyConfig.class);
+        ConfigCache.getOrCreate("first", MyConfig.class);
+        ConfigCache.getOrCreate("second", MyConfig.class);
+
+        ConfigCache.Stats after = ConfigCache.stats();
+        assertEquals(1, after.getHitCount() - before.getHitCount());
+        assertEquals(2, after.getMissCount() - before.getMissCount());
+        assertEquals(1, after.getEvictionCount() - before.getEvictionCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAcceptANonPositiveMaximumSize() {
+        ConfigCache.setMaximumSize(0);
+    }
+
+    @Test
+    public void shouldStopTheHotReloadOfTheEvictedInstances() throws Exception {
+        TimeProviderForTest time = new TimeProviderForTest();
+        time.setup();
+        File target = fileFromURI(SPEC);
+        try {
+            save(target, new Properties() {{
+                setProperty("someValue", "10");
+            }});
+            assertTrue(target.setLastModified(target.lastModified() - 15000));
+            time.setTime(target.lastModified());
+
+            ConfigCache.setMaximumSize(1);
+            HotReloadConfig cfg = ConfigCache.getOrCreate(HotReloadConfig.class);
+            assertEquals(Integer.valueOf(10), cfg.someValue());
+            ConfigCache.getOrCreate(MyConfig.class);
+            assertNull(ConfigCache.get(HotReloadConfig.class));
+
+            save(target, new Properties() {{
+                setProperty("someValue", "20");
+            }});
+            time.elapse(5, SECONDS);
+
+            assertEquals(Integer.valueOf(10), cfg.someValue());
+        } finally {
+            time.tearDown();
+            target.delete();
+        }
+    }
+
+}
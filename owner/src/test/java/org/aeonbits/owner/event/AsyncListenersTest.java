@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner.event;
+
+import org.aeonbits.owner.Config.AsyncListeners;
+import org.aeonbits.owner.ConfigFactory;
+import org.aeonbits.owner.Mutable;
+import org.aeonbits.owner.Reloadable;
+import org.junit.Test;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * With {@link AsyncListeners} the listeners are notified once the changes have been applied, outside of the lock of
+ * the config object, while the transactional listeners can still roll back the changes.
+ *
+ * @author Luigi R. Viggiano
+ */
+public class AsyncListenersTest {
+
+    @AsyncListeners
+    interface AsyncConfig extends Mutable, Reloadable {
+        @DefaultValue("0")
+        int value();
+    }
+
+    private static final AtomicInteger executions = new AtomicInteger();
+    private static final AtomicInteger executors = new AtomicInteger();
+
+    public static class CallerRunsExecutor implements Executor {
+        public CallerRunsExecutor() {
+            executors.incrementAndGet();
+        }
+
+        public void execute(Runnable command) {
+            executions.incrementAndGet();
+            command.run();
+        }
+    }
+
+    @AsyncListeners(CallerRunsExecutor.class)
+    interface CustomExecutorConfig extends Mutable {
+        @DefaultValue("0")
+        int value();
+    }
+
+    @AsyncListeners(CallerRunsExecutor.class)
+    interface SharedExecutorConfig extends Mutable {
+        @DefaultValue("0")
+        int value();
+    }
+
+    @AsyncListeners(CallerRunsExecutor.class)
+    interface AnotherSharedExecutorConfig extends Mutable {
+        @DefaultValue("0")
+        int value();
+    }
+
+    @Test
+    public void shouldNotWaitForTheListeners() throws InterruptedException {
+        final AsyncConfig cfg = ConfigFactory.create(AsyncConfig.class);
+        final CountDownLatch release = new CountDownLatch(1);
+        final BlockingQueue<String> received = new LinkedBlockingQueue<String>();
+        final List<Thread> threads = Collections.synchronizedList(new ArrayList<Thread>());
+        cfg.addPropertyChangeListener(new PropertyChangeListener() {
+            public void propertyChange(PropertyChangeEvent event) {
+                threads.add(Thread.currentThread());
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                received.add((String) event.getNewValue());
+            }
+        });
+
+        for (int i = 1; i <= 5; i++)
+            cfg.setProperty("value", String.valueOf(i));
+        assertEquals(5, cfg.value());
+        assertTrue(received.isEmpty());
+
+        release.countDown();
+        List<String> values = new ArrayList<String>();
+        for (int i = 0; i < 5; i++)
+            values.add(received.poll(5, SECONDS));
+        assertEquals(asList("1", "2", "3", "4", "5"), values);
+        assertNotSame(Thread.currentThread(), threads.get(0));
+    }
+
+    @Test
+    public void shouldStillRollBackSynchronously() throws InterruptedException {
+        AsyncConfig cfg = ConfigFactory.create(AsyncConfig.class);
+        final BlockingQueue<PropertyChangeEvent> received = new LinkedBlockingQueue<PropertyChangeEvent>();
+        cfg.addPropertyChangeListener(new TransactionalPropertyChangeListener() {
+            public void beforePropertyChange(PropertyChangeEvent event) throws RollbackOperationException {
+                if ("13".equals(event.getNewValue()))
+                    throw new RollbackOperationException();
+            }
+
+            public void propertyChange(PropertyChangeEvent event) {
+                received.add(event);
+            }
+        });
+
+        cfg.setProperty("value", "13");
+        assertEquals(0, cfg.value());
+
+        cfg.setProperty("value", "42");
+        assertEquals(42, cfg.value());
+        assertEquals("42", received.poll(5, SECONDS).getNewValue());
+        assertTrue(received.isEmpty());
+    }
+
+    @Test
+    public void shouldNotifyTheReloadAfterThePropertyChanges() throws InterruptedException {
+        AsyncConfig cfg = ConfigFactory.create(AsyncConfig.class);
+        final BlockingQueue<String> received = new LinkedBlockingQueue<String>();
+        cfg.setProperty("value", "1");
+        cfg.addReloadListener(new ReloadListener() {
+            public void reloadPerformed(ReloadEvent event) {
+                received.add("reload");
+            }
+        });
+        cfg.addPropertyChangeListener(new PropertyChangeListener() {
+            public void propertyChange(PropertyChangeEvent event) {
+                received.add("value: " + event.getNewValue());
+            }
+        });
+
+        cfg.reload();
+
+        assertEquals(0, cfg.value());
+        assertEquals("value: 0", received.poll(5, SECONDS));
+        assertEquals("reload", received.poll(5, SECONDS));
+    }
+
+    @Test
+    public void shouldUseTheGivenExecutor() {
+        CustomExecutorConfig cfg = ConfigFactory.create(CustomExecutorConfig.class);
+        final List<String> received = new ArrayList<String>();
+        cfg.addPropertyChangeListener(new PropertyChangeListener() {
+            public void propertyChange(PropertyChangeEvent event) {
+                received.add((String) event.getNewValue());
+            }
+        });
+        int before = executions.get();
+
+        cfg.setProperty("value", "1");
+        cfg.setProperty("value", "2");
+
+        assertEquals(asList("1", "2"), received);
+        assertEquals(2, executions.get() - before);
+    }
+
+    @Test
+    public void shouldShareTheExecutorBetweenTheConfigClasses() {
+        int before = executors.get();
+        SharedExecutorConfig first = ConfigFactory.create(SharedExecutorConfig.class);
+        AnotherSharedExecutorConfig second = ConfigFactory.create(AnotherSharedExecutorConfig.class);
+
+        assertTrue(executors.get() - before <= 1);
+        assertEquals(0, first.value() + second.value());
+    }
+
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner.event;
+
+import org.aeonbits.owner.ConfigFactory;
+import org.aeonbits.owner.Mutable;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Properties referencing other properties through <code>${...}</code> are notified to the listeners when their
+ * expanded value changes.
+ *
+ * @author Luigi R. Viggiano
+ */
+public class DerivedPropertyChangeEventTest {
+
+    interface ServerConfig extends Mutable {
+        @DefaultValue("localhost")
+        String host();
+
+        @DefaultValue("80")
+        String port();
+
+        @DefaultValue("${host}:${port}")
+        String address();
+
+        @DefaultValue("http://${address}/")
+        String url();
+
+        @DefaultValue("unrelated")
+        String other();
+    }
+
+    private ServerConfig cfg;
+    private final List<String> events = new ArrayList<String>();
+
+    @Before
+    public void before() {
+        cfg = ConfigFactory.create(ServerConfig.class);
+        cfg.addPropertyChangeListener(new PropertyChangeListener() {
+            public void propertyChange(PropertyChangeEvent evt) {
+                events.add(evt.getPropertyName() + ": " + evt.getOldValue() + " -> " + evt.getNewValue());
+            }
+        });
+    }
+
+    @Test
+    public void shouldNotifyTheDerivedPropertiesTransitively() {
+        cfg.setProperty("host", "example.com");
+
+        assertEquals(3, events.size());
+        assertEquals("host: localhost -> example.com", events.get(0));
+        assertTrue(events.contains("address: localhost:80 -> example.com:80"));
+        assertTrue(events.contains("url: http://localhost:80/ -> http://example.com:80/"));
+    }
+
+    @Test
+    public void shouldNotNotifyUnrelatedProperties() {
+        cfg.setProperty("other", "changed");
+        assertEquals(1, events.size());
+        assertEquals("other: unrelated -> changed", events.get(0));
+    }
+
+    @Test
+    public void shouldFollowTheChangesOfTheDependencies() {
+        cfg.setProperty("address", "127.0.0.1:8080");
+        events.clear();
+
+        cfg.setProperty("host", "example.com");
+        assertEquals(1, events.size());
+        assertEquals("host: localhost -> example.com", events.get(0));
+    }
+
+    @Test
+    public void shouldNotifyTheDerivedPropertiesOnRemoval() {
+        cfg.removeProperty("port");
+        assertEquals(3, events.size());
+        assertEquals("port: 80 -> null", events.get(0));
+        assertTrue(events.contains("url: http://localhost:80/ -> http://localhost:/"));
+    }
+
+    @Test
+    public void shouldNotifyTheDerivedPropertiesOnLoad() throws IOException {
+        cfg.load(new ByteArrayInputStream("host=example.com\nport=8080".getBytes("UTF-8")));
+        assertEquals(4, events.size());
+        assertTrue(events.subList(2, 4).contains("url: http://localhost:80/ -> http://example.com:8080/"));
+        assertEquals("example.com:8080", cfg.address());
+    }
+
+    @Test
+    public void shouldNotNotifyWhenTheExpandedValueDoesNotChange() {
+        cfg.setProperty("address", "${host}:80");
+        events.clear();
+        cfg.setProperty("port", "8080");
+        assertEquals(1, events.size());
+    }
+
+}
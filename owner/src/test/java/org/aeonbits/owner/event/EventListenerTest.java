@@ -55,9 +55,6 @@ public class EventListenerTest {
     @Mock
     private TransactionalPropertyChangeListener propertyChangeListener;
 
-    @Mock
-    private Properties props;
-
     @Mock
     private ScheduledExecutorService scheduler;
 
@@ -409,7 +406,7 @@ public class EventListenerTest {
 
     @Before
     public void before() {
-        propertiesManager = new PropertiesManagerForTest(Server.class, props, scheduler,
+        propertiesManager = new PropertiesManagerForTest(Server.class, scheduler,
                 new VariablesExpanderForTest(new Properties()), loaders);
     }
 
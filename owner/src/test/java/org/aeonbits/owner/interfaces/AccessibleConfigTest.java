@@ -61,8 +61,9 @@ public class AccessibleConfigTest {
     public void testListPrintStream() throws IOException {
         ByteArrayOutputStream expected = new ByteArrayOutputStream();
         PropertiesManagerForTest manager =
-                new PropertiesManagerForTest(AccessibleConfig.class, new Properties(), scheduler, expander, loaders);
-        manager.load().list(new PrintStream(expected, true));
+                new PropertiesManagerForTest(AccessibleConfig.class, scheduler, expander, loaders);
+        manager.load();
+        manager.getProperties().list(new PrintStream(expected, true));
 
         AccessibleConfig config = ConfigFactory.create(AccessibleConfig.class);
         ByteArrayOutputStream result = new ByteArrayOutputStream();
@@ -75,8 +76,9 @@ public class AccessibleConfigTest {
     public void testListPrintWriter() throws IOException {
         StringWriter expected = new StringWriter();
         PropertiesManagerForTest manager =
-                new PropertiesManagerForTest(AccessibleConfig.class, new Properties(), scheduler, expander, loaders);
-        manager.load().list(new PrintWriter(expected, true));
+                new PropertiesManagerForTest(AccessibleConfig.class, scheduler, expander, loaders);
+        manager.load();
+        manager.getProperties().list(new PrintWriter(expected, true));
 
         AccessibleConfig config = ConfigFactory.create(AccessibleConfig.class);
         StringWriter result = new StringWriter();
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner.interfaces;
+
+import org.aeonbits.owner.Closeable;
+import org.aeonbits.owner.Config.HotReload;
+import org.aeonbits.owner.Config.Sources;
+import org.aeonbits.owner.ConfigFactory;
+import org.aeonbits.owner.Factory;
+import org.aeonbits.owner.loaders.Loader;
+import org.aeonbits.owner.loaders.Watchable;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.net.URI;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.aeonbits.owner.Config.HotReloadType.ASYNC;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Luigi R. Viggiano
+ */
+public class CloseableConfigTest {
+
+    private static final AtomicInteger checks = new AtomicInteger();
+
+    static class CheckCountingLoader implements Loader, Watchable {
+        public boolean accept(URI uri) {
+            return uri.getScheme().equals("counting");
+        }
+
+        public void load(Properties result, URI uri) {
+            result.setProperty("name", "value");
+        }
+
+        public String defaultSpecFor(String uriPrefix) {
+            return null;
+        }
+
+        public String stamp(URI uri) {
+            checks.incrementAndGet();
+            return "1";
+        }
+    }
+
+    @Sources("counting:config")
+    @HotReload(value = 10, unit = MILLISECONDS, type = ASYNC)
+    interface CloseableConfig extends Closeable {
+        String name();
+    }
+
+    private Factory factory;
+
+    @Before
+    public void before() {
+        checks.set(0);
+        factory = ConfigFactory.newInstance();
+        factory.registerLoader(new CheckCountingLoader());
+    }
+
+    @Test
+    public void shouldStopCheckingTheSourcesWhenClosed() throws InterruptedException {
+        CloseableConfig cfg = factory.create(CloseableConfig.class);
+        awaitChecks(3);
+
+        cfg.close();
+        cfg.close();
+
+        assertChecksStopped();
+        assertEquals("value", cfg.name());
+    }
+
+    @Test
+    public void shouldStopCheckingTheSourcesWhenGarbageCollected() throws InterruptedException {
+        Reference<CloseableConfig> reference =
+                new WeakReference<CloseableConfig>(factory.create(CloseableConfig.class));
+        awaitChecks(3);
+
+        for (int i = 0; i < 100 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        assertNull(reference.get());
+        assertChecksStopped();
+    }
+
+    private static void awaitChecks(int count) throws InterruptedException {
+        for (int i = 0; i < 100 && checks.get() < count; i++)
+            Thread.sleep(10);
+        assertTrue(checks.get() >= count);
+    }
+
+    private static void assertChecksStopped() throws InterruptedException {
+        // a check running meanwhile may complete.
+        Thread.sleep(50);
+        int stopped = checks.get();
+        Thread.sleep(100);
+        assertEquals(stopped, checks.get());
+    }
+
+}
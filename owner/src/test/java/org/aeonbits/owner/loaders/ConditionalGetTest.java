@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner.loaders;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.aeonbits.owner.Config.LoadPolicy;
+import org.aeonbits.owner.Config.Sources;
+import org.aeonbits.owner.ConfigFactory;
+import org.aeonbits.owner.Factory;
+import org.aeonbits.owner.Reloadable;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.aeonbits.owner.Config.LoadType.MERGE;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * The HTTP sources are loaded with a single conditional <code>GET</code> request, also from the servers rejecting the
+ * <code>HEAD</code> requests.
+ *
+ * @author Luigi R. Viggiano
+ */
+public class ConditionalGetTest {
+
+    @LoadPolicy(MERGE)
+    @Sources({"http://localhost:${port}/config.properties", "http://localhost:${port}/config.xml"})
+    interface HttpConfig extends Reloadable {
+        String name();
+        String surname();
+    }
+
+    private final List<String> requests = Collections.synchronizedList(new ArrayList<String>());
+    private volatile String name;
+    private volatile String etag;
+    private HttpServer server;
+    private Factory factory;
+
+    @Before
+    public void before() throws IOException {
+        name = "Luigi";
+        etag = "\"1\"";
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/config.properties", new Resource() {
+            String body() {
+                return "name=" + name;
+            }
+        });
+        server.createContext("/config.xml", new Resource() {
+            String body() {
+                return "<!DOCTYPE properties SYSTEM \"http://java.sun.com/dtd/properties.dtd\">"
+                        + "<properties><entry key=\"surname\">Viggiano</entry></properties>";
+            }
+        });
+        server.start();
+        factory = ConfigFactory.newInstance();
+        factory.setProperty("port", String.valueOf(server.getAddress().getPort()));
+    }
+
+    @After
+    public void after() {
+        server.stop(0);
+    }
+
+    @Test
+    public void shouldLoadFromAServerRejectingHead() {
+        HttpConfig cfg = factory.create(HttpConfig.class);
+
+        assertEquals("Luigi", cfg.name());
+        assertEquals("Viggiano", cfg.surname());
+        assertRequests("GET /config.properties 200", "GET /config.xml 200");
+    }
+
+    @Test
+    public void shouldNotTransferTheUnmodifiedSourcesAgain() {
+        HttpConfig cfg = factory.create(HttpConfig.class);
+        requests.clear();
+
+        cfg.reload();
+        assertEquals("Luigi", cfg.name());
+        assertRequests("GET /config.properties 304", "GET /config.xml 304");
+        requests.clear();
+
+        name = "Mario";
+        etag = "\"2\"";
+        cfg.reload();
+        assertEquals("Mario", cfg.name());
+        assertEquals("Viggiano", cfg.surname());
+        assertRequests("GET /config.properties 200", "GET /config.xml 200");
+    }
+
+    // the sources may be loaded in parallel.
+    private void assertRequests(String... expected) {
+        List<String> actual = new ArrayList<String>(requests);
+        Collections.sort(actual);
+        assertEquals(asList(expected), actual);
+    }
+
+    private abstract class Resource implements HttpHandler {
+        abstract String body();
+
+        public void handle(HttpExchange exchange) throws IOException {
+            try {
+                String method = exchange.getRequestMethod();
+                int status;
+                if (!method.equals("GET"))
+                    status = HttpURLConnection.HTTP_BAD_METHOD;
+                else if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match")))
+                    status = HttpURLConnection.HTTP_NOT_MODIFIED;
+                else
+                    status = HttpURLConnection.HTTP_OK;
+                requests.add(method + " " + exchange.getRequestURI().getPath() + " " + status);
+
+                if (status != HttpURLConnection.HTTP_OK) {
+                    exchange.sendResponseHeaders(status, -1);
+                    return;
+                }
+                byte[] body = body().getBytes("UTF-8");
+                exchange.getResponseHeaders().set("ETag", etag);
+                exchange.sendResponseHeaders(status, body.length);
+                OutputStream output = exchange.getResponseBody();
+                output.write(body);
+                output.close();
+            } finally {
+                exchange.close();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner.loaders;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * The properties must be parsed exactly as {@link Properties#load(java.io.Reader)} does.
+ *
+ * @author Luigi R. Viggiano
+ */
+public class PropertiesParserTest {
+
+    @Test
+    public void shouldParseTheSeparators() throws IOException {
+        assertParsedAsJdk("a=1\nb:2\nc 3\nd\t4\ne = 5\nf : 6\ng   =   7\nh = = 8\ni\n j  \nk=\n");
+    }
+
+    @Test
+    public void shouldSkipTheCommentsAndTheBlankLines() throws IOException {
+        assertParsedAsJdk("# comment\n! comment\n   # indented comment\n\n   \n\t\na=1\n#b=2\n");
+    }
+
+    @Test
+    public void shouldJoinTheContinuationLines() throws IOException {
+        assertParsedAsJdk("a=one \\\n    two \\\r\n\tthree\nb=\\\\\nc=\\\\\\\nd\n# comment \\\ne=not continued\n");
+    }
+
+    @Test
+    public void shouldHandleTheLineTerminators() throws IOException {
+        assertParsedAsJdk("a=1\rb=2\r\nc=3\n\rd=4\\\r\n  5\\\r  6");
+    }
+
+    @Test
+    public void shouldReplaceTheEscapes() throws IOException {
+        assertParsedAsJdk("a\\=b=c\\:d\nkey\\ with\\ spaces=\\tvalue\\n\\r\\f\\x\\\\\nunicode=\\u0041\\u00e8\\u20AC\n");
+    }
+
+    @Test
+    public void shouldDecodeUTF8() throws IOException {
+        assertParsedAsJdk("цвет=синий\nprice=10€\nemoji=😀\ntrailing=\\\n");
+    }
+
+    @Test
+    public void shouldReplaceTheMalformedUTF8() throws IOException {
+        byte[] bytes = new byte[] {'a', '=', (byte) 0xc3, '\n', 'b', '=', (byte) 0xff, 'x', (byte) 0xe2, (byte) 0x82};
+        assertEquals(jdk(bytes), parse(bytes));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectMalformedUnicodeEscapes() throws IOException {
+        parse("a=\\u00g1".getBytes("UTF-8"));
+    }
+
+    @Test
+    public void shouldParseTheStoredProperties() throws IOException {
+        Properties properties = new Properties();
+        for (int i = 0; i < 1000; i++)
+            properties.setProperty(" key=" + i + ":è", "value\t#" + i + "\n€ ");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        properties.store(out, "comment");
+        assertEquals(properties, parse(out.toByteArray()));
+    }
+
+    @Test
+    public void shouldMapTheLargeFiles() throws IOException {
+        File file = File.createTempFile("PropertiesParserTest", ".properties");
+        try {
+            Properties expected = new Properties();
+            OutputStream out = new FileOutputStream(file);
+            try {
+                for (int i = 0, size = 0; size < PropertiesLoader.MAPPED_FILE_SIZE; i++) {
+                    byte[] line = ("key" + i + "=valore è " + i + "\n").getBytes("UTF-8");
+                    out.write(line);
+                    size += line.length;
+                    expected.setProperty("key" + i, "valore è " + i);
+                }
+            } finally {
+                out.close();
+            }
+            Properties result = new Properties();
+            new PropertiesLoader().load(result, file.toURI());
+            assertEquals(expected, result);
+        } finally {
+            file.delete();
+        }
+    }
+
+    private static void assertParsedAsJdk(String text) throws IOException {
+        byte[] bytes = text.getBytes("UTF-8");
+        assertEquals(jdk(bytes), parse(bytes));
+        assertEquals(jdk(bytes), parseWithTinyBuffer(bytes));
+    }
+
+    private static Properties jdk(byte[] bytes) throws IOException {
+        Properties result = new Properties();
+        result.load(new InputStreamReader(new ByteArrayInputStream(bytes), "UTF-8"));
+        return result;
+    }
+
+    private static Properties parse(byte[] bytes) throws IOException {
+        Properties result = new Properties();
+        new PropertiesParser(ByteBuffer.wrap(bytes)).parse(result);
+        return result;
+    }
+
+    private static Properties parseWithTinyBuffer(byte[] bytes) throws IOException {
+        Properties result = new Properties();
+        ByteBuffer buffer = ByteBuffer.allocate(1);
+        buffer.flip();
+        new PropertiesParser(buffer, Channels.newChannel(new ByteArrayInputStream(bytes))).parse(result);
+        return result;
+    }
+
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner.loaders;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Luigi R. Viggiano
+ */
+public class XMLLoaderTest {
+
+    private static final String JAVA_FORMAT_HEADER = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<!DOCTYPE properties SYSTEM \"http://java.sun.com/dtd/properties.dtd\">\n";
+
+    private final XMLLoader loader = new XMLLoader();
+
+    @Test
+    public void shouldLoadTheNestedElementsFormat() throws IOException {
+        Properties result = load("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<server xmlns:x=\"urn:example\" name=\"main\">\n"
+                + "  <http port=\"80\" x:secure=\"false\">\n"
+                + "    <hostname>  localhost  </hostname>\n"
+                + "    <path><![CDATA[/a&b]]></path>\n"
+                + "    <empty>   </empty>\n"
+                + "  </http>\n"
+                + "  <x:note>caf&#233; &amp; <!-- comment -->tea</x:note>\n"
+                + "  <mixed>before<inner>in</inner>after</mixed>\n"
+                + "</server>\n");
+
+        Properties expected = new Properties();
+        expected.setProperty("server.name", "main");
+        expected.setProperty("server.http.port", "80");
+        expected.setProperty("server.http.x:secure", "false");
+        expected.setProperty("server.http.hostname", "localhost");
+        expected.setProperty("server.http.path", "/a&b");
+        expected.setProperty("server.x:note", "café & tea");
+        expected.setProperty("server.mixed", "beforeafter");
+        expected.setProperty("server.mixed.inner", "in");
+        assertEquals(expected, result);
+    }
+
+    @Test
+    public void shouldLoadTheJavaPropertiesFormat() throws IOException {
+        Properties result = load(JAVA_FORMAT_HEADER
+                + "<properties version=\"1.0\">\n"
+                + "  <comment>a comment</comment>\n"
+                + "  <entry key=\"first\">  one  </entry>\n"
+                + "  <entry key=\"empty\"></entry>\n"
+                + "  <entry key=\"a.b\">x &lt; y</entry>\n"
+                + "</properties>\n");
+
+        Properties expected = new Properties();
+        expected.setProperty("first", "one");
+        expected.setProperty("a.b", "x < y");
+        assertEquals(expected, result);
+    }
+
+    @Test
+    public void shouldReuseTheParserOfTheThread() throws IOException {
+        for (int i = 0; i < 3; i++) {
+            assertEquals("1", load(JAVA_FORMAT_HEADER
+                    + "<properties><entry key=\"a\">1</entry></properties>").getProperty("a"));
+            assertEquals("2", load("<a><b>2</b></a>").getProperty("a.b"));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldRejectUnknownElementsInTheJavaPropertiesFormat() throws IOException {
+        load(JAVA_FORMAT_HEADER + "<properties><wrong>x</wrong></properties>");
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldRejectEntriesWithoutKeyInTheJavaPropertiesFormat() throws IOException {
+        load(JAVA_FORMAT_HEADER + "<properties><entry>x</entry></properties>");
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldRejectTheCommentAfterTheEntriesInTheJavaPropertiesFormat() throws IOException {
+        load(JAVA_FORMAT_HEADER + "<properties><entry key=\"a\">1</entry><comment>x</comment></properties>");
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldRejectMalformedDocuments() throws IOException {
+        load("<a><b>1</a>");
+    }
+
+    private Properties load(String xml) throws IOException {
+        File file = File.createTempFile("XMLLoaderTest", ".xml");
+        try {
+            OutputStream out = new FileOutputStream(file);
+            try {
+                out.write(xml.getBytes("UTF-8"));
+            } finally {
+                out.close();
+            }
+            Properties result = new Properties();
+            loader.load(result, file.toURI());
+            return result;
+        } finally {
+            file.delete();
+        }
+    }
+
+}
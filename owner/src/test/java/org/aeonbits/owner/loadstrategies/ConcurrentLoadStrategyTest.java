@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner.loadstrategies;
+
+import org.aeonbits.owner.Config;
+import org.aeonbits.owner.Config.LoadPolicy;
+import org.aeonbits.owner.Config.Sources;
+import org.aeonbits.owner.ConfigFactory;
+import org.aeonbits.owner.Factory;
+import org.aeonbits.owner.loaders.Loader;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Properties;
+
+import static org.aeonbits.owner.Config.LoadType.FIRST;
+import static org.aeonbits.owner.Config.LoadType.MERGE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The sources are fetched concurrently, but the result must be the same as loading them one after another.
+ *
+ * @author Luigi R. Viggiano
+ */
+public class ConcurrentLoadStrategyTest {
+
+    /**
+     * Loads URIs like <code>slow:name?delay</code>, waiting <code>delay</code> milliseconds and then setting the
+     * properties <code>name</code> and <code>winner</code> to <code>name</code>; the source named <code>missing</code>
+     * is not found.
+     */
+    static class SlowLoader implements Loader {
+        public boolean accept(URI uri) {
+            return "slow".equals(uri.getScheme());
+        }
+
+        public void load(Properties result, URI uri) throws IOException {
+            String[] spec = uri.getSchemeSpecificPart().split("\\?");
+            try {
+                Thread.sleep(Long.parseLong(spec[1]));
+            } catch (InterruptedException e) {
+                throw new IOException(e.getMessage());
+            }
+            if (spec[0].equals("missing"))
+                throw new IOException("not found: " + uri);
+            result.setProperty(spec[0], spec[0]);
+            result.setProperty("winner", spec[0]);
+        }
+
+        public String defaultSpecFor(String uriPrefix) {
+            return null;
+        }
+    }
+
+    @Sources({"slow:first?300", "slow:missing?300", "slow:second?300", "slow:third?300"})
+    @LoadPolicy(MERGE)
+    interface MergeConfig extends Config {
+        String first();
+        String second();
+        String third();
+        String winner();
+    }
+
+    @Sources({"slow:missing?100", "slow:first?300", "slow:second?0"})
+    @LoadPolicy(FIRST)
+    interface FirstConfig extends Config {
+        String first();
+        String second();
+        String winner();
+    }
+
+    private Factory factory;
+
+    @Before
+    public void before() {
+        factory = ConfigFactory.newInstance();
+        factory.registerLoader(new SlowLoader());
+    }
+
+    @Test
+    public void mergeShouldFetchTheSourcesConcurrently() {
+        long start = System.currentTimeMillis();
+        MergeConfig cfg = factory.create(MergeConfig.class);
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertTrue("sources loaded one after another: " + elapsed + "ms", elapsed < 1200);
+        assertEquals("first", cfg.first());
+        assertEquals("second", cfg.second());
+        assertEquals("third", cfg.third());
+    }
+
+    @Test
+    public void mergeShouldKeepTheDeclaredPrecedence() {
+        MergeConfig cfg = factory.create(MergeConfig.class);
+        assertEquals("first", cfg.winner());
+    }
+
+    @Test
+    public void firstShouldUseTheFirstAvailableSourceInTheDeclaredOrder() {
+        FirstConfig cfg = factory.create(FirstConfig.class);
+        assertEquals("first", cfg.winner());
+        assertEquals("first", cfg.first());
+        assertNull(cfg.second());
+    }
+
+}
@@ -45,7 +45,7 @@ public class DefaultLoadStrategyTest extends LoadStrategyTestBase {
     @Test
     public void shouldReturnTheResourceForAClass() throws IOException {
         PropertiesManagerForTest manager = 
-                new PropertiesManagerForTest(SampleConfig.class, new Properties(), scheduler, expander, loaders);
+                new PropertiesManagerForTest(SampleConfig.class, scheduler, expander, loaders);
 
         manager.load();
         
@@ -63,8 +63,9 @@ public class DefaultLoadStrategyTest extends LoadStrategyTestBase {
     @Test
     public void shouldReturnThePropertiesForTheClass() {
         PropertiesManagerForTest manager = 
-                new PropertiesManagerForTest(SampleConfig.class, new Properties(), scheduler, expander, loaders);
-        Properties props = manager.load();
+                new PropertiesManagerForTest(SampleConfig.class, scheduler, expander, loaders);
+        manager.load();
+        Properties props = manager.getProperties();
         assertNotNull(props);
         assertEquals("testValue", props.getProperty("testKey"));
     }
@@ -99,13 +99,11 @@ public class FirstLoadStrategyTest extends LoadStrategyTestBase {
 
     @Test
     public void shouldLoadURLFromSpecifiedSource() throws IOException {
-        Properties props = new Properties();
         PropertiesManagerForTest manager =
-                new PropertiesManagerForTest(SampleConfigWithSource.class, props,
-                        scheduler, expander, loaders);
+                new PropertiesManagerForTest(SampleConfigWithSource.class, scheduler, expander, loaders);
         manager.load();
         verify(loaders, times(1)).findLoader(argThat(uriMatches("org/aeonbits/owner/FooBar.properties")));
-        assertEquals("Hello World!", props.getProperty("helloWorld"));
+        assertEquals("Hello World!", manager.getProperties().getProperty("helloWorld"));
     }
 
     @Test
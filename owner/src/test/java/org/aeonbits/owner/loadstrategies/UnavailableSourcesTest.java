@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner.loadstrategies;
+
+import org.aeonbits.owner.Config.Sources;
+import org.aeonbits.owner.ConfigFactory;
+import org.aeonbits.owner.Factory;
+import org.aeonbits.owner.Reloadable;
+import org.aeonbits.owner.loaders.Loader;
+import org.aeonbits.owner.util.TimeProviderForTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Sources that can't be loaded are not tried again for a while, and on reload the sources following the one loaded
+ * the last time are not fetched in advance.
+ *
+ * @author Luigi R. Viggiano
+ */
+public class UnavailableSourcesTest {
+
+    private static final Map<String, AtomicInteger> attempts = new ConcurrentHashMap<String, AtomicInteger>();
+    private static final Set<String> missing = new CopyOnWriteArraySet<String>();
+
+    /**
+     * Loads URIs like <code>counting:name</code>, setting the property <code>winner</code> to <code>name</code>, and
+     * counting the attempts.
+     */
+    static class CountingLoader implements Loader {
+        public boolean accept(URI uri) {
+            return "counting".equals(uri.getScheme());
+        }
+
+        public void load(Properties result, URI uri) throws IOException {
+            String name = uri.getSchemeSpecificPart();
+            attempts.get(name).incrementAndGet();
+            if (missing.contains(name))
+                throw new IOException("not found: " + uri);
+            result.setProperty("winner", name);
+        }
+
+        public String defaultSpecFor(String uriPrefix) {
+            return null;
+        }
+    }
+
+    @Sources({"counting:first", "counting:second", "counting:third"})
+    interface FirstConfig extends Reloadable {
+        String winner();
+    }
+
+    private Factory factory;
+    private TimeProviderForTest time;
+
+    @Before
+    public void before() {
+        for (String name : new String[] {"first", "second", "third"})
+            attempts.put(name, new AtomicInteger());
+        missing.clear();
+        time = new TimeProviderForTest();
+        time.setup();
+        factory = ConfigFactory.newInstance();
+        factory.registerLoader(new CountingLoader());
+    }
+
+    @After
+    public void after() {
+        time.tearDown();
+    }
+
+    @Test
+    public void shouldNotTryAgainAnUnavailableSourceForAWhile() {
+        missing.add("first");
+        FirstConfig cfg = factory.create(FirstConfig.class);
+        assertEquals("second", cfg.winner());
+        assertEquals(1, attempts.get("first").get());
+
+        missing.remove("first");
+        cfg.reload();
+        assertEquals("second", cfg.winner());
+        assertEquals(1, attempts.get("first").get());
+
+        time.elapse(10, SECONDS);
+        cfg.reload();
+        assertEquals("first", cfg.winner());
+        assertEquals(2, attempts.get("first").get());
+    }
+
+    @Test
+    public void shouldNotFetchTheSourcesFollowingTheOneLoadedOnReload() {
+        missing.add("first");
+        FirstConfig cfg = factory.create(FirstConfig.class);
+        int thirdAttempts = attempts.get("third").get();
+
+        cfg.reload();
+        cfg.reload();
+        assertEquals("second", cfg.winner());
+        assertEquals(3, attempts.get("second").get());
+        assertEquals(thirdAttempts, attempts.get("third").get());
+    }
+
+    @Test
+    public void shouldFetchTheFollowingSourcesWhenTheOneLoadedIsNoLongerAvailable() {
+        FirstConfig cfg = factory.create(FirstConfig.class);
+        assertEquals("first", cfg.winner());
+
+        missing.add("first");
+        missing.add("second");
+        cfg.reload();
+        assertEquals("third", cfg.winner());
+    }
+
+}
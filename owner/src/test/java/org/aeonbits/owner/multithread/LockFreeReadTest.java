@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner.multithread;
+
+import org.aeonbits.owner.ConfigFactory;
+import org.aeonbits.owner.Mutable;
+import org.aeonbits.owner.event.TransactionalPropertyChangeListener;
+import org.junit.Test;
+
+import java.beans.PropertyChangeEvent;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Readers must not be blocked by a writer holding the lock, e.g. while it is notifying the listeners.
+ *
+ * @author Luigi R. Viggiano
+ */
+public class LockFreeReadTest {
+
+    public interface MyConfig extends Mutable {
+        @DefaultValue("10")
+        Integer someValue();
+    }
+
+    @Test
+    public void readersShouldSeeThePreviousValueWhileAWriterIsWorking() throws Throwable {
+        final MyConfig cfg = ConfigFactory.create(MyConfig.class);
+        final AtomicReference<Integer> readDuringChange = new AtomicReference<Integer>();
+        final AtomicReference<Integer> readAfterChange = new AtomicReference<Integer>();
+
+        cfg.addPropertyChangeListener(new TransactionalPropertyChangeListener() {
+            public void beforePropertyChange(PropertyChangeEvent evt) {
+                readDuringChange.set(readInAnotherThread(cfg));
+            }
+
+            public void propertyChange(PropertyChangeEvent evt) {
+                readAfterChange.set(readInAnotherThread(cfg));
+            }
+        });
+
+        cfg.setProperty("someValue", "20");
+
+        assertEquals(Integer.valueOf(10), readDuringChange.get());
+        assertEquals(Integer.valueOf(20), readAfterChange.get());
+    }
+
+    private Integer readInAnotherThread(final MyConfig cfg) {
+        final AtomicReference<Integer> result = new AtomicReference<Integer>();
+        Thread reader = new Thread() {
+            @Override
+            public void run() {
+                result.set(cfg.someValue());
+            }
+        };
+        reader.start();
+        try {
+            reader.join(SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        assertFalse("reader is blocked", reader.isAlive());
+        return result.get();
+    }
+
+}
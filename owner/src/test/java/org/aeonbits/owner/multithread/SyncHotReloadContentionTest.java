@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner.multithread;
+
+import org.aeonbits.owner.Config.HotReload;
+import org.aeonbits.owner.Config.Sources;
+import org.aeonbits.owner.ConfigFactory;
+import org.aeonbits.owner.Reloadable;
+import org.aeonbits.owner.TestConstants;
+import org.aeonbits.owner.event.ReloadEvent;
+import org.aeonbits.owner.event.ReloadListener;
+import org.aeonbits.owner.util.TimeProviderForTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.net.URISyntaxException;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.aeonbits.owner.util.UtilTest.fileFromURI;
+import static org.aeonbits.owner.util.UtilTest.newArray;
+import static org.aeonbits.owner.util.UtilTest.save;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * With the synchronous hot reload every method invocation checks whether the interval is elapsed: the threads must
+ * not serialize on that check, and only one of them must reload the properties when the interval is elapsed.
+ *
+ * @author Luigi R. Viggiano
+ */
+public class SyncHotReloadContentionTest extends MultiThreadTestBase implements TestConstants {
+    private static final String SPEC = "file:" + RESOURCES_DIR + "/SyncHotReloadContentionConfig.properties";
+    private static File target;
+    private TimeProviderForTest time;
+    private SyncReloadConfig cfg;
+
+    @Sources(SPEC)
+    @HotReload(5)
+    public interface SyncReloadConfig extends Reloadable {
+        Integer someValue();
+    }
+
+    @BeforeClass
+    public static void beforeClass() throws URISyntaxException {
+        target = fileFromURI(SPEC);
+    }
+
+    @Before
+    public void before() throws Throwable {
+        save(target, new Properties() {{
+            setProperty("someValue", "10");
+        }});
+        assertTrue(target.setLastModified(target.lastModified() - 15000));
+
+        time = new TimeProviderForTest();
+        time.setup();
+        cfg = ConfigFactory.create(SyncReloadConfig.class);
+        assertEquals(Integer.valueOf(10), cfg.someValue());
+
+        save(target, new Properties() {{
+            setProperty("someValue", "20");
+        }});
+    }
+
+    @Test
+    public void onlyOneThreadShouldReload() throws Throwable {
+        final AtomicInteger reloads = new AtomicInteger();
+        cfg.addReloadListener(new ReloadListener() {
+            public void reloadPerformed(ReloadEvent event) {
+                reloads.incrementAndGet();
+            }
+        });
+        time.elapse(5, SECONDS);
+        Object lock = new Object();
+        ReaderThread[] readers = newArray(20, new ReaderThread(cfg, lock, 100));
+
+        start(readers);
+        notifyAll(lock);
+        join(readers);
+
+        assertNoErrors(readers);
+        assertEquals(1, reloads.get());
+        assertEquals(Integer.valueOf(20), cfg.someValue());
+    }
+
+    @Test
+    public void readersShouldNotWaitForTheReload() throws Throwable {
+        final AtomicReference<Integer> readDuringReload = new AtomicReference<Integer>();
+        cfg.addReloadListener(new ReloadListener() {
+            public void reloadPerformed(ReloadEvent event) {
+                readDuringReload.set(readInAnotherThread(cfg));
+            }
+        });
+        time.elapse(5, SECONDS);
+
+        assertEquals(Integer.valueOf(20), cfg.someValue());
+        assertNotNull(readDuringReload.get());
+    }
+
+    private Integer readInAnotherThread(final SyncReloadConfig cfg) {
+        final AtomicReference<Integer> result = new AtomicReference<Integer>();
+        Thread reader = new Thread() {
+            @Override
+            public void run() {
+                result.set(cfg.someValue());
+            }
+        };
+        reader.start();
+        try {
+            reader.join(SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        assertFalse("reader is blocked", reader.isAlive());
+        return result.get();
+    }
+
+    private class ReaderThread extends ThreadBase<SyncReloadConfig> {
+        ReaderThread(SyncReloadConfig cfg, Object lock, int loops) {
+            super(cfg, lock, loops);
+        }
+
+        @Override
+        void execute() throws Throwable {
+            Integer value = cfg.someValue();
+            assertTrue(value == 10 || value == 20);
+        }
+
+        @Override
+        public Object clone() throws CloneNotSupportedException {
+            return new ReaderThread(cfg, lock, loops);
+        }
+    }
+
+    @After
+    public void after() throws Throwable {
+        time.tearDown();
+        target.delete();
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner.reload;
+
+import org.aeonbits.owner.Config.LoadPolicy;
+import org.aeonbits.owner.Config.Sources;
+import org.aeonbits.owner.ConfigFactory;
+import org.aeonbits.owner.Factory;
+import org.aeonbits.owner.Mutable;
+import org.aeonbits.owner.Reloadable;
+import org.aeonbits.owner.TestConstants;
+import org.aeonbits.owner.event.RollbackOperationException;
+import org.aeonbits.owner.event.TransactionalPropertyChangeListener;
+import org.aeonbits.owner.loaders.Loader;
+import org.aeonbits.owner.util.Util;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.beans.PropertyChangeEvent;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Arrays.asList;
+import static org.aeonbits.owner.Config.LoadType.MERGE;
+import static org.aeonbits.owner.util.UtilTest.fileFromURI;
+import static org.aeonbits.owner.util.UtilTest.save;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * On reload the files that haven't been modified are not read again, and only the keys of the modified ones are
+ * compared to find out the changes.
+ *
+ * @author Luigi R. Viggiano
+ */
+public class IncrementalReloadTest implements TestConstants {
+    private static final String FIRST = "file:" + RESOURCES_DIR + "/IncrementalReloadFirst.counted";
+    private static final String SECOND = "file:" + RESOURCES_DIR + "/IncrementalReloadSecond.counted";
+
+    private static final AtomicInteger reads = new AtomicInteger();
+
+    /**
+     * Loads the files with extension <code>.counted</code>, counting the reads.
+     */
+    static class CountingLoader implements Loader {
+        public boolean accept(URI uri) {
+            return uri.toString().endsWith(".counted");
+        }
+
+        public void load(Properties result, URI uri) throws IOException {
+            reads.incrementAndGet();
+            InputStream input = new FileInputStream(Util.fileFromURI(uri));
+            try {
+                result.load(input);
+            } finally {
+                input.close();
+            }
+        }
+
+        public String defaultSpecFor(String uriPrefix) {
+            return null;
+        }
+    }
+
+    @Sources({FIRST, SECOND})
+    @LoadPolicy(MERGE)
+    interface IncrementalConfig extends Reloadable, Mutable {
+        String host();
+        String port();
+        String name();
+    }
+
+    private File first;
+    private File second;
+    private IncrementalConfig cfg;
+    private final List<String> events = new ArrayList<String>();
+    private boolean veto;
+
+    @Before
+    public void before() throws Exception {
+        first = fileFromURI(FIRST);
+        second = fileFromURI(SECOND);
+        saveOld(first, 20000, "host", "localhost", "port", "80");
+        saveOld(second, 20000, "port", "8080", "name", "second");
+
+        Factory factory = ConfigFactory.newInstance();
+        factory.registerLoader(new CountingLoader());
+        reads.set(0);
+        cfg = factory.create(IncrementalConfig.class);
+        cfg.addPropertyChangeListener(new TransactionalPropertyChangeListener() {
+            public void beforePropertyChange(PropertyChangeEvent evt) throws RollbackOperationException {
+                if (veto)
+                    throw new RollbackOperationException();
+            }
+
+            public void propertyChange(PropertyChangeEvent evt) {
+                events.add(evt.getPropertyName() + "=" + evt.getNewValue());
+            }
+        });
+    }
+
+    @After
+    public void after() {
+        first.delete();
+        second.delete();
+    }
+
+    @Test
+    public void shouldNotReadTheUnmodifiedFilesAgain() {
+        assertEquals(2, reads.get());
+        cfg.reload();
+        assertEquals(2, reads.get());
+        assertEquals("localhost", cfg.host());
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    public void shouldReadAndCompareOnlyTheModifiedFiles() throws IOException {
+        saveOld(second, 10000, "port", "8080", "name", "changed");
+        cfg.reload();
+
+        assertEquals(3, reads.get());
+        assertEquals(asList("name=changed"), events);
+        assertEquals("changed", cfg.name());
+    }
+
+    @Test
+    public void shouldRestoreTheModifiedKeys() {
+        cfg.setProperty("host", "example.com");
+        events.clear();
+
+        cfg.reload();
+        assertEquals(asList("host=localhost"), events);
+        assertEquals("localhost", cfg.host());
+    }
+
+    @Test
+    public void shouldApplyOnTheNextReloadTheChangesRolledBack() throws IOException {
+        saveOld(first, 10000, "host", "example.com", "port", "80");
+        veto = true;
+        cfg.reload();
+        assertEquals("localhost", cfg.host());
+
+        veto = false;
+        cfg.reload();
+        assertEquals(3, reads.get());
+        assertEquals(asList("host=example.com"), events);
+    }
+
+    private static void saveOld(File file, long age, final String... keyValues) throws IOException {
+        save(file, new Properties() {{
+            for (int i = 0; i < keyValues.length; i += 2)
+                setProperty(keyValues[i], keyValues[i + 1]);
+        }});
+        assertTrue(file.setLastModified(System.currentTimeMillis() - 15000 - age));
+    }
+
+}
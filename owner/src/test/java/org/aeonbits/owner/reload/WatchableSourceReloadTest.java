@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2012-2015, Luigi R. Viggiano
+ * All rights reserved.
+ *
+ * This software is distributable under the BSD license.
+ * See the terms of the BSD license in the documentation provided with this software.
+ */
+
+package org.aeonbits.owner.reload;
+
+import org.aeonbits.owner.Config.HotReload;
+import org.aeonbits.owner.Config.Sources;
+import org.aeonbits.owner.ConfigFactory;
+import org.aeonbits.owner.Factory;
+import org.aeonbits.owner.Reloadable;
+import org.aeonbits.owner.event.ReloadEvent;
+import org.aeonbits.owner.event.ReloadListener;
+import org.aeonbits.owner.loaders.Loader;
+import org.aeonbits.owner.loaders.Watchable;
+import org.aeonbits.owner.util.TimeProviderForTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * The hot reload detects the changes of the sources that aren't files through the stamp provided by their
+ * {@link Watchable} loader, without loading them again while the stamp doesn't change; when the loader doesn't
+ * provide a stamp, what is loaded is compared.
+ *
+ * @author Luigi R. Viggiano
+ */
+public class WatchableSourceReloadTest {
+
+    private static final Properties content = new Properties();
+    private static final AtomicInteger loads = new AtomicInteger();
+    private static volatile String stamp;
+
+    static class MemoryLoader implements Loader {
+        public boolean accept(URI uri) {
+            return uri.getScheme().equals("memory");
+        }
+
+        public void load(Properties result, URI uri) throws IOException {
+            loads.incrementAndGet();
+            synchronized (content) {
+                result.putAll(content);
+            }
+        }
+
+        public String defaultSpecFor(String uriPrefix) {
+            return null;
+        }
+    }
+
+    static class StampedMemoryLoader extends MemoryLoader implements Watchable {
+        public String stamp(URI uri) {
+            return stamp;
+        }
+    }
+
+    @Sources("memory:config")
+    @HotReload(5)
+    interface MemoryConfig extends Reloadable {
+        String name();
+    }
+
+    private TimeProviderForTest time;
+    private final AtomicInteger reloads = new AtomicInteger();
+
+    @Before
+    public void before() {
+        content.setProperty("name", "first");
+        stamp = "1";
+        loads.set(0);
+        time = new TimeProviderForTest();
+        time.setup();
+    }
+
+    @After
+    public void after() {
+        time.tearDown();
+    }
+
+    @Test
+    public void shouldNotLoadTheSourceWhileTheStampIsUnchanged() {
+        MemoryConfig cfg = create(new StampedMemoryLoader());
+        int initialLoads = loads.get();
+
+        content.setProperty("name", "second");
+        time.elapse(5, SECONDS);
+        assertEquals("first", cfg.name());
+        assertEquals(initialLoads, loads.get());
+        assertEquals(0, reloads.get());
+    }
+
+    @Test
+    public void shouldReloadWhenTheStampChanges() {
+        MemoryConfig cfg = create(new StampedMemoryLoader());
+
+        content.setProperty("name", "second");
+        stamp = "2";
+        time.elapse(5, SECONDS);
+        assertEquals("second", cfg.name());
+        assertEquals(1, reloads.get());
+    }
+
+    @Test
+    public void shouldCompareTheContentWhenThereIsNoStamp() {
+        MemoryConfig cfg = create(new MemoryLoader());
+
+        time.elapse(5, SECONDS);
+        assertEquals("first", cfg.name());
+        assertEquals(0, reloads.get());
+
+        content.setProperty("name", "second");
+        time.elapse(5, SECONDS);
+        assertEquals("second", cfg.name());
+        assertEquals(1, reloads.get());
+    }
+
+    private MemoryConfig create(Loader loader) {
+        Factory factory = ConfigFactory.newInstance();
+        factory.registerLoader(loader);
+        MemoryConfig cfg = factory.create(MemoryConfig.class);
+        cfg.addReloadListener(new ReloadListener() {
+            public void reloadPerformed(ReloadEvent event) {
+                reloads.incrementAndGet();
+            }
+        });
+        return cfg;
+    }
+
+}
@@ -8,6 +8,7 @@
 
 package org.aeonbits.owner.serializable;
 
+import org.aeonbits.owner.Closeable;
 import org.aeonbits.owner.Config.HotReload;
 import org.aeonbits.owner.Config.Sources;
 import org.aeonbits.owner.ConfigFactory;
@@ -52,6 +53,13 @@ public class TestSerialization implements TestConstants {
         public String[] someArray();
     }
 
+    @HotReload
+    @Sources(SPEC)
+    public static interface MyCloseableConfig extends Closeable {
+        @DefaultValue("someText")
+        public String someText();
+    }
+
     @Before
     public void before() throws IOException {
         File parent = new File(RESOURCES_DIR);
@@ -78,12 +86,25 @@ public class TestSerialization implements TestConstants {
         assertEquals(cfg, deserialized);
     }
 
-    private MyConfig deserialize(File target) throws IOException, ClassNotFoundException {
+    @Test
+    public void shouldCloseWhenDeserialized() throws IOException, ClassNotFoundException {
+        MyCloseableConfig cfg = ConfigFactory.create(MyCloseableConfig.class);
+        serialize(cfg, target);
+
+        MyCloseableConfig deserialized = deserialize(target);
+        deserialized.close();
+        cfg.close();
+
+        assertEquals("someText", deserialized.someText());
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T deserialize(File target) throws IOException, ClassNotFoundException {
         FileInputStream fin = new FileInputStream(target);
         try {
             ObjectInputStream oin = new ObjectInputStream(fin);
             try {
-                return (MyConfig) oin.readObject();
+                return (T) oin.readObject();
             } finally {
                 oin.close();
             }
@@ -92,7 +113,7 @@ public class TestSerialization implements TestConstants {
         }
     }
 
-    private void serialize(MyConfig cfg, File target) throws IOException {
+    private void serialize(Object cfg, File target) throws IOException {
         FileOutputStream fout = new FileOutputStream(target);
         try {
             ObjectOutputStream oout = new ObjectOutputStream(fout);
@@ -14,11 +14,9 @@ import org.aeonbits.owner.Factory;
 import org.aeonbits.owner.TestConstants;
 import org.junit.Before;
 import org.junit.Test;
-import org.xml.sax.SAXException;
 
-import javax.xml.parsers.FactoryConfigurationError;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.parsers.SAXParserFactory;
+import javax.xml.stream.FactoryConfigurationError;
+import javax.xml.stream.XMLInputFactory;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
@@ -30,6 +28,8 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 
@@ -110,12 +110,12 @@ public class XmlSourceTest implements TestConstants {
     }
 
     @Test(expected = FactoryConfigurationError.class)
-    public void testSAXParserMisconfigured() {
-        System.setProperty("javax.xml.parsers.SAXParserFactory", "foo.bar.baz");
+    public void testXMLInputFactoryMisconfigured() {
+        System.setProperty("javax.xml.stream.XMLInputFactory", "foo.bar.baz");
         try {
             factory.create(ServerConfigJavaFormat.class);
         } finally {
-            System.getProperties().remove("javax.xml.parsers.SAXParserFactory");
+            System.getProperties().remove("javax.xml.stream.XMLInputFactory");
         }
     }
 
@@ -129,21 +129,21 @@ public class XmlSourceTest implements TestConstants {
     }
 
     @Test
-    public void testParserConfigurationException() throws ParserConfigurationException, SAXException {
-        SAXParserFactory saxFactory = mock(SAXParserFactory.class);
-        ParserConfigurationException expected = new ParserConfigurationException();
-        doThrow(expected).when(saxFactory).newSAXParser();
+    public void testUnsupportedXMLInputFactoryProperty() {
+        XMLInputFactory inputFactory = mock(XMLInputFactory.class);
+        IllegalArgumentException expected = new IllegalArgumentException();
+        doThrow(expected).when(inputFactory).setProperty(anyString(), any());
 
-        SAXParserFactoryForTest.setDelegate(saxFactory);
+        XMLInputFactoryForTest.setDelegate(inputFactory);
 
-        System.setProperty("javax.xml.parsers.SAXParserFactory", SAXParserFactoryForTest.class.getName());
+        System.setProperty("javax.xml.stream.XMLInputFactory", XMLInputFactoryForTest.class.getName());
         try {
             factory.create(ServerConfigJavaFormat.class);
             fail("exception is expected");
         } catch (IllegalArgumentException ex) {
-            assertSame(expected, ex.getCause());
+            assertSame(expected, ex);
         } finally {
-            System.getProperties().remove("javax.xml.parsers.SAXParserFactory");
+            System.getProperties().remove("javax.xml.stream.XMLInputFactory");
         }
     }
 